@@ -0,0 +1,140 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Descriptors shared by the benchmarks. {@code easyjacoco} is the example from the test resources;
+ * any other value is a synthetic spec of the form {@code <mojos>x<parameters>x<descriptionSize>}.
+ */
+final class BenchmarkDescriptors {
+
+  static final String EASYJACOCO = "easyjacoco";
+
+  private static final String[] TYPES = {
+    "java.lang.String",
+    "java.io.File",
+    "boolean",
+    "int",
+    "java.util.List",
+    "org.apache.maven.project.MavenProject",
+    "org.apache.maven.execution.MavenSession"
+  };
+
+  private static final String[] PHASES = {
+    "validate", "generate-sources", "compile", "test", "package", "verify", "install", "site"
+  };
+
+  private static final String WORDS =
+      "Generates the coverage report for every module of the reactor and merges the execution"
+          + " data into a single bundle, e.g. for report-project. Supports wildcards such as"
+          + " *.exec and version 1.2.3 style numbers. ";
+
+  private BenchmarkDescriptors() {}
+
+  static File resolve(String spec, Path workDirectory) throws IOException {
+    if (EASYJACOCO.equals(spec)) {
+      return locateExample();
+    }
+
+    String[] dimensions = spec.split("x");
+    if (dimensions.length != 3) {
+      throw new IllegalArgumentException(
+          "Expected <mojos>x<parameters>x<descriptionSize>: " + spec);
+    }
+    File file = workDirectory.resolve("plugin-" + spec + ".xml").toFile();
+    write(
+        file,
+        Integer.parseInt(dimensions[0]),
+        Integer.parseInt(dimensions[1]),
+        Integer.parseInt(dimensions[2]));
+    return file;
+  }
+
+  static void write(File file, int mojoCount, int parameterCount, int descriptionSize)
+      throws IOException {
+    try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+      out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n\n");
+      out.write("<!-- Generated by markdocs benchmarks -->\n\n");
+      out.write("<plugin>\n");
+      out.write("  <name>synthetic-maven-plugin</name>\n");
+      element(out, "  ", "description", text(descriptionSize));
+      out.write("  <groupId>com.example.synthetic</groupId>\n");
+      out.write("  <artifactId>synthetic-maven-plugin</artifactId>\n");
+      out.write("  <version>1.0.0</version>\n");
+      out.write("  <goalPrefix>synthetic</goalPrefix>\n");
+      out.write("  <mojos>\n");
+
+      for (int m = 0; m < mojoCount; m++) {
+        out.write("    <mojo>\n");
+        element(out, "      ", "goal", "goal-" + m);
+        element(out, "      ", "description", text(descriptionSize));
+        element(out, "      ", "requiresProject", "true");
+        element(out, "      ", "phase", PHASES[m % PHASES.length]);
+        element(out, "      ", "implementation", "com.example.synthetic.Goal" + m + "Mojo");
+        element(out, "      ", "language", "java");
+        element(out, "      ", "threadSafe", "true");
+        out.write("      <parameters>\n");
+        for (int p = 0; p < parameterCount; p++) {
+          out.write("        <parameter>\n");
+          element(out, "          ", "name", "parameter" + p);
+          element(out, "          ", "type", TYPES[(m + p) % TYPES.length]);
+          element(out, "          ", "required", String.valueOf(p % 5 == 0));
+          element(out, "          ", "editable", String.valueOf(p % 11 != 0));
+          element(out, "          ", "description", text(descriptionSize));
+          out.write("        </parameter>\n");
+        }
+        out.write("      </parameters>\n");
+        out.write("      <configuration>\n");
+        for (int p = 0; p < parameterCount; p++) {
+          out.write(
+              "        <parameter"
+                  + p
+                  + " implementation=\""
+                  + TYPES[(m + p) % TYPES.length]
+                  + "\" default-value=\"value"
+                  + p
+                  + "\">${synthetic.parameter"
+                  + p
+                  + "}</parameter"
+                  + p
+                  + ">\n");
+        }
+        out.write("      </configuration>\n");
+        out.write("    </mojo>\n");
+      }
+
+      out.write("  </mojos>\n");
+      out.write("</plugin>\n");
+    }
+  }
+
+  private static void element(Writer out, String indent, String name, String value)
+      throws IOException {
+    out.write(indent);
+    out.write("<" + name + ">");
+    out.write(value.replace("&", "&amp;").replace("<", "&lt;"));
+    out.write("</" + name + ">\n");
+  }
+
+  private static String text(int size) {
+    StringBuilder sb = new StringBuilder(size);
+    while (sb.length() < size) {
+      sb.append(WORDS, 0, Math.min(WORDS.length(), size - sb.length()));
+    }
+    return sb.toString();
+  }
+
+  private static File locateExample() {
+    File example = new File("src/test/resources/examples/easyjacoco/plugin.xml");
+    if (!example.isFile()) {
+      throw new IllegalStateException(
+          "Run the benchmarks from the project directory: " + example.getAbsolutePath());
+    }
+    return example.getAbsoluteFile();
+  }
+}
@@ -0,0 +1,95 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratorBenchmark {
+
+  @Param({"easyjacoco", "10x10x200", "100x20x500", "500x50x2000"})
+  private String descriptor;
+
+  private PluginDescriptor model;
+  private Goal largestGoal;
+  private MarkdownGenerator generator;
+  private MarkdownGenerator templateGenerator;
+
+  @Setup
+  public void setUp() throws Exception {
+    Path workDirectory = Files.createTempDirectory("markdocs-generator-benchmark");
+    try {
+      model =
+          new PluginDescriptorParser()
+              .parse(BenchmarkDescriptors.resolve(descriptor, workDirectory));
+    } finally {
+      FileUtils.deleteDirectory(workDirectory.toFile());
+    }
+    generator = new MarkdownGenerator();
+    templateGenerator =
+        new MarkdownGenerator(
+            MarkdownGenerator.compileOverviewTemplate(
+                "overview.mustache", MarkdownGenerator.defaultOverviewTemplate()),
+            MarkdownGenerator.compileGoalTemplate(
+                "goal.mustache", MarkdownGenerator.defaultGoalTemplate()));
+    largestGoal = model.getGoals().get(0);
+    for (Goal goal : model.getGoals()) {
+      if (goal.getParameters().size() > largestGoal.getParameters().size()) {
+        largestGoal = goal;
+      }
+    }
+  }
+
+  @Benchmark
+  public String generateOverview() {
+    return generator.generateOverview(model, "Benchmark");
+  }
+
+  @Benchmark
+  public String generateGoalPage() {
+    return generator.generateGoalPage(largestGoal);
+  }
+
+  @Benchmark
+  public int writeGoalPageToBuffer() throws Exception {
+    try (PageBuffer buffer = PageBuffer.acquire()) {
+      generator.writeGoalPage(largestGoal, buffer);
+      return buffer.length();
+    }
+  }
+
+  @Benchmark
+  public String generateOverviewFromTemplate() {
+    return templateGenerator.generateOverview(model, "Benchmark");
+  }
+
+  @Benchmark
+  public String generateGoalPageFromTemplate() {
+    return templateGenerator.generateGoalPage(largestGoal);
+  }
+
+  @Benchmark
+  public int writeGoalPageFromTemplateToBuffer() throws Exception {
+    try (PageBuffer buffer = PageBuffer.acquire()) {
+      templateGenerator.writeGoalPage(largestGoal, buffer);
+      return buffer.length();
+    }
+  }
+}
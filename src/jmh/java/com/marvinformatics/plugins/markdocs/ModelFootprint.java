@@ -0,0 +1,45 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Retained heap of many parsed descriptors held at once, as in an aggregate or bulk run. Not a JMH
+ * benchmark: it walks the object graph with JOL once and prints the footprint.
+ *
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec \
+ *   -Dbenchmark.main=com.marvinformatics.plugins.markdocs.ModelFootprint \
+ *   -Djmh.args="2000 20x15x200"
+ * </pre>
+ */
+public final class ModelFootprint {
+
+  private ModelFootprint() {}
+
+  public static void main(String[] args) throws Exception {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+    String spec = args.length > 1 ? args[1] : "20x15x200";
+
+    Path workDirectory = Files.createTempDirectory("markdocs-model-footprint");
+    PluginDescriptor[] descriptors = new PluginDescriptor[count];
+    try {
+      File pluginXml = BenchmarkDescriptors.resolve(spec, workDirectory);
+      PluginDescriptorParser parser = new PluginDescriptorParser();
+      for (int i = 0; i < count; i++) {
+        descriptors[i] = parser.parse(pluginXml);
+      }
+    } finally {
+      FileUtils.deleteDirectory(workDirectory.toFile());
+    }
+
+    GraphLayout layout = GraphLayout.parseInstance((Object[]) descriptors);
+    System.out.println(layout.toFootprint());
+    System.out.printf(
+        "%d descriptors (%s): %d objects, %d bytes retained, %d bytes per descriptor%n",
+        count, spec, layout.totalCount(), layout.totalSize(), layout.totalSize() / count);
+  }
+}
@@ -0,0 +1,107 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.monitor.logging.DefaultLog;
+import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** End-to-end {@code markdocs:generate}: fingerprint, parse, render and write every page. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MojoBenchmark {
+
+  @Param({"easyjacoco", "100x20x500", "500x50x2000"})
+  private String descriptor;
+
+  @Param({"1", "4"})
+  private int threads;
+
+  private Path workDirectory;
+  private MarkDocsMojo fullMojo;
+  private MarkDocsMojo upToDateMojo;
+
+  @Setup
+  public void setUp() throws Exception {
+    workDirectory = Files.createTempDirectory("markdocs-mojo-benchmark");
+    File pluginXml = BenchmarkDescriptors.resolve(descriptor, workDirectory);
+
+    fullMojo = mojo(pluginXml, workDirectory.resolve("full").toFile(), false);
+    upToDateMojo = mojo(pluginXml, workDirectory.resolve("incremental").toFile(), true);
+    upToDateMojo.execute();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory(workDirectory.toFile());
+  }
+
+  @Benchmark
+  public void generate() throws Exception {
+    fullMojo.execute();
+  }
+
+  @Benchmark
+  public void generateUpToDate() throws Exception {
+    upToDateMojo.execute();
+  }
+
+  private MarkDocsMojo mojo(File pluginXml, File outputDirectory, boolean incremental)
+      throws Exception {
+    MarkDocsMojo mojo = new MarkDocsMojo();
+    mojo.setLog(new DefaultLog(new ConsoleLogger(Logger.LEVEL_WARN, "markdocs")));
+    set(mojo, "pluginDescriptor", pluginXml);
+    set(mojo, "outputDirectory", outputDirectory);
+    set(mojo, "title", "Benchmark");
+    set(mojo, "parserMode", PluginDescriptorParser.Mode.STAX);
+    set(mojo, "incremental", incremental);
+    set(mojo, "threads", threads);
+    set(mojo, "markdocsVersion", "benchmark");
+    // the other parameters at the defaults Maven would inject, so new ones are never left null
+    set(mojo, "descriptorCache", false);
+    set(mojo, "formats", List.of("markdown"));
+    set(mojo, "metrics", false);
+    set(mojo, "searchIndex", false);
+    set(mojo, "crossLinks", false);
+    set(mojo, "overviewGroupBy", OverviewPages.GroupBy.NONE);
+    set(mojo, "overviewPageSize", 0);
+    set(mojo, "scanClasses", false);
+    set(mojo, "archive", false);
+    return mojo;
+  }
+
+  private static void set(Object target, String name, Object value) throws Exception {
+    for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+      try {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+        return;
+      } catch (NoSuchFieldException e) {
+        // declared further up
+      }
+    }
+    throw new NoSuchFieldException(name);
+  }
+}
@@ -0,0 +1,55 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+  @Param({"easyjacoco", "10x10x200", "100x20x500", "500x50x2000"})
+  private String descriptor;
+
+  @Param({"STAX", "DOM"})
+  private PluginDescriptorParser.Mode mode;
+
+  private Path workDirectory;
+  private File pluginXml;
+  private PluginDescriptorParser parser;
+
+  @Setup
+  public void setUp() throws Exception {
+    workDirectory = Files.createTempDirectory("markdocs-parser-benchmark");
+    pluginXml = BenchmarkDescriptors.resolve(descriptor, workDirectory);
+    parser = new PluginDescriptorParser(mode);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory(workDirectory.toFile());
+  }
+
+  @Benchmark
+  public PluginDescriptor parse() throws Exception {
+    return parser.parse(pluginXml);
+  }
+}
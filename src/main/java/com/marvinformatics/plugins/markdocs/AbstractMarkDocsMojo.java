@@ -0,0 +1,254 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+
+public abstract class AbstractMarkDocsMojo extends AbstractMojo {
+
+  private static final String CACHE_DIRECTORY = "markdocs-cache";
+
+  @Parameter(property = "markdocs.parser", defaultValue = "STAX")
+  protected PluginDescriptorParser.Mode parserMode;
+
+  /** Skip generation when nothing changed and only rewrite pages whose content changed. */
+  @Parameter(property = "markdocs.incremental", defaultValue = "true")
+  protected boolean incremental;
+
+  /** Number of threads rendering goal pages; values below 1 use one thread per processor. */
+  @Parameter(property = "markdocs.threads", defaultValue = "1")
+  protected int threads;
+
+  /** Keep parsed plugin descriptors between executions and only parse them again once changed. */
+  @Parameter(property = "markdocs.descriptorCache", defaultValue = "true")
+  protected boolean descriptorCache;
+
+  /**
+   * Where the descriptor cache is kept; {@code markdocs-cache} in the build directory, or in the
+   * working directory for a goal run without a project.
+   */
+  @Parameter(property = "markdocs.descriptorCacheDirectory")
+  protected File descriptorCacheDirectory;
+
+  /**
+   * Output formats: {@code markdown}, {@code asciidoc}, {@code json}, or the format of a renderer
+   * added to the plugin's dependencies. With more than one, each is written to a subdirectory named
+   * after it.
+   */
+  @Parameter(property = "markdocs.formats", defaultValue = "markdown")
+  protected List<String> formats;
+
+  /** Template for the markdown overview page instead of the built-in layout. */
+  @Parameter(property = "markdocs.overviewTemplate")
+  protected File overviewTemplate;
+
+  /** Template for every markdown goal page instead of the built-in layout. */
+  @Parameter(property = "markdocs.goalTemplate")
+  protected File goalTemplate;
+
+  /**
+   * Write phase timings, allocation and output totals to {@value GenerationMetrics#FILE_NAME} in
+   * the output directory and log one summary line instead of every page.
+   */
+  @Parameter(property = "markdocs.metrics", defaultValue = "false")
+  protected boolean metrics;
+
+  /**
+   * Goals to document, e.g. {@code check-*}; {@code *} matches any characters and {@code ?} one.
+   * Every goal when empty.
+   */
+  @Parameter(property = "markdocs.includes")
+  protected List<String> includes;
+
+  /** Goals to leave out, e.g. {@code help}, even when included. */
+  @Parameter(property = "markdocs.excludes")
+  protected List<String> excludes;
+
+  /** Write {@value SearchIndex#FILE_NAME}, an inverted index of the pages for client search. */
+  @Parameter(property = "markdocs.searchIndex", defaultValue = "false")
+  protected boolean searchIndex;
+
+  /** Link goal and parameter names in descriptions to their pages, on markdown pages. */
+  @Parameter(property = "markdocs.crossLinks", defaultValue = "false")
+  protected boolean crossLinks;
+
+  /** Group the overview goals under headings: {@code NONE}, {@code PHASE} or {@code PREFIX}. */
+  @Parameter(property = "markdocs.overviewGroupBy", defaultValue = "NONE")
+  protected OverviewPages.GroupBy overviewGroupBy;
+
+  /** Most goals on one overview page, the rest on numbered pages; 0 to list all on one page. */
+  @Parameter(property = "markdocs.overviewPageSize", defaultValue = "0")
+  protected int overviewPageSize;
+
+  @Parameter(defaultValue = "${plugin.version}", readonly = true)
+  protected String markdocsVersion;
+
+  @Parameter(defaultValue = "${session}", readonly = true, required = true)
+  protected MavenSession session;
+
+  protected ForkJoinPool createPool() {
+    return new ForkJoinPool(threads < 1 ? Runtime.getRuntime().availableProcessors() : threads);
+  }
+
+  /** Locates the jar of {@code groupId:artifactId:version} in the local repository. */
+  protected File resolvePluginJar(String coordinates) throws MojoExecutionException {
+    Artifact artifact;
+    try {
+      artifact = new DefaultArtifact(coordinates);
+    } catch (IllegalArgumentException e) {
+      throw new MojoExecutionException(
+          "Invalid plugin coordinates, expected groupId:artifactId:version: " + coordinates, e);
+    }
+
+    RepositorySystemSession repositorySession = session.getRepositorySession();
+    File jar =
+        new File(
+            repositorySession.getLocalRepository().getBasedir(),
+            repositorySession.getLocalRepositoryManager().getPathForLocalArtifact(artifact));
+    if (!jar.isFile()) {
+      throw new MojoExecutionException(
+          "Plugin " + coordinates + " not found in the local repository: " + jar);
+    }
+    return jar;
+  }
+
+  protected File cacheDirectory() {
+    if (descriptorCacheDirectory != null) {
+      return descriptorCacheDirectory;
+    }
+    MavenProject project = session != null ? session.getCurrentProject() : null;
+    // without a pom Maven runs the goal in a stub project, whose build directory means nothing
+    if (project == null || project.getFile() == null) {
+      return new File(session != null ? session.getExecutionRootDirectory() : ".", CACHE_DIRECTORY);
+    }
+    return new File(project.getBuild().getDirectory(), CACHE_DIRECTORY);
+  }
+
+  /** A parser configured like the generators, for goals that only read descriptors. */
+  protected PluginDescriptorParser createParser() {
+    return new PluginDescriptorParser(
+        parserMode,
+        descriptorCache ? new DescriptorCache(cacheDirectory()) : null,
+        GoalFilter.of(includes, excludes));
+  }
+
+  protected DocumentationGenerator createGenerator(ForkJoinPool pool)
+      throws MojoExecutionException {
+    DocumentationGenerator generator = new DocumentationGenerator(getLog(), pool);
+    generator.setRenderers(createRenderers());
+    generator.setParserMode(parserMode);
+    generator.setIncremental(incremental);
+    generator.setSearchIndex(searchIndex);
+    generator.setCrossLinks(crossLinks);
+    generator.setOverviewGroupBy(overviewGroupBy);
+    generator.setOverviewPageSize(overviewPageSize);
+    generator.setGoalFilter(GoalFilter.of(includes, excludes));
+    generator.setVersion(markdocsVersion);
+    if (descriptorCache) {
+      generator.setCache(new DescriptorCache(cacheDirectory()));
+    }
+    if (metrics) {
+      generator.setMetrics(new GenerationMetrics());
+      generator.setVerbose(false);
+    }
+    return generator;
+  }
+
+  // the built-in formats are registered like any other, see PageRenderer
+  private List<PageRenderer> createRenderers() throws MojoExecutionException {
+    Map<String, PageRenderer> available = new LinkedHashMap<>();
+    for (PageRenderer renderer :
+        ServiceLoader.load(PageRenderer.class, AbstractMarkDocsMojo.class.getClassLoader())) {
+      available.putIfAbsent(renderer.getFormat(), renderer);
+    }
+    if (overviewTemplate != null || goalTemplate != null) {
+      available.put(
+          MarkdownGenerator.FORMAT,
+          new MarkdownGenerator(
+              compileTemplate(overviewTemplate, MarkdownGenerator::compileOverviewTemplate),
+              compileTemplate(goalTemplate, MarkdownGenerator::compileGoalTemplate)));
+    }
+
+    List<PageRenderer> renderers = new ArrayList<>();
+    for (String format : formats != null ? formats : List.<String>of()) {
+      if (format == null || format.isBlank()) {
+        continue;
+      }
+      PageRenderer renderer = available.get(format.trim().toLowerCase(Locale.ROOT));
+      if (renderer == null) {
+        throw new MojoExecutionException(
+            "Unknown format " + format.trim() + ", expected one of " + available.keySet());
+      }
+      if (!renderers.contains(renderer)) {
+        renderers.add(renderer);
+      }
+    }
+    if (renderers.isEmpty()) {
+      renderers.add(available.get(MarkdownGenerator.FORMAT));
+    }
+    return renderers;
+  }
+
+  // compiled once per execution, then rendered for every page
+  private PageTemplate compileTemplate(
+      File template, BiFunction<String, String, PageTemplate> compiler)
+      throws MojoExecutionException {
+    if (template == null) {
+      return null;
+    }
+    try {
+      String source = new String(Files.readAllBytes(template.toPath()), StandardCharsets.UTF_8);
+      return compiler.apply(template.getName(), source);
+    } catch (IOException e) {
+      throw new MojoExecutionException("Failed to read template " + template, e);
+    } catch (IllegalArgumentException e) {
+      throw new MojoExecutionException("Invalid template " + e.getMessage(), e);
+    }
+  }
+
+  protected void logCacheStatistics(DocumentationGenerator generator) {
+    DescriptorCache cache = generator.getCache();
+    if (cache != null && cache.getHits() + cache.getMisses() > 0) {
+      getLog()
+          .info(
+              "Descriptor cache: "
+                  + cache.getHits()
+                  + " hits, "
+                  + cache.getMisses()
+                  + " misses ("
+                  + cache.getDirectory()
+                  + ")");
+    }
+  }
+
+  protected void writeMetrics(DocumentationGenerator generator, File outputDirectory)
+      throws MojoExecutionException {
+    if (!metrics) {
+      return;
+    }
+    GenerationMetrics generationMetrics = generator.getMetrics();
+    try {
+      File file = generationMetrics.store(outputDirectory);
+      getLog().info(generationMetrics.summary() + " (" + file + ")");
+    } catch (IOException e) {
+      throw new MojoExecutionException("Failed to write " + GenerationMetrics.FILE_NAME, e);
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Documents every {@code maven-plugin} module of the reactor concurrently and writes an index
+ * linking to each plugin's overview. The descriptors are only there once the modules are built, so
+ * run it from the command line after the build rather than binding it in the parent pom, which runs
+ * it before any module.
+ */
+@Mojo(name = "aggregate", defaultPhase = LifecyclePhase.SITE, aggregator = true, threadSafe = true)
+public class AggregateMojo extends AbstractMarkDocsMojo {
+
+  private static final String DESCRIPTOR_PATH = "META-INF/maven/plugin.xml";
+
+  @Parameter(defaultValue = "${project}", readonly = true, required = true)
+  private MavenProject project;
+
+  @Parameter(defaultValue = "${reactorProjects}", readonly = true, required = true)
+  private List<MavenProject> reactorProjects;
+
+  @Parameter(
+      property = "markdocs.aggregate.outputDirectory",
+      defaultValue = "${project.build.directory}/markdocs-aggregate")
+  private File outputDirectory;
+
+  @Parameter(property = "markdocs.aggregate.title", defaultValue = "${project.name}")
+  private String title;
+
+  @Override
+  public void execute() throws MojoExecutionException, MojoFailureException {
+    List<MavenProject> plugins = new ArrayList<>();
+    Map<String, MavenProject> directories = new HashMap<>();
+    int skipped = 0;
+    for (MavenProject reactorProject : reactorProjects) {
+      if (!"maven-plugin".equals(reactorProject.getPackaging())) {
+        continue;
+      }
+      MavenProject clash = directories.putIfAbsent(reactorProject.getArtifactId(), reactorProject);
+      if (clash != null) {
+        throw new MojoExecutionException(
+            "Plugins "
+                + clash.getGroupId()
+                + ":"
+                + clash.getArtifactId()
+                + " and "
+                + reactorProject.getGroupId()
+                + ":"
+                + reactorProject.getArtifactId()
+                + " would both be documented in "
+                + new File(outputDirectory, reactorProject.getArtifactId()));
+      }
+      if (descriptorOf(reactorProject).isFile()) {
+        plugins.add(reactorProject);
+      } else {
+        getLog()
+            .warn(
+                "Skipping "
+                    + reactorProject.getArtifactId()
+                    + ": plugin descriptor not found, run aggregate after the module is built");
+        skipped++;
+      }
+    }
+    if (plugins.isEmpty() && skipped > 0) {
+      throw new MojoExecutionException(
+          "No plugin descriptor found in the "
+              + skipped
+              + " plugin modules: run aggregate after they are built, e.g. mvn package "
+              + "com.marvinformatics.plugins:markdocs-maven-plugin:aggregate");
+    }
+
+    getLog().info("Generating markdown documentation for " + plugins.size() + " Maven plugins");
+    if (!outputDirectory.exists()) {
+      outputDirectory.mkdirs();
+    }
+
+    String overviewPage;
+    ForkJoinPool pool = createPool();
+    try {
+      DocumentationGenerator generator = createGenerator(pool);
+      overviewPage = generator.getOverviewPage();
+
+      List<ForkJoinTask<Exception>> tasks = new ArrayList<>(plugins.size());
+      for (MavenProject plugin : plugins) {
+        tasks.add(pool.submit(() -> document(generator, plugin)));
+      }
+
+      List<Exception> failures = new ArrayList<>();
+      for (int i = 0; i < tasks.size(); i++) {
+        Exception e = tasks.get(i).join();
+        if (e != null) {
+          getLog().error("Failed to document " + plugins.get(i).getArtifactId(), e);
+          failures.add(e);
+        }
+      }
+      if (!failures.isEmpty()) {
+        MojoExecutionException failure =
+            new MojoExecutionException(
+                "Failed to document " + failures.size() + " of " + plugins.size() + " plugins");
+        failures.forEach(failure::addSuppressed);
+        throw failure;
+      }
+      logCacheStatistics(generator);
+      writeMetrics(generator, outputDirectory);
+    } finally {
+      pool.shutdown();
+    }
+
+    try (PageBuffer buffer = PageBuffer.acquire()) {
+      writeIndex(plugins, overviewPage, buffer);
+      File index = new File(outputDirectory, "README.md");
+      DocumentationGenerator.writeIfChanged(buffer, index.toPath());
+    } catch (IOException e) {
+      throw new MojoExecutionException("Failed to write aggregate index", e);
+    }
+
+    getLog().info("Markdown documentation generated in: " + outputDirectory.getAbsolutePath());
+  }
+
+  private Exception document(DocumentationGenerator generator, MavenProject plugin) {
+    try {
+      File pluginOutput = new File(outputDirectory, plugin.getArtifactId());
+      if (generator.generate(
+          DescriptorSource.ofFile(descriptorOf(plugin)), pluginOutput, plugin.getName())) {
+        getLog().info("Documented " + plugin.getArtifactId());
+      } else {
+        getLog().info("Documentation of " + plugin.getArtifactId() + " is up to date");
+      }
+      return null;
+    } catch (MojoExecutionException | RuntimeException e) {
+      return e;
+    }
+  }
+
+  private void writeIndex(List<MavenProject> plugins, String overviewPage, Appendable out)
+      throws IOException {
+    out.append("# ");
+    MarkdownText.appendEscaped(title != null ? title : project.getArtifactId(), out);
+    out.append("\n\n");
+    out.append("This directory provides documentation for each Maven plugin in this project:\n\n");
+
+    for (MavenProject plugin : plugins) {
+      out.append("- [");
+      MarkdownText.appendEscaped(
+          plugin.getName() != null ? plugin.getName() : plugin.getArtifactId(), out);
+      out.append("](").append(plugin.getArtifactId()).append('/').append(overviewPage).append(')');
+      if (plugin.getDescription() != null && !plugin.getDescription().isBlank()) {
+        out.append(": ");
+        MarkdownText.appendEscaped(plugin.getDescription().trim().replace('\n', ' '), out);
+      }
+      out.append("\n");
+    }
+  }
+
+  private static File descriptorOf(MavenProject plugin) {
+    return new File(plugin.getBuild().getOutputDirectory(), DESCRIPTOR_PATH);
+  }
+}
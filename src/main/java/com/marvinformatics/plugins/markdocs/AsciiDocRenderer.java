@@ -0,0 +1,157 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The {@code asciidoc} format: the layout of the built-in markdown pages as AsciiDoc, for handbooks
+ * built with Asciidoctor. Descriptions are written as plain text.
+ */
+public class AsciiDocRenderer implements PageRenderer {
+
+  public static final String FORMAT = "asciidoc";
+
+  // characters that may start formatting, a macro, an xref or an attribute reference
+  private static final String MARKUP = "*_`#^~{+[<\\";
+
+  @Override
+  public String getFormat() {
+    return FORMAT;
+  }
+
+  @Override
+  public String getOverviewPage() {
+    return "index.adoc";
+  }
+
+  @Override
+  public String getExtension() {
+    return ".adoc";
+  }
+
+  @Override
+  public void writeOverview(PluginDescriptor descriptor, String title, Appendable out)
+      throws IOException {
+    out.append("= ");
+    appendEscaped(MarkdownGenerator.overviewTitle(descriptor, title), out);
+    out.append("\n\n");
+
+    out.append(
+        "This directory provides detailed documentation for each Maven goal available in the ");
+    appendEscaped(String.valueOf(descriptor.getName()), out);
+    out.append(". Click on the goal name for full details:\n\n");
+
+    for (Goal goal : descriptor.getGoals()) {
+      out.append("* xref:").append(goalPage(goal)).append('[');
+      appendEscaped(goal.getName(), out);
+      out.append(']');
+      if (goal.getDescription() != null) {
+        out.append(": ");
+        StringBuilder summary = new StringBuilder();
+        HtmlMarkdown.appendPlainSummary(goal.getDescription(), summary);
+        appendEscaped(summary.toString(), out);
+      }
+      out.append('\n');
+    }
+  }
+
+  @Override
+  public void writeGoalPage(Goal goal, Appendable out) throws IOException {
+    out.append("= ");
+    appendEscaped(MarkdownGenerator.goalTitle(goal), out);
+    out.append("\n\n");
+
+    out.append("*Goal Name:* ");
+    appendLiteral(goal.getName(), out);
+    out.append("\n\n");
+
+    if (goal.getPhase() != null) {
+      out.append("*Phase:* ");
+      appendLiteral(goal.getPhase(), out);
+      out.append("\n\n");
+    }
+
+    if (goal.getDescription() != null) {
+      out.append("*Description:* +\n");
+      appendText(goal.getDescription(), out);
+      out.append("\n\n");
+    }
+
+    out.append("*Usage:* +\n");
+    out.append("This goal is bound to the ");
+    appendLiteral(goal.getPhase() != null ? goal.getPhase() : "unspecified", out);
+    out.append(
+        " phase and is triggered automatically during the Maven build when the plugin is"
+            + " activated.\n\n");
+
+    List<Parameter> parameters = goal.getParameters();
+    if (!parameters.isEmpty()) {
+      out.append("*Parameters:*\n\n");
+      for (Parameter param : parameters) {
+        out.append("* [[").append(param.getName()).append("]]*");
+        appendEscaped(param.getName(), out);
+        out.append("* (");
+        appendEscaped(MarkdownGenerator.shortType(param), out);
+        out.append(", ").append(param.isRequired() ? "Required" : "Optional").append(")");
+
+        if (param.getDescription() != null) {
+          out.append(" +\n");
+          appendText(param.getDescription(), out);
+        }
+        if (param.getDefaultValue() != null) {
+          out.append(" +\n_Default:_ ");
+          appendLiteral(param.getDefaultValue(), out);
+        } else if (!param.isRequired()) {
+          out.append(" +\n_Default:_ None.");
+        }
+        out.append("\n\n");
+      }
+    }
+
+    List<Parameter> configurableParams = MarkdownGenerator.configurableParameters(goal);
+    if (!configurableParams.isEmpty()) {
+      out.append("*Example Configuration:*\n\n");
+      out.append("[source,xml]\n");
+      out.append("----\n");
+      out.append("<plugin>\n");
+      out.append("  <groupId><!-- groupId --></groupId>\n");
+      out.append("  <artifactId><!-- artifactId --></artifactId>\n");
+      out.append("  <version><!-- version --></version>\n");
+      out.append("  <configuration>\n");
+      for (Parameter param : configurableParams) {
+        out.append("    <")
+            .append(param.getName())
+            .append(param.isRequired() ? "><!-- required --></" : "><!-- optional --></")
+            .append(param.getName())
+            .append(">\n");
+      }
+      out.append("  </configuration>\n");
+      out.append("</plugin>\n");
+      out.append("----\n\n");
+    }
+  }
+
+  // plain text of the description, on one line so it stays inside list items
+  private static void appendText(String html, Appendable out) throws IOException {
+    StringBuilder text = new StringBuilder();
+    HtmlMarkdown.appendText(html, Integer.MAX_VALUE, text);
+    appendEscaped(text.toString().trim(), out);
+  }
+
+  // a passthrough in monospace, so nothing inside is taken for markup
+  private static void appendLiteral(String value, Appendable out) throws IOException {
+    out.append("`+").append(value).append("+`");
+  }
+
+  // text that could be taken for markup goes through a passthrough, which only escapes < > &;
+  // backslashes would show wherever they do not precede markup that would apply
+  private static void appendEscaped(String text, Appendable out) throws IOException {
+    for (int i = 0; i < text.length(); i++) {
+      if (MARKUP.indexOf(text.charAt(i)) >= 0) {
+        out.append("pass:c[").append(text.replace("]", "\\]")).append(']');
+        return;
+      }
+    }
+    out.append(text);
+  }
+}
@@ -0,0 +1,198 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+/**
+ * Documents every Maven plugin found in a repository or directory tree. Jars are read on the shared
+ * pool with a bounded number in flight, so memory stays flat however many jars there are; a broken
+ * jar is reported and skipped.
+ */
+@Mojo(name = "bulk", requiresProject = false, aggregator = true, threadSafe = true)
+public class BulkMojo extends AbstractMarkDocsMojo {
+
+  @Parameter(property = "markdocs.bulk.repository", defaultValue = "${settings.localRepository}")
+  private File repositoryDirectory;
+
+  /** Relative to the working directory, as the goal runs without a project. */
+  @Parameter(property = "markdocs.bulk.outputDirectory", defaultValue = "markdocs-bulk")
+  private File outputDirectory;
+
+  /** Maximum number of jars being read, parsed or rendered at the same time. */
+  @Parameter(property = "markdocs.bulk.maxInFlight", defaultValue = "64")
+  private int maxInFlight;
+
+  /** Log progress after this many jars. */
+  @Parameter(property = "markdocs.bulk.progressInterval", defaultValue = "500")
+  private int progressInterval;
+
+  @Override
+  public void execute() throws MojoExecutionException, MojoFailureException {
+    if (!repositoryDirectory.isDirectory()) {
+      throw new MojoExecutionException("Repository directory not found: " + repositoryDirectory);
+    }
+    getLog().info("Documenting every Maven plugin in " + repositoryDirectory.getAbsolutePath());
+
+    Progress progress = new Progress();
+    List<String> documented = Collections.synchronizedList(new ArrayList<>());
+    int permits = Math.max(1, maxInFlight);
+    Semaphore inFlight = new Semaphore(permits);
+
+    ForkJoinPool pool = createPool();
+    try {
+      DocumentationGenerator generator = createGenerator(pool);
+      generator.setVerbose(false);
+
+      Path root = repositoryDirectory.toPath();
+      Files.walkFileTree(
+          root,
+          new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes)
+                throws IOException {
+              if (isCandidate(file)) {
+                inFlight.acquireUninterruptibly();
+                pool.execute(
+                    () -> {
+                      try {
+                        document(generator, root, file, documented, progress);
+                      } finally {
+                        inFlight.release();
+                      }
+                    });
+              }
+              return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+              getLog().warn("Cannot read " + file + ": " + e.getMessage());
+              return FileVisitResult.CONTINUE;
+            }
+          });
+
+      // every task holds a permit until it is done
+      inFlight.acquireUninterruptibly(permits);
+      inFlight.release(permits);
+
+      Collections.sort(documented);
+      outputDirectory.mkdirs();
+      try (PageBuffer buffer = PageBuffer.acquire()) {
+        writeIndex(documented, generator.getOverviewPage(), buffer);
+        File index = new File(outputDirectory, "README.md");
+        DocumentationGenerator.writeIfChanged(buffer, index.toPath());
+      }
+      logCacheStatistics(generator);
+      writeMetrics(generator, outputDirectory);
+    } catch (IOException e) {
+      throw new MojoExecutionException("Failed to document " + repositoryDirectory, e);
+    } finally {
+      pool.shutdown();
+    }
+
+    getLog()
+        .info(
+            "Documented "
+                + progress.plugins
+                + " plugins from "
+                + progress.jars
+                + " jars in "
+                + progress.elapsedSeconds()
+                + " s ("
+                + progress.pluginsPerSecond()
+                + " plugins/s), "
+                + progress.failures
+                + " failed");
+  }
+
+  private static boolean isCandidate(Path file) {
+    String name = file.getFileName().toString();
+    return name.endsWith(".jar")
+        && !name.endsWith("-sources.jar")
+        && !name.endsWith("-javadoc.jar")
+        && !name.endsWith("-tests.jar");
+  }
+
+  private void document(
+      DocumentationGenerator generator,
+      Path root,
+      Path jar,
+      List<String> documented,
+      Progress progress) {
+    try (DescriptorSource source = DescriptorSource.ofJar(jar.toFile())) {
+      if (source.exists()) {
+        // named after the jar, as one directory may hold several plugins
+        String name = jar.getFileName().toString();
+        String relative =
+            root.relativize(jar.resolveSibling(name.substring(0, name.length() - ".jar".length())))
+                .toString()
+                .replace(File.separatorChar, '/');
+        generator.generate(source, new File(outputDirectory, relative), null);
+        documented.add(relative);
+        progress.plugins.incrementAndGet();
+      }
+    } catch (MojoExecutionException | RuntimeException e) {
+      progress.failures.incrementAndGet();
+      Throwable cause = e.getCause() != null ? e.getCause() : e;
+      getLog().warn("Failed to document " + jar + ": " + cause);
+    }
+
+    int jars = progress.jars.incrementAndGet();
+    if (progressInterval > 0 && jars % progressInterval == 0) {
+      getLog()
+          .info(
+              "Scanned "
+                  + jars
+                  + " jars, documented "
+                  + progress.plugins
+                  + " plugins ("
+                  + progress.pluginsPerSecond()
+                  + " plugins/s), "
+                  + progress.failures
+                  + " failed");
+    }
+  }
+
+  private void writeIndex(List<String> documented, String overviewPage, Appendable out)
+      throws IOException {
+    out.append("# Maven Plugins\n\n");
+    out.append("This directory provides documentation for every Maven plugin in ");
+    out.append(repositoryDirectory.getName()).append(":\n\n");
+    for (String plugin : documented) {
+      out.append("- [").append(plugin).append("](").append(plugin).append('/');
+      out.append(overviewPage).append(")\n");
+    }
+  }
+
+  private static final class Progress {
+    private final long start = System.nanoTime();
+    private final AtomicInteger jars = new AtomicInteger();
+    private final AtomicInteger plugins = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private long elapsedSeconds() {
+      return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
+    }
+
+    private long pluginsPerSecond() {
+      long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      return plugins.get() * 1000L / elapsedMillis;
+    }
+  }
+}
@@ -0,0 +1,306 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps parsed plugin descriptors on disk in a compact binary form, one file per descriptor. An
+ * entry is used when the descriptor still has the recorded size and modification time, or failing
+ * that the recorded content hash; entries written by another format version are ignored and
+ * rewritten.
+ */
+public class DescriptorCache {
+
+  private static final int MAGIC = 0x4d444443; // "MDDC"
+
+  /** Bump whenever the layout or the model changes, so old entries are parsed again. */
+  private static final int FORMAT_VERSION = 1;
+
+  private static final String EXTENSION = ".bin";
+
+  private final File directory;
+  private final AtomicInteger hits = new AtomicInteger();
+  private final AtomicInteger misses = new AtomicInteger();
+
+  public DescriptorCache(File directory) {
+    this.directory = directory;
+  }
+
+  public File getDirectory() {
+    return directory;
+  }
+
+  public int getHits() {
+    return hits.get();
+  }
+
+  public int getMisses() {
+    return misses.get();
+  }
+
+  /** Parses a descriptor, or reads it back from the cache when it has not changed. */
+  public interface Loader {
+    PluginDescriptor load(DescriptorSource source) throws Exception;
+  }
+
+  public PluginDescriptor get(
+      DescriptorSource source, PluginDescriptorParser.Mode mode, Loader loader) throws Exception {
+    return get(source, mode, GoalFilter.ALL, loader);
+  }
+
+  /** Entries of a filtered parse are told apart from those of other filters by the filter. */
+  public PluginDescriptor get(
+      DescriptorSource source, PluginDescriptorParser.Mode mode, GoalFilter filter, Loader loader)
+      throws Exception {
+    String variant = filter.isAll() ? mode.name() : mode.name() + ' ' + filter;
+    File file = entryFile(source);
+    // stat before parsing, so a change made while parsing invalidates the entry next time
+    long size = source.size();
+    long lastModified = source.lastModified();
+
+    Entry entry = read(file);
+    boolean sameMode = entry != null && entry.mode.equals(variant);
+    if (sameMode && entry.size == size && entry.lastModified == lastModified) {
+      hits.incrementAndGet();
+      return entry.descriptor;
+    }
+
+    String contentHash = contentHash(source);
+    if (sameMode && entry.contentHash.equals(contentHash)) {
+      // only touched: record the new timestamp so the next lookup needs no hashing
+      write(file, new Entry(variant, size, lastModified, contentHash, entry.descriptor));
+      hits.incrementAndGet();
+      return entry.descriptor;
+    }
+
+    misses.incrementAndGet();
+    PluginDescriptor descriptor = loader.load(source);
+    write(file, new Entry(variant, size, lastModified, contentHash, descriptor));
+    return descriptor;
+  }
+
+  private File entryFile(DescriptorSource source) {
+    byte[] key = source.toString().getBytes(StandardCharsets.UTF_8);
+    return new File(directory, GenerationManifest.hash(key) + EXTENSION);
+  }
+
+  private static String contentHash(DescriptorSource source) throws IOException {
+    MessageDigest digest = GenerationManifest.newDigest();
+    source.digest(digest);
+    return GenerationManifest.toHex(digest.digest());
+  }
+
+  // a missing, truncated or foreign entry is simply a miss
+  private static Entry read(File file) {
+    if (!file.isFile()) {
+      return null;
+    }
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+      return readEntry(in);
+    } catch (IOException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  // written to a temporary file first, so concurrent builds never read a half-written entry
+  private void write(File file, Entry entry) throws IOException {
+    Path dir = directory.toPath();
+    Files.createDirectories(dir);
+    Path temp = Files.createTempFile(dir, file.getName(), ".tmp");
+    try {
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        writeEntry(entry, out);
+      }
+      try {
+        Files.move(
+            temp,
+            file.toPath(),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private static void writeEntry(Entry entry, DataOutputStream out) throws IOException {
+    out.writeInt(MAGIC);
+    out.writeInt(FORMAT_VERSION);
+    out.writeUTF(entry.mode);
+    out.writeLong(entry.size);
+    out.writeLong(entry.lastModified);
+    out.writeUTF(entry.contentHash);
+
+    StringTable strings = new StringTable();
+    PluginDescriptor descriptor = entry.descriptor;
+    strings.write(out, descriptor.getGroupId());
+    strings.write(out, descriptor.getArtifactId());
+    strings.write(out, descriptor.getVersion());
+    strings.write(out, descriptor.getName());
+    strings.write(out, descriptor.getDescription());
+
+    writeVarInt(out, descriptor.getGoals().size());
+    for (Goal goal : descriptor.getGoals()) {
+      strings.write(out, goal.getName());
+      strings.write(out, goal.getDescription());
+      strings.write(out, goal.getImplementation());
+      strings.write(out, goal.getPhase());
+
+      writeVarInt(out, goal.getParameters().size());
+      for (Parameter parameter : goal.getParameters()) {
+        strings.write(out, parameter.getName());
+        strings.write(out, parameter.getType());
+        strings.write(out, parameter.getDescription());
+        strings.write(out, parameter.getDefaultValue());
+        out.writeByte((parameter.isRequired() ? 1 : 0) | (parameter.isEditable() ? 2 : 0));
+      }
+    }
+  }
+
+  private static Entry readEntry(DataInputStream in) throws IOException {
+    if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+      return null;
+    }
+    String mode = in.readUTF();
+    long size = in.readLong();
+    long lastModified = in.readLong();
+    String contentHash = in.readUTF();
+
+    StringTable strings = new StringTable();
+    PluginDescriptor.Builder descriptor = PluginDescriptor.builder();
+    descriptor.groupId(strings.read(in));
+    descriptor.artifactId(strings.read(in));
+    descriptor.version(strings.read(in));
+    descriptor.name(strings.read(in));
+    descriptor.description(strings.read(in));
+
+    int goals = readVarInt(in);
+    for (int i = 0; i < goals; i++) {
+      Goal.Builder goal = Goal.builder();
+      goal.name(strings.read(in));
+      goal.description(strings.read(in));
+      goal.implementation(strings.read(in));
+      goal.phase(strings.read(in));
+
+      int parameters = readVarInt(in);
+      for (int j = 0; j < parameters; j++) {
+        Parameter.Builder parameter = Parameter.builder();
+        parameter.name(strings.read(in));
+        parameter.type(strings.read(in));
+        parameter.description(strings.read(in));
+        parameter.defaultValue(strings.read(in));
+        int flags = in.readUnsignedByte();
+        parameter.required((flags & 1) != 0);
+        parameter.editable((flags & 2) != 0);
+        goal.addParameter(parameter.build());
+      }
+      descriptor.addGoal(goal.build());
+    }
+
+    return new Entry(mode, size, lastModified, contentHash, descriptor.build());
+  }
+
+  private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+    while ((value & ~0x7f) != 0) {
+      out.writeByte((value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  private static int readVarInt(DataInputStream in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed descriptor cache entry");
+  }
+
+  /**
+   * Each distinct string is stored once, where it first occurs, and referred to by its number
+   * afterwards; type names and phases repeat across every goal. 0 stands for {@code null}.
+   */
+  private static final class StringTable {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+
+    private void write(DataOutputStream out, String value) throws IOException {
+      if (value == null) {
+        writeVarInt(out, 0);
+        return;
+      }
+      Integer id = ids.get(value);
+      if (id != null) {
+        writeVarInt(out, id);
+        return;
+      }
+      ids.put(value, ids.size() + 1);
+      writeVarInt(out, ids.size());
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(out, bytes.length);
+      out.write(bytes);
+    }
+
+    private String read(DataInputStream in) throws IOException {
+      int id = readVarInt(in);
+      if (id == 0) {
+        return null;
+      }
+      if (id <= strings.size()) {
+        return strings.get(id - 1);
+      }
+      if (id != strings.size() + 1) {
+        throw new IOException("Malformed descriptor cache entry");
+      }
+      byte[] bytes = new byte[readVarInt(in)];
+      in.readFully(bytes);
+      String value = new String(bytes, StandardCharsets.UTF_8);
+      strings.add(value);
+      return value;
+    }
+  }
+
+  private static final class Entry {
+    private final String mode;
+    private final long size;
+    private final long lastModified;
+    private final String contentHash;
+    private final PluginDescriptor descriptor;
+
+    private Entry(
+        String mode,
+        long size,
+        long lastModified,
+        String contentHash,
+        PluginDescriptor descriptor) {
+      this.mode = mode;
+      this.size = size;
+      this.lastModified = lastModified;
+      this.contentHash = contentHash;
+      this.descriptor = descriptor;
+    }
+  }
+}
@@ -0,0 +1,277 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * What changed from one version of a plugin descriptor to the next: goals added and removed, and
+ * for goals in both, the phase and the parameters added, removed or given another type, default or
+ * required flag. Goals and parameters are matched through the name indexes of the model, so a
+ * comparison is linear in the size of both descriptors.
+ */
+public final class DescriptorDiff {
+
+  private final String fromVersion;
+  private final String toVersion;
+  private final List<Goal> addedGoals = new ArrayList<>();
+  private final List<Goal> removedGoals = new ArrayList<>();
+  private final List<GoalChange> changedGoals = new ArrayList<>();
+
+  private DescriptorDiff(String fromVersion, String toVersion) {
+    this.fromVersion = fromVersion;
+    this.toVersion = toVersion;
+  }
+
+  public static DescriptorDiff compare(
+      String fromVersion, PluginDescriptor from, String toVersion, PluginDescriptor to) {
+    DescriptorDiff diff = new DescriptorDiff(fromVersion, toVersion);
+    for (Goal goal : to.getGoals()) {
+      Goal previous = from.getGoal(goal.getName());
+      if (previous == null) {
+        diff.addedGoals.add(goal);
+      } else if (!previous.equals(goal)) {
+        GoalChange change = GoalChange.compare(previous, goal);
+        if (!change.isEmpty()) {
+          diff.changedGoals.add(change);
+        }
+      }
+    }
+    for (Goal goal : from.getGoals()) {
+      if (to.getGoal(goal.getName()) == null) {
+        diff.removedGoals.add(goal);
+      }
+    }
+    return diff;
+  }
+
+  public String getFromVersion() {
+    return fromVersion;
+  }
+
+  public String getToVersion() {
+    return toVersion;
+  }
+
+  public List<Goal> getAddedGoals() {
+    return addedGoals;
+  }
+
+  public List<Goal> getRemovedGoals() {
+    return removedGoals;
+  }
+
+  public List<GoalChange> getChangedGoals() {
+    return changedGoals;
+  }
+
+  public boolean isEmpty() {
+    return addedGoals.isEmpty() && removedGoals.isEmpty() && changedGoals.isEmpty();
+  }
+
+  /** Writes a changelog page with one section per comparison, in the order given. */
+  public static void writeChangelog(String title, List<DescriptorDiff> diffs, Appendable out)
+      throws IOException {
+    out.append("# ");
+    MarkdownText.appendEscaped(title, out);
+    out.append("\n\n");
+    for (DescriptorDiff diff : diffs) {
+      diff.writeSection(out);
+    }
+  }
+
+  private void writeSection(Appendable out) throws IOException {
+    out.append("## ");
+    MarkdownText.appendEscaped(toVersion, out);
+    out.append("\n\nChanges since ");
+    MarkdownText.appendEscaped(fromVersion, out);
+    out.append(":\n\n");
+    if (isEmpty()) {
+      out.append("No goals or parameters changed.\n\n");
+      return;
+    }
+
+    writeGoals("Added Goals", addedGoals, out);
+    writeGoals("Removed Goals", removedGoals, out);
+    if (!changedGoals.isEmpty()) {
+      out.append("### Changed Goals\n\n");
+      for (GoalChange change : changedGoals) {
+        change.write(out);
+      }
+    }
+  }
+
+  private static void writeGoals(String heading, List<Goal> goals, Appendable out)
+      throws IOException {
+    if (goals.isEmpty()) {
+      return;
+    }
+    out.append("### ").append(heading).append("\n\n");
+    for (Goal goal : goals) {
+      out.append("- ");
+      appendCode(goal.getName(), out);
+      if (goal.getDescription() != null) {
+        out.append(": ");
+        HtmlMarkdown.appendSummary(goal.getDescription(), out);
+      }
+      out.append('\n');
+    }
+    out.append('\n');
+  }
+
+  private static void appendCode(String value, Appendable out) throws IOException {
+    out.append('`').append(value).append('`');
+  }
+
+  private static void appendValue(String value, Appendable out) throws IOException {
+    if (value == null) {
+      out.append("none");
+    } else {
+      appendCode(value, out);
+    }
+  }
+
+  /** The changes of one goal present in both versions. */
+  public static final class GoalChange {
+    private final Goal from;
+    private final Goal to;
+    private final List<Parameter> addedParameters = new ArrayList<>();
+    private final List<Parameter> removedParameters = new ArrayList<>();
+    private final List<ParameterChange> changedParameters = new ArrayList<>();
+
+    private GoalChange(Goal from, Goal to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    private static GoalChange compare(Goal from, Goal to) {
+      GoalChange change = new GoalChange(from, to);
+      for (Parameter parameter : to.getParameters()) {
+        Parameter previous = from.getParameter(parameter.getName());
+        if (previous == null) {
+          change.addedParameters.add(parameter);
+        } else if (isChanged(previous, parameter)) {
+          change.changedParameters.add(new ParameterChange(previous, parameter));
+        }
+      }
+      for (Parameter parameter : from.getParameters()) {
+        if (to.getParameter(parameter.getName()) == null) {
+          change.removedParameters.add(parameter);
+        }
+      }
+      return change;
+    }
+
+    // descriptions are left out, they change with every reworded sentence
+    private static boolean isChanged(Parameter from, Parameter to) {
+      return from.isRequired() != to.isRequired()
+          || !Objects.equals(from.getType(), to.getType())
+          || !Objects.equals(from.getDefaultValue(), to.getDefaultValue());
+    }
+
+    public String getName() {
+      return to.getName();
+    }
+
+    public boolean isPhaseChanged() {
+      return !Objects.equals(from.getPhase(), to.getPhase());
+    }
+
+    public List<Parameter> getAddedParameters() {
+      return addedParameters;
+    }
+
+    public List<Parameter> getRemovedParameters() {
+      return removedParameters;
+    }
+
+    public List<ParameterChange> getChangedParameters() {
+      return changedParameters;
+    }
+
+    public boolean isEmpty() {
+      return !isPhaseChanged()
+          && addedParameters.isEmpty()
+          && removedParameters.isEmpty()
+          && changedParameters.isEmpty();
+    }
+
+    private void write(Appendable out) throws IOException {
+      out.append("#### ");
+      appendCode(getName(), out);
+      out.append("\n\n");
+      if (isPhaseChanged()) {
+        out.append("- Phase changed from ");
+        appendValue(from.getPhase(), out);
+        out.append(" to ");
+        appendValue(to.getPhase(), out);
+        out.append('\n');
+      }
+      for (Parameter parameter : addedParameters) {
+        out.append("- Added parameter ");
+        appendCode(parameter.getName(), out);
+        if (parameter.getType() != null) {
+          out.append(" (");
+          appendCode(parameter.getType(), out);
+          out.append(')');
+        }
+        out.append(parameter.isRequired() ? ", required\n" : "\n");
+      }
+      for (Parameter parameter : removedParameters) {
+        out.append("- Removed parameter ");
+        appendCode(parameter.getName(), out);
+        out.append('\n');
+      }
+      for (ParameterChange change : changedParameters) {
+        change.write(out);
+      }
+      out.append('\n');
+    }
+  }
+
+  /** A parameter present in both versions with another type, default or required flag. */
+  public static final class ParameterChange {
+    private final Parameter from;
+    private final Parameter to;
+
+    private ParameterChange(Parameter from, Parameter to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    public Parameter getFrom() {
+      return from;
+    }
+
+    public Parameter getTo() {
+      return to;
+    }
+
+    private void write(Appendable out) throws IOException {
+      if (!Objects.equals(from.getType(), to.getType())) {
+        out.append("- Parameter ");
+        appendCode(to.getName(), out);
+        out.append(": type changed from ");
+        appendValue(from.getType(), out);
+        out.append(" to ");
+        appendValue(to.getType(), out);
+        out.append('\n');
+      }
+      if (!Objects.equals(from.getDefaultValue(), to.getDefaultValue())) {
+        out.append("- Parameter ");
+        appendCode(to.getName(), out);
+        out.append(": default changed from ");
+        appendValue(from.getDefaultValue(), out);
+        out.append(" to ");
+        appendValue(to.getDefaultValue(), out);
+        out.append('\n');
+      }
+      if (from.isRequired() != to.isRequired()) {
+        out.append("- Parameter ");
+        appendCode(to.getName(), out);
+        out.append(to.isRequired() ? " is now required\n" : " is no longer required\n");
+      }
+    }
+  }
+}
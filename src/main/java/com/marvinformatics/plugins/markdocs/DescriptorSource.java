@@ -0,0 +1,277 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Where the model of a plugin comes from: a plugin.xml, in a plain file or an entry of a plugin
+ * jar, or the compiled mojo classes.
+ */
+public abstract class DescriptorSource implements AutoCloseable {
+
+  public static final String JAR_ENTRY = "META-INF/maven/plugin.xml";
+
+  public static XmlSource ofFile(File file) {
+    return new FileSource(file);
+  }
+
+  /** The descriptor packaged in a plugin jar, read straight from the zip without extracting it. */
+  public static XmlSource ofJar(File jar) {
+    return new JarSource(jar);
+  }
+
+  /**
+   * The compiled mojo classes of a plugin, for when its plugin.xml is missing or stale. There is no
+   * XML to open: parsers model the plugin with the scanner instead.
+   */
+  public static DescriptorSource ofClasses(MojoClassScanner scanner) {
+    return new ClassesSource(scanner);
+  }
+
+  public abstract boolean exists();
+
+  /** Size in bytes of the file holding the descriptor. */
+  public abstract long size();
+
+  /** Modification time of the file holding the descriptor. */
+  public abstract long lastModified();
+
+  /** Feeds the content of the descriptor into the digest. */
+  public abstract void digest(MessageDigest digest) throws IOException;
+
+  /** Releases what the lookups keep open until the descriptor is read, e.g. the plugin jar. */
+  @Override
+  public void close() {}
+
+  /** Nanoseconds spent opening what holds the descriptor, 0 when it is read directly. */
+  long openNanos() {
+    return 0;
+  }
+
+  /** Models the plugin with whatever reads this kind of source. */
+  abstract PluginDescriptor read(
+      PluginDescriptorParser parser, PluginDescriptorParser.GoalListener listener) throws Exception;
+
+  private static void update(MessageDigest digest, InputStream in) throws IOException {
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      digest.update(buffer, 0, read);
+    }
+  }
+
+  /** A plugin.xml, the only kind of source there is XML to open for. */
+  public abstract static class XmlSource extends DescriptorSource {
+
+    public abstract InputStream open() throws IOException;
+
+    @Override
+    PluginDescriptor read(
+        PluginDescriptorParser parser, PluginDescriptorParser.GoalListener listener)
+        throws Exception {
+      return parser.parseXml(this, listener);
+    }
+  }
+
+  private static final class FileSource extends XmlSource {
+    private final File file;
+
+    private FileSource(File file) {
+      this.file = file;
+    }
+
+    @Override
+    public boolean exists() {
+      return file.isFile();
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+      return new BufferedInputStream(Files.newInputStream(file.toPath()));
+    }
+
+    @Override
+    public long size() {
+      return file.length();
+    }
+
+    @Override
+    public long lastModified() {
+      return file.lastModified();
+    }
+
+    @Override
+    public void digest(MessageDigest digest) throws IOException {
+      try (InputStream in = Files.newInputStream(file.toPath())) {
+        update(digest, in);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return file.getAbsolutePath();
+    }
+  }
+
+  private static final class JarSource extends XmlSource {
+    private final File jar;
+    // opened by the first lookup and handed to the stream of open(), so a jar is opened once
+    private ZipFile zip;
+    private ZipEntry entry;
+    private long openNanos;
+
+    private JarSource(File jar) {
+      this.jar = jar;
+    }
+
+    private ZipEntry entry() throws IOException {
+      if (zip == null) {
+        long start = System.nanoTime();
+        zip = new ZipFile(jar);
+        entry = zip.getEntry(JAR_ENTRY);
+        openNanos += System.nanoTime() - start;
+      }
+      return entry;
+    }
+
+    private ZipEntry descriptor() throws IOException {
+      ZipEntry descriptor = entry();
+      if (descriptor == null) {
+        throw new IOException("No " + JAR_ENTRY + " in " + jar.getAbsolutePath());
+      }
+      return descriptor;
+    }
+
+    @Override
+    public synchronized boolean exists() {
+      if (!jar.isFile()) {
+        return false;
+      }
+      try {
+        return entry() != null;
+      } catch (IOException e) {
+        return false;
+      }
+    }
+
+    @Override
+    public synchronized InputStream open() throws IOException {
+      ZipEntry descriptor = descriptor();
+      ZipFile opened = zip;
+      zip = null;
+      try {
+        // closing the entry stream closes the zip as well
+        return new FilterInputStream(new BufferedInputStream(opened.getInputStream(descriptor))) {
+          @Override
+          public void close() throws IOException {
+            try {
+              super.close();
+            } finally {
+              opened.close();
+            }
+          }
+        };
+      } catch (IOException | RuntimeException e) {
+        opened.close();
+        throw e;
+      }
+    }
+
+    @Override
+    public long size() {
+      return jar.length();
+    }
+
+    @Override
+    public long lastModified() {
+      return jar.lastModified();
+    }
+
+    // the entry is small, so it is hashed like a plain file rather than trusting its CRC
+    @Override
+    public synchronized void digest(MessageDigest digest) throws IOException {
+      ZipEntry descriptor = descriptor();
+      try (InputStream in = zip.getInputStream(descriptor)) {
+        update(digest, in);
+      }
+    }
+
+    @Override
+    synchronized long openNanos() {
+      return openNanos;
+    }
+
+    @Override
+    public synchronized void close() {
+      if (zip != null) {
+        try {
+          zip.close();
+        } catch (IOException e) {
+          // only read from, nothing to lose
+        }
+        zip = null;
+      }
+    }
+
+    @Override
+    public String toString() {
+      return jar.getAbsolutePath() + "!/" + JAR_ENTRY;
+    }
+  }
+
+  private static final class ClassesSource extends DescriptorSource {
+    private final MojoClassScanner scanner;
+
+    private ClassesSource(MojoClassScanner scanner) {
+      this.scanner = scanner;
+    }
+
+    @Override
+    public boolean exists() {
+      return scanner.getClassesDirectory().isDirectory();
+    }
+
+    @Override
+    public long size() {
+      try {
+        return scanner.size();
+      } catch (IOException e) {
+        return 0;
+      }
+    }
+
+    @Override
+    public long lastModified() {
+      try {
+        return scanner.lastModified();
+      } catch (IOException e) {
+        return 0;
+      }
+    }
+
+    @Override
+    public void digest(MessageDigest digest) throws IOException {
+      scanner.digest(digest);
+    }
+
+    // the scanner keeps its own state per class file
+    @Override
+    PluginDescriptor read(
+        PluginDescriptorParser parser, PluginDescriptorParser.GoalListener listener)
+        throws Exception {
+      return parser.scan(scanner, listener);
+    }
+
+    @Override
+    public String toString() {
+      return scanner.getClassesDirectory().getAbsolutePath();
+    }
+  }
+}
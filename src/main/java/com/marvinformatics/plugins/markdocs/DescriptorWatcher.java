@@ -0,0 +1,81 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waits for a file to change. Watches the directory rather than the file, because build tools and
+ * editors often replace a file instead of writing it in place, and reports a burst of events as one
+ * change once it has settled.
+ */
+final class DescriptorWatcher implements AutoCloseable {
+
+  private static final long MISSING_DIRECTORY_POLL_MILLIS = 200;
+
+  private final Path file;
+  private final Path directory;
+  private final long debounceMillis;
+  private final WatchService watchService;
+
+  DescriptorWatcher(Path file, long debounceMillis) throws IOException {
+    this.file = file.toAbsolutePath();
+    this.directory = this.file.getParent();
+    this.debounceMillis = Math.max(0, debounceMillis);
+    this.watchService = directory.getFileSystem().newWatchService();
+    directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+  }
+
+  /**
+   * Blocks until the file was created, modified or deleted and then left alone for the debounce
+   * interval.
+   *
+   * @return {@code false} once the watcher was closed
+   */
+  boolean awaitChange() throws IOException, InterruptedException {
+    try {
+      while (!drain(watchService.take())) {
+        // events of other files in the directory
+      }
+      WatchKey next;
+      while ((next = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+        drain(next);
+      }
+      return true;
+    } catch (ClosedWatchServiceException e) {
+      return false;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    watchService.close();
+  }
+
+  // true when the events concern the file
+  private boolean drain(WatchKey key) throws IOException, InterruptedException {
+    boolean changed = false;
+    for (WatchEvent<?> event : key.pollEvents()) {
+      changed |= event.kind() == OVERFLOW || file.getFileName().equals(event.context());
+    }
+    if (!key.reset()) {
+      // the directory itself is gone, e.g. after mvn clean; watch it again once it is back
+      while (!Files.isDirectory(directory)) {
+        Thread.sleep(MISSING_DIRECTORY_POLL_MILLIS);
+      }
+      directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+      changed = true;
+    }
+    return changed;
+  }
+}
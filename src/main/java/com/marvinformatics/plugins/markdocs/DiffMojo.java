@@ -0,0 +1,127 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Writes a changelog page of the goals and parameters added, removed or changed across released
+ * versions of a plugin up to the current descriptor. Every descriptor is parsed once, all of them
+ * concurrently, and each model is compared with the next.
+ */
+@Mojo(name = "diff", defaultPhase = LifecyclePhase.SITE, threadSafe = true)
+public class DiffMojo extends AbstractMarkDocsMojo {
+
+  @Parameter(defaultValue = "${project}", readonly = true, required = true)
+  private MavenProject project;
+
+  /** The current descriptor, compared with the last of the released versions when it exists. */
+  @Parameter(
+      property = "markdocs.pluginDescriptor",
+      defaultValue = "${project.build.directory}/classes/META-INF/maven/plugin.xml")
+  private File pluginDescriptor;
+
+  /** {@code groupId:artifactId} of the released versions. */
+  @Parameter(
+      property = "markdocs.plugin",
+      defaultValue = "${project.groupId}:${project.artifactId}")
+  private String plugin;
+
+  /** Released versions to compare, oldest first; each jar must be in the local repository. */
+  @Parameter(property = "markdocs.versions", required = true)
+  private List<String> versions;
+
+  @Parameter(
+      property = "markdocs.diff.changelogFile",
+      defaultValue = "${project.build.directory}/markdocs/CHANGES.md")
+  private File changelogFile;
+
+  /** Title of the changelog page; the plugin name followed by "Changes" when not set. */
+  @Parameter(property = "markdocs.diff.title")
+  private String title;
+
+  @Override
+  public void execute() throws MojoExecutionException, MojoFailureException {
+    List<String> labels = new ArrayList<>();
+    List<DescriptorSource> sources = new ArrayList<>();
+    for (String version : versions) {
+      if (version != null && !version.isBlank()) {
+        labels.add(version.trim());
+        sources.add(DescriptorSource.ofJar(resolvePluginJar(plugin.trim() + ":" + version.trim())));
+      }
+    }
+    DescriptorSource current = DescriptorSource.ofFile(pluginDescriptor);
+    if (current.exists()) {
+      labels.add(project.getVersion());
+      sources.add(current);
+    } else {
+      getLog().warn("Plugin descriptor not found, comparing released versions only: " + current);
+    }
+    if (sources.size() < 2) {
+      throw new MojoExecutionException(
+          "At least two descriptors are needed to compare, found " + sources.size());
+    }
+
+    List<PluginDescriptor> models = parse(sources);
+    // newest first, as readers mostly look for the latest changes
+    List<DescriptorDiff> diffs = new ArrayList<>(models.size() - 1);
+    for (int i = models.size() - 1; i > 0; i--) {
+      diffs.add(
+          DescriptorDiff.compare(
+              labels.get(i - 1), models.get(i - 1), labels.get(i), models.get(i)));
+    }
+
+    String pageTitle =
+        title != null && !title.isBlank()
+            ? title
+            : models.get(models.size() - 1).getName() + " Changes";
+    try (PageBuffer buffer = PageBuffer.acquire()) {
+      DescriptorDiff.writeChangelog(pageTitle, diffs, buffer);
+      changelogFile.getAbsoluteFile().getParentFile().mkdirs();
+      DocumentationGenerator.writeIfChanged(buffer, changelogFile.toPath());
+    } catch (IOException e) {
+      throw new MojoExecutionException("Failed to write " + changelogFile, e);
+    }
+    getLog()
+        .info(
+            "Compared "
+                + models.size()
+                + " versions of the plugin descriptor: "
+                + changelogFile.getAbsolutePath());
+  }
+
+  // each descriptor once, concurrently, in the order given
+  private List<PluginDescriptor> parse(List<DescriptorSource> sources)
+      throws MojoExecutionException {
+    PluginDescriptorParser parser = createParser();
+    ForkJoinPool pool = createPool();
+    try {
+      List<ForkJoinTask<PluginDescriptor>> tasks = new ArrayList<>(sources.size());
+      for (DescriptorSource source : sources) {
+        tasks.add(pool.submit(() -> parser.parse(source)));
+      }
+      List<PluginDescriptor> models = new ArrayList<>(sources.size());
+      for (int i = 0; i < tasks.size(); i++) {
+        try {
+          models.add(tasks.get(i).join());
+        } catch (RuntimeException e) {
+          Throwable cause = e.getCause() != null ? e.getCause() : e;
+          throw new MojoExecutionException("Failed to read " + sources.get(i), cause);
+        }
+      }
+      return models;
+    } finally {
+      sources.forEach(DescriptorSource::close);
+      pool.shutdown();
+    }
+  }
+}
@@ -0,0 +1,1046 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Parses one plugin descriptor and writes its overview and goal pages in every configured format.
+ * Holds no per-run state, so one instance can document several plugins concurrently on a shared
+ * pool.
+ */
+public class DocumentationGenerator {
+
+  private static final int ARCHIVE_BUFFER_SIZE = 64 * 1024;
+  private static final int PAGES_AHEAD_PER_THREAD = 4;
+
+  private final Log log;
+  private final ForkJoinPool pool;
+  private List<PageRenderer> renderers = List.of(new MarkdownGenerator());
+
+  private PluginDescriptorParser.Mode parserMode = PluginDescriptorParser.Mode.STAX;
+  private boolean incremental = true;
+  private String version;
+  private boolean verbose = true;
+  private DescriptorCache cache;
+  private GenerationMetrics metrics = GenerationMetrics.NONE;
+  private boolean searchIndex;
+  private boolean crossLinks;
+  private OverviewPages.GroupBy overviewGroupBy = OverviewPages.GroupBy.NONE;
+  private int overviewPageSize;
+  private GoalFilter goalFilter = GoalFilter.ALL;
+
+  public DocumentationGenerator(Log log, ForkJoinPool pool) {
+    this.log = log;
+    this.pool = pool;
+  }
+
+  public void setParserMode(PluginDescriptorParser.Mode parserMode) {
+    this.parserMode = parserMode;
+  }
+
+  public void setIncremental(boolean incremental) {
+    this.incremental = incremental;
+  }
+
+  public void setVersion(String version) {
+    this.version = version;
+  }
+
+  /** Whether every written page and the parse time are logged at info level, or only at debug. */
+  public void setVerbose(boolean verbose) {
+    this.verbose = verbose;
+  }
+
+  /**
+   * Formats to write, built-in markdown by default. Every goal is handed to all of them as soon as
+   * it is parsed; with more than one, each format is written to a subdirectory named after it.
+   */
+  public void setRenderers(List<PageRenderer> renderers) {
+    this.renderers = List.copyOf(renderers);
+  }
+
+  /** Path of the overview of the first format, relative to the output directory of a plugin. */
+  public String getOverviewPage() {
+    PageRenderer renderer = renderers.get(0);
+    return directory(renderer) + renderer.getOverviewPage();
+  }
+
+  /** Where parsed descriptors are kept between executions, {@code null} to always parse. */
+  public void setCache(DescriptorCache cache) {
+    this.cache = cache;
+  }
+
+  public DescriptorCache getCache() {
+    return cache;
+  }
+
+  /** Collects phase timings and output totals of every plugin this generator documents. */
+  public void setMetrics(GenerationMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  public GenerationMetrics getMetrics() {
+    return metrics;
+  }
+
+  /** Goals to document; the others are skipped while parsing and their pages removed. */
+  public void setGoalFilter(GoalFilter goalFilter) {
+    this.goalFilter = goalFilter;
+  }
+
+  /** Whether to write {@value SearchIndex#FILE_NAME} next to the pages. */
+  public void setSearchIndex(boolean searchIndex) {
+    this.searchIndex = searchIndex;
+  }
+
+  /**
+   * Whether goal and parameter names in descriptions link to their pages, see {@link NameLinker}.
+   * Every name must be known before the first page is rendered, so pages are only rendered once the
+   * whole descriptor is parsed instead of while it is read.
+   */
+  public void setCrossLinks(boolean crossLinks) {
+    this.crossLinks = crossLinks;
+  }
+
+  /** How goals are grouped under headings in the overview, not at all by default. */
+  public void setOverviewGroupBy(OverviewPages.GroupBy overviewGroupBy) {
+    this.overviewGroupBy = overviewGroupBy != null ? overviewGroupBy : OverviewPages.GroupBy.NONE;
+  }
+
+  /**
+   * Most goals listed on one overview page, 0 for all of them; the others go to numbered pages next
+   * to it. Only formats that {@linkplain PageRenderer#supportsOverviewPages() support it} are
+   * split.
+   */
+  public void setOverviewPageSize(int overviewPageSize) {
+    this.overviewPageSize = overviewPageSize;
+  }
+
+  /**
+   * @return {@code false} when the output directory was already up to date and nothing was parsed
+   */
+  public boolean generate(DescriptorSource pluginDescriptor, File outputDirectory, String title)
+      throws MojoExecutionException {
+    try {
+      String fingerprint =
+          GenerationManifest.fingerprint(pluginDescriptor, configuration(title), version);
+      GenerationManifest previous =
+          incremental ? GenerationManifest.load(outputDirectory) : new GenerationManifest(null);
+
+      if (previous.isUpToDate(fingerprint, outputDirectory)) {
+        metrics.pluginGenerated(false);
+        return false;
+      }
+
+      write(pluginDescriptor, outputDirectory, title, fingerprint, previous, null);
+      return true;
+
+    } catch (MojoExecutionException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new MojoExecutionException("Failed to generate markdown documentation", e);
+    }
+  }
+
+  /**
+   * Parses the descriptor again and only renders the goals that differ from the previous model, for
+   * a descriptor that keeps changing while the build is running.
+   *
+   * @param previousModel what the last update returned, {@code null} to render every goal
+   * @return the new model, to compare the next change with
+   */
+  public PluginDescriptor update(
+      DescriptorSource pluginDescriptor,
+      File outputDirectory,
+      String title,
+      PluginDescriptor previousModel)
+      throws MojoExecutionException {
+    try {
+      String fingerprint =
+          GenerationManifest.fingerprint(pluginDescriptor, configuration(title), version);
+      GenerationManifest previous = GenerationManifest.load(outputDirectory);
+      return write(pluginDescriptor, outputDirectory, title, fingerprint, previous, previousModel);
+
+    } catch (MojoExecutionException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new MojoExecutionException("Failed to generate markdown documentation", e);
+    }
+  }
+
+  private PluginDescriptor write(
+      DescriptorSource pluginDescriptor,
+      File outputDirectory,
+      String title,
+      String fingerprint,
+      GenerationManifest previous,
+      PluginDescriptor previousModel)
+      throws Exception {
+    createDirectories(outputDirectory);
+
+    GenerationManifest manifest = new GenerationManifest(fingerprint);
+    SearchIndex index = searchIndex ? new SearchIndex() : null;
+    PluginDescriptor descriptor;
+    // goal pages render and write while the parser reads on; the overview needs every goal
+    try (GoalPipeline pipeline =
+        new GoalPipeline(outputDirectory, previous, previousModel, manifest)) {
+      descriptor =
+          parse(
+              pluginDescriptor,
+              goal -> {
+                if (!crossLinks) {
+                  pipeline.accept(goal);
+                }
+                // indexed from the model while the workers render, so no page is read back
+                if (index != null) {
+                  index.addGoal(goal, goalPage(renderers.get(0), goal));
+                }
+              });
+      metrics.pluginGenerated(true);
+      if (crossLinks) {
+        pipeline.link(NameLinker.of(descriptor));
+        descriptor.getGoals().forEach(pipeline::accept);
+      }
+      pipeline.finish();
+    }
+    OverviewPages pages = overviewPages(descriptor);
+    for (PageRenderer renderer : renderers) {
+      renderOverviewPages(
+          renderer,
+          descriptor,
+          title,
+          pages,
+          (page, buffer) -> {
+            WrittenPage overview = writePage(page, buffer, outputDirectory, previous);
+            manifest.putPage(overview.page, overview.hash);
+            if (overview.written) {
+              info("Generated overview: " + overview.page);
+            }
+          });
+    }
+    if (index != null) {
+      writeSearchIndex(index, outputDirectory, previous, manifest);
+    }
+    removeStalePages(outputDirectory, previous, manifest);
+    manifest.store(outputDirectory);
+    return descriptor;
+  }
+
+  private PluginDescriptor parse(DescriptorSource pluginDescriptor) throws Exception {
+    return parse(pluginDescriptor, goal -> {});
+  }
+
+  private PluginDescriptor parse(
+      DescriptorSource pluginDescriptor, PluginDescriptorParser.GoalListener listener)
+      throws Exception {
+    GenerationEvents.Parse event = new GenerationEvents.Parse();
+    event.begin();
+    long start = System.nanoTime();
+    long allocated = metrics.allocatedBytes();
+
+    // the time and allocation of handing goals on count towards rendering and writing instead
+    long[] handedOn = new long[2];
+    PluginDescriptor descriptor =
+        new PluginDescriptorParser(parserMode, cache, goalFilter)
+            .parse(
+                pluginDescriptor,
+                goal -> {
+                  long goalStart = System.nanoTime();
+                  long goalAllocated = metrics.allocatedBytes();
+                  listener.goalParsed(goal);
+                  handedOn[0] += System.nanoTime() - goalStart;
+                  handedOn[1] += metrics.allocatedBytes() - goalAllocated;
+                });
+
+    long read = System.nanoTime() - start - handedOn[0];
+    metrics.addPhase(GenerationMetrics.Phase.PARSE, start + handedOn[0], allocated + handedOn[1]);
+    event.end();
+    if (event.shouldCommit()) {
+      event.source = pluginDescriptor.toString();
+      event.parser = parserMode.name();
+      event.size = pluginDescriptor.size();
+      event.goals = descriptor.getGoals().size();
+      event.commit();
+    }
+    // a jar is opened by whichever lookup comes first, so opening it is a step of its own
+    long open = pluginDescriptor.openNanos();
+    if (open > 0) {
+      log.info("Opened " + pluginDescriptor + " in " + TimeUnit.NANOSECONDS.toMillis(open) + " ms");
+    }
+    log.info(
+        "Read plugin descriptor "
+            + pluginDescriptor
+            + " in "
+            + TimeUnit.NANOSECONDS.toMillis(read)
+            + " ms");
+    return descriptor;
+  }
+
+  /**
+   * Writes the pages as entries of one zip archive instead of files, streamed straight from the
+   * render buffers. Entries are written one at a time, so the pages are rendered in goal order on
+   * the calling thread; the fingerprint is kept as the archive comment.
+   *
+   * @return {@code false} when the archive was already up to date and nothing was parsed
+   */
+  public boolean generateArchive(DescriptorSource pluginDescriptor, File archive, String title)
+      throws MojoExecutionException {
+    try {
+      String fingerprint =
+          GenerationManifest.fingerprint(pluginDescriptor, configuration(title), version);
+      if (incremental && fingerprint.equals(archiveFingerprint(archive))) {
+        metrics.pluginGenerated(false);
+        return false;
+      }
+
+      PluginDescriptor descriptor = parse(pluginDescriptor);
+      metrics.pluginGenerated(true);
+      writeArchive(descriptor, title, archive, fingerprint, pluginDescriptor.lastModified());
+      return true;
+
+    } catch (MojoExecutionException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new MojoExecutionException("Failed to generate markdown documentation", e);
+    }
+  }
+
+  // the archive replaces the previous one only once complete
+  private void writeArchive(
+      PluginDescriptor descriptor, String title, File archive, String fingerprint, long time)
+      throws IOException {
+    File directory = archive.getAbsoluteFile().getParentFile();
+    directory.mkdirs();
+    Path temporary = Files.createTempFile(directory.toPath(), archive.getName(), ".tmp");
+    try {
+      try (ZipOutputStream zip =
+          new ZipOutputStream(
+              new BufferedOutputStream(Files.newOutputStream(temporary), ARCHIVE_BUFFER_SIZE))) {
+        zip.setComment(fingerprint);
+        WritableByteChannel channel = Channels.newChannel(zip);
+        SearchIndex index = searchIndex ? new SearchIndex() : null;
+        NameLinker links = links(descriptor);
+
+        OverviewPages pages = overviewPages(descriptor);
+        for (PageRenderer renderer : renderers) {
+          renderOverviewPages(
+              renderer,
+              descriptor,
+              title,
+              pages,
+              (page, buffer) -> writeEntry(zip, channel, page, buffer, time));
+        }
+        for (Goal goal : descriptor.getGoals()) {
+          for (PageRenderer renderer : renderers) {
+            String page = goalPage(renderer, goal);
+            try (PageBuffer buffer = PageBuffer.acquire()) {
+              renderGoal(renderer, goal, links, page, buffer);
+              writeEntry(zip, channel, page, buffer, time);
+            }
+          }
+          if (index != null) {
+            index.addGoal(goal, goalPage(renderers.get(0), goal));
+          }
+        }
+        if (index != null) {
+          try (PageBuffer buffer = PageBuffer.acquire()) {
+            index.writeJson(buffer);
+            writeEntry(zip, channel, SearchIndex.FILE_NAME, buffer, time);
+          }
+        }
+      }
+      try {
+        Files.move(
+            temporary,
+            archive.toPath(),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporary, archive.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+    info(
+        "Generated archive: "
+            + archive
+            + " ("
+            + descriptor.getGoals().size() * renderers.size()
+            + " goal pages)");
+  }
+
+  private static String archiveFingerprint(File archive) {
+    if (!archive.isFile()) {
+      return null;
+    }
+    try (ZipFile zip = new ZipFile(archive)) {
+      return zip.getComment();
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Writes the pages of one version of a plugin like {@link #generate}, each as a link to the
+   * identical page in the store. A goal whose model was rendered before, for this version or any
+   * other, is not rendered again.
+   *
+   * @return {@code false} when the output directory was already up to date and nothing was parsed
+   */
+  public boolean generateVersion(
+      DescriptorSource pluginDescriptor, File outputDirectory, String title, PageStore store)
+      throws MojoExecutionException {
+    try {
+      String fingerprint =
+          GenerationManifest.fingerprint(
+              pluginDescriptor, configuration(title) + "\nstore=true", version);
+      GenerationManifest previous =
+          incremental ? GenerationManifest.load(outputDirectory) : new GenerationManifest(null);
+      if (previous.isUpToDate(fingerprint, outputDirectory)) {
+        metrics.pluginGenerated(false);
+        return false;
+      }
+
+      PluginDescriptor descriptor = parse(pluginDescriptor);
+      metrics.pluginGenerated(true);
+      createDirectories(outputDirectory);
+
+      GenerationManifest manifest = new GenerationManifest(fingerprint);
+      OverviewPages overviewPages = overviewPages(descriptor);
+      for (PageRenderer renderer : renderers) {
+        renderOverviewPages(
+            renderer,
+            descriptor,
+            title,
+            overviewPages,
+            (page, buffer) ->
+                linkPage(storePage(page, buffer, store), outputDirectory, store, manifest));
+      }
+
+      List<Goal> goals = descriptor.getGoals();
+      NameLinker links = links(descriptor);
+      Deque<Supplier<WrittenPage>> pages = new ArrayDeque<>();
+      List<Exception> failures = new ArrayList<>();
+      int capacity = pagesAhead();
+      for (Goal goal : goals) {
+        for (PageRenderer renderer : renderers) {
+          String page = goalPage(renderer, goal);
+          String key = pageKey(renderer, goal, links);
+          String hash = store.renderedPage(key, page);
+          if (hash != null) {
+            log.debug("Unchanged page: " + page);
+            metrics.pageWritten(false, 0);
+            WrittenPage stored = new WrittenPage(page, hash, false);
+            pages.add(() -> stored);
+          } else {
+            while (pages.size() >= capacity) {
+              linkNext(pages, outputDirectory, store, manifest, failures);
+            }
+            pages.add(
+                pool.submit(() -> storeGoalPage(renderer, goal, links, page, key, store))::join);
+          }
+        }
+      }
+      while (!pages.isEmpty()) {
+        linkNext(pages, outputDirectory, store, manifest, failures);
+      }
+      if (!failures.isEmpty()) {
+        throw goalPageFailures(failures, goals.size() * renderers.size());
+      }
+
+      if (searchIndex) {
+        SearchIndex index = new SearchIndex();
+        for (Goal goal : goals) {
+          index.addGoal(goal, goalPage(renderers.get(0), goal));
+        }
+        WrittenPage written;
+        try (PageBuffer buffer = PageBuffer.acquire()) {
+          index.writeJson(buffer);
+          written = storePage(SearchIndex.FILE_NAME, buffer, store);
+        }
+        linkPage(written, outputDirectory, store, manifest);
+      }
+      removeStalePages(outputDirectory, previous, manifest);
+      manifest.store(outputDirectory);
+      return true;
+
+    } catch (MojoExecutionException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new MojoExecutionException("Failed to generate markdown documentation", e);
+    }
+  }
+
+  // in goal order, like GoalPipeline.writeNext
+  private void linkNext(
+      Deque<Supplier<WrittenPage>> pages,
+      File outputDirectory,
+      PageStore store,
+      GenerationManifest manifest,
+      List<Exception> failures) {
+    WrittenPage goalPage = pages.remove().get();
+    if (goalPage.failure == null) {
+      try {
+        linkPage(goalPage, outputDirectory, store, manifest);
+        return;
+      } catch (IOException e) {
+        goalPage = new WrittenPage(goalPage.page, e);
+      }
+    }
+    log.error("Failed to generate goal page: " + goalPage.page, goalPage.failure);
+    failures.add(goalPage.failure);
+  }
+
+  private WrittenPage storeGoalPage(
+      PageRenderer renderer,
+      Goal goal,
+      NameLinker links,
+      String page,
+      String key,
+      PageStore store) {
+    try (PageBuffer buffer = PageBuffer.acquire()) {
+      renderGoal(renderer, goal, links, page, buffer);
+      WrittenPage stored = storePage(page, buffer, store);
+      store.putRenderedPage(key, stored.hash);
+      return stored;
+    } catch (IOException | RuntimeException e) {
+      return new WrittenPage(page, e);
+    }
+  }
+
+  // the page is only written when the store does not have it yet
+  private WrittenPage storePage(String page, PageBuffer content, PageStore store)
+      throws IOException {
+    return recordWrite(
+        page,
+        content::byteCount,
+        () -> {
+          String hash = content.hash();
+          return new WrittenPage(page, hash, store.put(content, hash, page));
+        });
+  }
+
+  private void linkPage(
+      WrittenPage stored, File outputDirectory, PageStore store, GenerationManifest manifest)
+      throws IOException {
+    store.link(stored.hash, new File(outputDirectory, stored.page));
+    manifest.putPage(stored.page, stored.hash);
+    if (stored.written) {
+      info("Generated page: " + stored.page);
+    }
+  }
+
+  // pages the search index or other pages link into carry the anchors of their parameters
+  private NameLinker links(PluginDescriptor descriptor) {
+    if (crossLinks) {
+      return NameLinker.of(descriptor);
+    }
+    return searchIndex ? NameLinker.NONE : null;
+  }
+
+  // everything a goal page depends on: the model, the format and its templates, the version of
+  // markdocs and, once linked, the names of the other goals
+  private String pageKey(PageRenderer renderer, Goal goal, NameLinker links) {
+    MessageDigest digest = GenerationManifest.newDigest();
+    GenerationManifest.update(digest, renderer.getFormat());
+    GenerationManifest.update(digest, renderer.getConfiguration());
+    GenerationManifest.update(digest, version);
+    if (links != null) {
+      GenerationManifest.update(digest, links.getKey());
+    }
+    goal.digest(digest);
+    return GenerationManifest.toHex(digest.digest());
+  }
+
+  // how many goal pages may be rendered ahead of the thread that writes them
+  private int pagesAhead() {
+    return Math.max(2, pool.getParallelism() * PAGES_AHEAD_PER_THREAD);
+  }
+
+  private static MojoExecutionException goalPageFailures(List<Exception> failures, int pages) {
+    MojoExecutionException failure =
+        new MojoExecutionException(
+            "Failed to generate " + failures.size() + " of " + pages + " goal pages");
+    failures.forEach(failure::addSuppressed);
+    return failure;
+  }
+
+  /** Writes the page unless the file already has exactly this content. */
+  static boolean writeIfChanged(PageBuffer content, Path file) throws IOException {
+    if (Files.isRegularFile(file)
+        && content.hash().equals(GenerationManifest.hash(Files.readAllBytes(file)))) {
+      return false;
+    }
+    content.writeTo(createParent(file));
+    return true;
+  }
+
+  // pages may sit in a subdirectory that a clean output directory does not have yet
+  private static Path createParent(Path file) throws IOException {
+    Files.createDirectories(file.toAbsolutePath().getParent());
+    return file;
+  }
+
+  // everything besides the descriptor itself that changes the generated pages
+  private String configuration(String title) {
+    StringBuilder configuration = new StringBuilder();
+    configuration.append("title=").append(title).append("\nparser=").append(parserMode);
+    if (renderers.size() > 1 || !renderers.get(0).getFormat().equals(MarkdownGenerator.FORMAT)) {
+      configuration.append("\nformats=");
+      for (PageRenderer renderer : renderers) {
+        configuration.append(renderer.getFormat()).append(',');
+      }
+    }
+    for (PageRenderer renderer : renderers) {
+      String rendererConfiguration = renderer.getConfiguration();
+      if (!rendererConfiguration.isEmpty()) {
+        configuration.append('\n').append(rendererConfiguration);
+      }
+    }
+    if (!goalFilter.isAll()) {
+      configuration.append("\ngoals=").append(goalFilter);
+    }
+    if (searchIndex) {
+      configuration.append("\nsearchIndex=").append(searchIndex);
+    }
+    if (crossLinks) {
+      configuration.append("\ncrossLinks=").append(crossLinks);
+    }
+    if (overviewGroupBy != OverviewPages.GroupBy.NONE || overviewPageSize > 0) {
+      configuration
+          .append("\noverview=")
+          .append(OverviewPages.of(List.of(), overviewGroupBy, overviewPageSize));
+    }
+    return configuration.toString();
+  }
+
+  private OverviewPages overviewPages(PluginDescriptor descriptor) {
+    return OverviewPages.of(descriptor.getGoals(), overviewGroupBy, overviewPageSize);
+  }
+
+  // every page is rendered and handed on before the next one, so only one is held at a time
+  private void renderOverviewPages(
+      PageRenderer renderer,
+      PluginDescriptor descriptor,
+      String title,
+      OverviewPages pages,
+      OverviewPageSink sink)
+      throws IOException {
+    String overviewPage = directory(renderer) + renderer.getOverviewPage();
+    boolean split = !pages.isSinglePage() && renderer.supportsOverviewPages();
+    int pageCount = split ? pages.getPageCount() : 1;
+    for (int i = 0; i < pageCount; i++) {
+      String page = OverviewPages.pageName(overviewPage, i);
+      try (PageBuffer buffer = PageBuffer.acquire()) {
+        renderOverview(renderer, page, descriptor, title, split ? pages : null, i, buffer);
+        sink.accept(page, buffer);
+      }
+    }
+  }
+
+  private void writeSearchIndex(
+      SearchIndex index,
+      File outputDirectory,
+      GenerationManifest previous,
+      GenerationManifest manifest)
+      throws IOException {
+    WrittenPage written;
+    try (PageBuffer buffer = PageBuffer.acquire()) {
+      index.writeJson(buffer);
+      written = writePage(SearchIndex.FILE_NAME, buffer, outputDirectory, previous);
+    }
+    manifest.putPage(written.page, written.hash);
+    if (written.written) {
+      info(
+          "Generated search index: "
+              + index.termCount()
+              + " terms in "
+              + index.documentCount()
+              + " documents");
+    }
+  }
+
+  // the page of a goal equal to its previous model is still what it would render
+  private WrittenPage unchangedPage(
+      Goal goal,
+      String page,
+      File outputDirectory,
+      GenerationManifest previous,
+      PluginDescriptor previousModel) {
+    if (previousModel == null || !goal.equals(previousModel.getGoal(goal.getName()))) {
+      return null;
+    }
+    String hash = previous.getPageHash(page);
+    if (hash == null || !new File(outputDirectory, page).isFile()) {
+      return null;
+    }
+    log.debug("Unchanged page: " + page);
+    metrics.pageWritten(false, 0);
+    return new WrittenPage(page, hash, false);
+  }
+
+  // never throws, so one broken goal cannot hide the failures of the others; only hashed when
+  // there is a previous page to compare with, and only encoded for writing when it differs
+  private RenderedPage renderGoalPage(
+      PageRenderer renderer,
+      Goal goal,
+      NameLinker links,
+      String page,
+      File outputDirectory,
+      GenerationManifest previous) {
+    try (PageBuffer buffer = PageBuffer.acquire()) {
+      renderGoal(renderer, goal, links, page, buffer);
+      String previousHash = previous.getPageHash(page);
+      if (previousHash != null && new File(outputDirectory, page).isFile()) {
+        String hash = buffer.hash();
+        if (hash.equals(previousHash)) {
+          return new RenderedPage(page, hash, buffer.byteCount(), null);
+        }
+      }
+      PageBuffer.Encoded content = buffer.encode();
+      return new RenderedPage(page, content.hash(), content.length(), content);
+    } catch (IOException | RuntimeException e) {
+      return new RenderedPage(page, e);
+    }
+  }
+
+  private WrittenPage writeRenderedPage(RenderedPage rendered, File outputDirectory) {
+    String page = rendered.page;
+    PageBuffer.Encoded content = rendered.content;
+    try {
+      return recordWrite(
+          page,
+          () -> rendered.bytes,
+          () -> {
+            if (content == null) {
+              log.debug("Unchanged page: " + page);
+              return new WrittenPage(page, rendered.hash, false);
+            }
+            content.writeTo(createParent(new File(outputDirectory, page).toPath()));
+            return new WrittenPage(page, content.hash(), true);
+          });
+    } catch (IOException e) {
+      return new WrittenPage(page, e);
+    }
+  }
+
+  private void renderOverview(
+      PageRenderer renderer,
+      String page,
+      PluginDescriptor descriptor,
+      String title,
+      OverviewPages pages,
+      int pageIndex,
+      PageBuffer buffer)
+      throws IOException {
+    GenerationEvents.Render event = new GenerationEvents.Render();
+    event.begin();
+    long start = System.nanoTime();
+    long allocated = metrics.allocatedBytes();
+    if (pages != null) {
+      renderer.writeOverviewPage(descriptor, title, pages, pageIndex, buffer);
+    } else {
+      renderer.writeOverview(descriptor, title, buffer);
+    }
+    rendered(event, page, null, buffer, start, allocated);
+  }
+
+  private void renderGoal(
+      PageRenderer renderer, Goal goal, NameLinker links, String page, PageBuffer buffer)
+      throws IOException {
+    GenerationEvents.Render event = new GenerationEvents.Render();
+    event.begin();
+    long start = System.nanoTime();
+    long allocated = metrics.allocatedBytes();
+    if (links != null) {
+      renderer.writeGoalPage(goal, links, buffer);
+    } else {
+      renderer.writeGoalPage(goal, buffer);
+    }
+    rendered(event, page, goal.getName(), buffer, start, allocated);
+  }
+
+  private void rendered(
+      GenerationEvents.Render event,
+      String page,
+      String goal,
+      PageBuffer content,
+      long start,
+      long allocated) {
+    metrics.addPhase(GenerationMetrics.Phase.RENDER, start, allocated);
+    event.end();
+    if (event.shouldCommit()) {
+      event.page = page;
+      event.goal = goal;
+      event.characters = content.length();
+      event.commit();
+    }
+  }
+
+  private WrittenPage writePage(
+      String page, PageBuffer content, File outputDirectory, GenerationManifest previous)
+      throws IOException {
+    File file = new File(outputDirectory, page);
+    return recordWrite(page, content::byteCount, () -> writeOrKeep(page, content, file, previous));
+  }
+
+  private void writeEntry(
+      ZipOutputStream zip, WritableByteChannel channel, String page, PageBuffer content, long time)
+      throws IOException {
+    recordWrite(
+        page,
+        content::byteCount,
+        () -> {
+          ZipEntry entry = new ZipEntry(page);
+          entry.setTime(time);
+          zip.putNextEntry(entry);
+          String hash = content.writeTo(channel);
+          zip.closeEntry();
+          return new WrittenPage(page, hash, true);
+        });
+  }
+
+  private WrittenPage recordWrite(String page, LongSupplier bytes, PageWrite write)
+      throws IOException {
+    GenerationEvents.Write event = new GenerationEvents.Write();
+    event.begin();
+    long start = System.nanoTime();
+    long allocated = metrics.allocatedBytes();
+
+    WrittenPage written = write.write();
+
+    metrics.addPhase(GenerationMetrics.Phase.WRITE, start, allocated);
+    metrics.pageWritten(written.written, bytes.getAsLong());
+    event.end();
+    if (event.shouldCommit()) {
+      event.page = page;
+      event.bytes = bytes.getAsLong();
+      event.written = written.written;
+      event.commit();
+    }
+    return written;
+  }
+
+  private WrittenPage writeOrKeep(
+      String page, PageBuffer content, File file, GenerationManifest previous) throws IOException {
+    // only hash up front when there is something to compare with; otherwise hash while writing
+    String previousHash = previous.getPageHash(page);
+    if (previousHash != null && file.isFile()) {
+      String hash = content.hash();
+      if (hash.equals(previousHash)) {
+        log.debug("Unchanged page: " + page);
+        return new WrittenPage(page, hash, false);
+      }
+    }
+
+    return new WrittenPage(page, content.writeTo(createParent(file.toPath())), true);
+  }
+
+  private void removeStalePages(
+      File outputDirectory, GenerationManifest previous, GenerationManifest manifest)
+      throws IOException {
+    for (String page : previous.getPages()) {
+      if (!manifest.getPages().contains(page)) {
+        Files.deleteIfExists(new File(outputDirectory, page).toPath());
+        metrics.pageRemoved();
+        info("Removed stale page: " + page);
+      }
+    }
+  }
+
+  // with a single format the pages are written straight to the output directory
+  private String directory(PageRenderer renderer) {
+    return renderers.size() == 1 ? "" : renderer.getFormat() + "/";
+  }
+
+  private String goalPage(PageRenderer renderer, Goal goal) {
+    return directory(renderer) + renderer.goalPage(goal);
+  }
+
+  private void createDirectories(File outputDirectory) {
+    for (PageRenderer renderer : renderers) {
+      new File(outputDirectory, directory(renderer)).mkdirs();
+    }
+  }
+
+  private void info(String message) {
+    if (verbose) {
+      log.info(message);
+    } else {
+      log.debug(message);
+    }
+  }
+
+  /**
+   * Carries goals from the parser to the pool, one page per format, and the rendered pages back to
+   * the calling thread, which writes them in goal order in between reading mojos. At most {@code
+   * capacity} pages are rendered ahead of the writes: once that many wait, the parser writes before
+   * it reads on, so memory stays bounded however large the descriptor.
+   */
+  private final class GoalPipeline implements AutoCloseable {
+    private final File outputDirectory;
+    private final GenerationManifest previous;
+    private final PluginDescriptor previousModel;
+    private final GenerationManifest manifest;
+    private final int capacity = pagesAhead();
+    private final Deque<ForkJoinTask<RenderedPage>> rendering = new ArrayDeque<>();
+    private final List<Exception> failures = new ArrayList<>();
+    private int pages;
+    private NameLinker links = searchIndex ? NameLinker.NONE : null;
+    private boolean linksUnchanged = true;
+
+    private GoalPipeline(
+        File outputDirectory,
+        GenerationManifest previous,
+        PluginDescriptor previousModel,
+        GenerationManifest manifest) {
+      this.outputDirectory = outputDirectory;
+      this.previous = previous;
+      this.previousModel = previousModel;
+      this.manifest = manifest;
+    }
+
+    // goals accepted from now on link to the others; a page is only known to be unchanged when
+    // the goal and every name it could link to are
+    void link(NameLinker links) {
+      this.links = links;
+      this.linksUnchanged =
+          previousModel != null && NameLinker.of(previousModel).getKey().equals(links.getKey());
+    }
+
+    void accept(Goal goal) {
+      for (PageRenderer renderer : renderers) {
+        pages++;
+        String page = goalPage(renderer, goal);
+        WrittenPage unchanged =
+            linksUnchanged
+                ? unchangedPage(goal, page, outputDirectory, previous, previousModel)
+                : null;
+        if (unchanged != null) {
+          manifest.putPage(unchanged.page, unchanged.hash);
+          continue;
+        }
+        while (rendering.size() >= capacity) {
+          writeNext();
+        }
+        rendering.add(
+            pool.submit(
+                () -> renderGoalPage(renderer, goal, links, page, outputDirectory, previous)));
+      }
+      // write what is rendered already, so the disk is busy while the parser reads on
+      while (!rendering.isEmpty() && rendering.peek().isDone()) {
+        writeNext();
+      }
+    }
+
+    void finish() throws MojoExecutionException {
+      while (!rendering.isEmpty()) {
+        writeNext();
+      }
+      if (!failures.isEmpty()) {
+        throw goalPageFailures(failures, pages);
+      }
+    }
+
+    // the pages still waiting when the parse failed are not needed anymore
+    @Override
+    public void close() {
+      rendering.forEach(page -> page.cancel(false));
+      rendering.clear();
+    }
+
+    // in goal order, so the log stays deterministic whatever the scheduling
+    private void writeNext() {
+      RenderedPage rendered = rendering.remove().join();
+      WrittenPage goalPage =
+          rendered.failure != null
+              ? new WrittenPage(rendered.page, rendered.failure)
+              : writeRenderedPage(rendered, outputDirectory);
+      if (goalPage.failure != null) {
+        log.error("Failed to generate goal page: " + goalPage.page, goalPage.failure);
+        failures.add(goalPage.failure);
+      } else {
+        manifest.putPage(goalPage.page, goalPage.hash);
+        if (goalPage.written) {
+          info("Generated goal page: " + goalPage.page);
+        }
+      }
+    }
+  }
+
+  private interface PageWrite {
+    WrittenPage write() throws IOException;
+  }
+
+  private interface OverviewPageSink {
+    void accept(String page, PageBuffer content) throws IOException;
+  }
+
+  private static final class WrittenPage {
+    private final String page;
+    private final String hash;
+    private final boolean written;
+    private final Exception failure;
+
+    private WrittenPage(String page, String hash, boolean written) {
+      this.page = page;
+      this.hash = hash;
+      this.written = written;
+      this.failure = null;
+    }
+
+    private WrittenPage(String page, Exception failure) {
+      this.page = page;
+      this.hash = null;
+      this.written = false;
+      this.failure = failure;
+    }
+  }
+
+  // a goal page rendered on the pool; its content is null when the file already holds it
+  private static final class RenderedPage {
+    private final String page;
+    private final String hash;
+    private final long bytes;
+    private final PageBuffer.Encoded content;
+    private final Exception failure;
+
+    private RenderedPage(String page, String hash, long bytes, PageBuffer.Encoded content) {
+      this.page = page;
+      this.hash = hash;
+      this.bytes = bytes;
+      this.content = content;
+      this.failure = null;
+    }
+
+    private RenderedPage(String page, Exception failure) {
+      this.page = page;
+      this.hash = null;
+      this.bytes = 0;
+      this.content = null;
+      this.failure = failure;
+    }
+  }
+}
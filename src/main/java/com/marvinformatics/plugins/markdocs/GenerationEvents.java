@@ -0,0 +1,70 @@
+package com.marvinformatics.plugins.markdocs;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder events of every generation phase. They cost next to nothing unless a recording
+ * enables them, e.g. {@code MAVEN_OPTS=-XX:StartFlightRecording=filename=markdocs.jfr}.
+ */
+final class GenerationEvents {
+
+  private GenerationEvents() {}
+
+  @Name("com.marvinformatics.markdocs.Parse")
+  @Label("Parse Plugin Descriptor")
+  @Category({"Maven", "MarkDocs"})
+  @StackTrace(false)
+  static final class Parse extends Event {
+    @Label("Source")
+    String source;
+
+    @Label("Parser")
+    String parser;
+
+    @Label("Descriptor Size")
+    @DataAmount
+    long size;
+
+    @Label("Goals")
+    int goals;
+  }
+
+  @Name("com.marvinformatics.markdocs.Render")
+  @Label("Render Page")
+  @Category({"Maven", "MarkDocs"})
+  @StackTrace(false)
+  static final class Render extends Event {
+    @Label("Page")
+    String page;
+
+    @Label("Goal")
+    @Description("Goal documented by the page, empty for the overview")
+    String goal;
+
+    @Label("Characters")
+    int characters;
+  }
+
+  @Name("com.marvinformatics.markdocs.Write")
+  @Label("Write Page")
+  @Category({"Maven", "MarkDocs"})
+  @StackTrace(false)
+  static final class Write extends Event {
+    @Label("Page")
+    String page;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Written")
+    @Description("False when the file already had this content and was left alone")
+    boolean written;
+  }
+}
@@ -0,0 +1,149 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Records what the last execution produced in an output directory: a fingerprint of its inputs and
+ * the content hash of every page it wrote.
+ */
+public class GenerationManifest {
+
+  public static final String FILE_NAME = ".markdocs-manifest";
+
+  private static final String FINGERPRINT_PREFIX = "fingerprint ";
+
+  private final String fingerprint;
+  private final Map<String, String> pages = new LinkedHashMap<>();
+
+  public GenerationManifest(String fingerprint) {
+    this.fingerprint = fingerprint;
+  }
+
+  public String getFingerprint() {
+    return fingerprint;
+  }
+
+  public Set<String> getPages() {
+    return Collections.unmodifiableSet(pages.keySet());
+  }
+
+  public String getPageHash(String page) {
+    return pages.get(page);
+  }
+
+  public void putPage(String page, String hash) {
+    pages.put(page, hash);
+  }
+
+  public boolean isUpToDate(String currentFingerprint, File outputDirectory) {
+    if (fingerprint == null || !fingerprint.equals(currentFingerprint)) {
+      return false;
+    }
+    for (String page : pages.keySet()) {
+      if (!new File(outputDirectory, page).isFile()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // sha256sum-like layout: a fingerprint line followed by "<hash>  <page>" lines
+  public static GenerationManifest load(File outputDirectory) throws IOException {
+    File file = new File(outputDirectory, FILE_NAME);
+    if (!file.isFile()) {
+      return new GenerationManifest(null);
+    }
+
+    List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    if (lines.isEmpty() || !lines.get(0).startsWith(FINGERPRINT_PREFIX)) {
+      return new GenerationManifest(null);
+    }
+
+    GenerationManifest manifest =
+        new GenerationManifest(lines.get(0).substring(FINGERPRINT_PREFIX.length()));
+    for (String line : lines.subList(1, lines.size())) {
+      int separator = line.indexOf("  ");
+      if (separator > 0) {
+        manifest.putPage(line.substring(separator + 2), line.substring(0, separator));
+      }
+    }
+    return manifest;
+  }
+
+  public void store(File outputDirectory) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    sb.append(FINGERPRINT_PREFIX).append(fingerprint).append('\n');
+    new TreeMap<>(pages)
+        .forEach((page, hash) -> sb.append(hash).append("  ").append(page).append('\n'));
+
+    Files.write(
+        new File(outputDirectory, FILE_NAME).toPath(),
+        sb.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static String fingerprint(File pluginDescriptor, String configuration, String version)
+      throws IOException {
+    return fingerprint(DescriptorSource.ofFile(pluginDescriptor), configuration, version);
+  }
+
+  public static String fingerprint(DescriptorSource source, String configuration, String version)
+      throws IOException {
+    MessageDigest digest = newDigest();
+    source.digest(digest);
+    digest.update((byte) 0);
+    digest.update(String.valueOf(configuration).getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+    digest.update(String.valueOf(version).getBytes(StandardCharsets.UTF_8));
+    return toHex(digest.digest());
+  }
+
+  public static String hash(byte[] content) {
+    return toHex(newDigest().digest(content));
+  }
+
+  // length-prefixed, so no two sequences of values feed the same bytes
+  static void update(MessageDigest digest, String value) {
+    if (value == null) {
+      digest.update((byte) 0);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    digest.update((byte) 1);
+    digest.update(
+        new byte[] {
+          (byte) (bytes.length >>> 24),
+          (byte) (bytes.length >>> 16),
+          (byte) (bytes.length >>> 8),
+          (byte) bytes.length
+        });
+    digest.update(bytes);
+  }
+
+  static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  static String toHex(byte[] bytes) {
+    char[] hex = new char[bytes.length * 2];
+    for (int i = 0; i < bytes.length; i++) {
+      hex[i * 2] = Character.forDigit((bytes[i] >> 4) & 0xF, 16);
+      hex[i * 2 + 1] = Character.forDigit(bytes[i] & 0xF, 16);
+    }
+    return new String(hex);
+  }
+}
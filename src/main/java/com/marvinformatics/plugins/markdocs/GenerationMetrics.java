@@ -0,0 +1,167 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Time, allocation and output totals of an execution, summed over every plugin it documented and
+ * every thread that worked on it. Written as {@value #FILE_NAME} next to the pages.
+ */
+public final class GenerationMetrics {
+
+  public static final String FILE_NAME = "markdocs-metrics.json";
+
+  /** Records nothing, for executions that did not ask for metrics. */
+  static final GenerationMetrics NONE = new GenerationMetrics(false);
+
+  private static final com.sun.management.ThreadMXBean ALLOCATION = allocationCounter();
+
+  enum Phase {
+    PARSE,
+    RENDER,
+    WRITE
+  }
+
+  private final boolean enabled;
+  private final long startNanos = System.nanoTime();
+  private final LongAdder[] phaseNanos = adders(Phase.values().length);
+  private final LongAdder[] phaseAllocated = adders(Phase.values().length);
+  private final LongAdder[] phaseCounts = adders(Phase.values().length);
+  private final LongAdder pluginsGenerated = new LongAdder();
+  private final LongAdder pluginsUpToDate = new LongAdder();
+  private final LongAdder pagesWritten = new LongAdder();
+  private final LongAdder pagesUnchanged = new LongAdder();
+  private final LongAdder pagesRemoved = new LongAdder();
+  private final LongAdder bytesWritten = new LongAdder();
+
+  public GenerationMetrics() {
+    this(true);
+  }
+
+  private GenerationMetrics(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /** Bytes allocated by the current thread so far; 0 when disabled or the JVM does not count. */
+  long allocatedBytes() {
+    return enabled && ALLOCATION != null
+        ? ALLOCATION.getThreadAllocatedBytes(Thread.currentThread().getId())
+        : 0;
+  }
+
+  /** Adds one run of the phase that began at the given {@link System#nanoTime()} and allocation. */
+  void addPhase(Phase phase, long startNanos, long startAllocated) {
+    if (enabled) {
+      phaseNanos[phase.ordinal()].add(System.nanoTime() - startNanos);
+      phaseAllocated[phase.ordinal()].add(allocatedBytes() - startAllocated);
+      phaseCounts[phase.ordinal()].increment();
+    }
+  }
+
+  void pluginGenerated(boolean generated) {
+    if (enabled) {
+      (generated ? pluginsGenerated : pluginsUpToDate).increment();
+    }
+  }
+
+  void pageWritten(boolean written, long bytes) {
+    if (enabled) {
+      (written ? pagesWritten : pagesUnchanged).increment();
+      bytesWritten.add(written ? bytes : 0);
+    }
+  }
+
+  void pageRemoved() {
+    if (enabled) {
+      pagesRemoved.increment();
+    }
+  }
+
+  /** One line for the build log. */
+  public String summary() {
+    return String.format(
+        Locale.ROOT,
+        "%d pages written (%d unchanged, %d removed), %d bytes in %d ms;"
+            + " parse %d ms, render %d ms, write %d ms",
+        pagesWritten.sum(),
+        pagesUnchanged.sum(),
+        pagesRemoved.sum(),
+        bytesWritten.sum(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+        TimeUnit.NANOSECONDS.toMillis(phaseNanos[Phase.PARSE.ordinal()].sum()),
+        TimeUnit.NANOSECONDS.toMillis(phaseNanos[Phase.RENDER.ordinal()].sum()),
+        TimeUnit.NANOSECONDS.toMillis(phaseNanos[Phase.WRITE.ordinal()].sum()));
+  }
+
+  /**
+   * Phase times are summed over threads, so with several threads they can add up to more than the
+   * wall time. Allocation is left out when the JVM does not count it per thread.
+   */
+  public String toJson() {
+    StringBuilder json = new StringBuilder(512);
+    json.append("{\n");
+    json.append("  \"wallTimeMillis\": ").append(millis(System.nanoTime() - startNanos));
+    json.append(",\n  \"plugins\": {\"generated\": ").append(pluginsGenerated.sum());
+    json.append(", \"upToDate\": ").append(pluginsUpToDate.sum()).append('}');
+    json.append(",\n  \"pages\": {\"written\": ").append(pagesWritten.sum());
+    json.append(", \"unchanged\": ").append(pagesUnchanged.sum());
+    json.append(", \"removed\": ").append(pagesRemoved.sum()).append('}');
+    json.append(",\n  \"bytesWritten\": ").append(bytesWritten.sum());
+    json.append(",\n  \"phases\": {");
+    for (Phase phase : Phase.values()) {
+      int i = phase.ordinal();
+      json.append(i == 0 ? "\n" : ",\n");
+      json.append("    \"").append(phase.name().toLowerCase(Locale.ROOT)).append("\": {");
+      json.append("\"count\": ").append(phaseCounts[i].sum());
+      json.append(", \"timeMillis\": ").append(millis(phaseNanos[i].sum()));
+      if (ALLOCATION != null) {
+        json.append(", \"allocatedBytes\": ").append(phaseAllocated[i].sum());
+      }
+      json.append('}');
+    }
+    json.append("\n  }\n}\n");
+    return json.toString();
+  }
+
+  /** Writes {@value #FILE_NAME} into the directory. */
+  public File store(File outputDirectory) throws IOException {
+    outputDirectory.mkdirs();
+    File file = new File(outputDirectory, FILE_NAME);
+    Files.write(file.toPath(), toJson().getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  private static String millis(long nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+  }
+
+  private static LongAdder[] adders(int count) {
+    LongAdder[] adders = new LongAdder[count];
+    for (int i = 0; i < count; i++) {
+      adders[i] = new LongAdder();
+    }
+    return adders;
+  }
+
+  private static com.sun.management.ThreadMXBean allocationCounter() {
+    try {
+      if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (threads.isThreadAllocatedMemorySupported()
+            && threads.isThreadAllocatedMemoryEnabled()) {
+          return threads;
+        }
+      }
+    } catch (LinkageError e) {
+      // jdk.management is not available in this runtime
+    }
+    return null;
+  }
+}
@@ -1,56 +1,131 @@
 package com.marvinformatics.plugins.markdocs;
 
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
-public class Goal {
-  private String name;
-  private String description;
-  private String implementation;
-  private String phase;
-  private List<Parameter> parameters = new ArrayList<>();
+/** One mojo of a plugin. Immutable; parameters can be looked up by name in constant time. */
+public final class Goal {
+  private final String name;
+  private final String description;
+  private final String implementation;
+  private final String phase;
+  private final List<Parameter> parameters;
+  private final NameIndex parameterIndex;
 
-  public String getName() {
-    return name;
+  private Goal(Builder builder) {
+    this.name = builder.name;
+    this.description = builder.description;
+    this.implementation = builder.implementation;
+    this.phase = builder.phase;
+    this.parameters = List.copyOf(builder.parameters);
+    this.parameterIndex = NameIndex.of(parameters, Parameter::getName);
   }
 
-  public void setName(String name) {
-    this.name = name;
+  public static Builder builder() {
+    return new Builder();
   }
 
-  public String getDescription() {
-    return description;
+  public String getName() {
+    return name;
   }
 
-  public void setDescription(String description) {
-    this.description = description;
+  public String getDescription() {
+    return description;
   }
 
   public String getImplementation() {
     return implementation;
   }
 
-  public void setImplementation(String implementation) {
-    this.implementation = implementation;
-  }
-
   public String getPhase() {
     return phase;
   }
 
-  public void setPhase(String phase) {
-    this.phase = phase;
-  }
-
+  /** Unmodifiable, in descriptor order. */
   public List<Parameter> getParameters() {
     return parameters;
   }
 
-  public void setParameters(List<Parameter> parameters) {
-    this.parameters = parameters;
+  /**
+   * @return the first parameter with this name, or {@code null}
+   */
+  public Parameter getParameter(String parameterName) {
+    int index = parameterIndex.indexOf(parameters, Parameter::getName, parameterName);
+    return index >= 0 ? parameters.get(index) : null;
   }
 
-  public void addParameter(Parameter parameter) {
-    this.parameters.add(parameter);
+  /** Equal goals document identically, so an unchanged goal's page need not be rendered again. */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Goal)) {
+      return false;
+    }
+    Goal other = (Goal) o;
+    return Objects.equals(name, other.name)
+        && Objects.equals(description, other.description)
+        && Objects.equals(implementation, other.implementation)
+        && Objects.equals(phase, other.phase)
+        && parameters.equals(other.parameters);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(name, description, implementation, phase, parameters);
+  }
+
+  /** Feeds every field into the digest, so an equal goal can be recognised across executions. */
+  void digest(MessageDigest digest) {
+    GenerationManifest.update(digest, name);
+    GenerationManifest.update(digest, description);
+    GenerationManifest.update(digest, implementation);
+    GenerationManifest.update(digest, phase);
+    GenerationManifest.update(digest, Integer.toString(parameters.size()));
+    for (Parameter parameter : parameters) {
+      parameter.digest(digest);
+    }
+  }
+
+  public static final class Builder {
+    private String name;
+    private String description;
+    private String implementation;
+    private String phase;
+    private final List<Parameter> parameters = new ArrayList<>();
+
+    private Builder() {}
+
+    public Builder name(String name) {
+      this.name = name;
+      return this;
+    }
+
+    public Builder description(String description) {
+      this.description = description;
+      return this;
+    }
+
+    public Builder implementation(String implementation) {
+      this.implementation = implementation;
+      return this;
+    }
+
+    public Builder phase(String phase) {
+      this.phase = ModelStrings.intern(phase);
+      return this;
+    }
+
+    public Builder addParameter(Parameter parameter) {
+      this.parameters.add(parameter);
+      return this;
+    }
+
+    public Goal build() {
+      return new Goal(this);
+    }
   }
 }
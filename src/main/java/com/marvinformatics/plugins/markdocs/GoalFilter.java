@@ -0,0 +1,99 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Selects goals by name. {@code includes} and {@code excludes} are patterns where {@code *} matches
+ * any run of characters and {@code ?} a single one; without includes every goal is selected, and an
+ * excluded goal never is.
+ */
+public final class GoalFilter {
+
+  /** Selects every goal. */
+  public static final GoalFilter ALL = new GoalFilter(List.of(), List.of());
+
+  private final List<String> includes;
+  private final List<String> excludes;
+
+  private GoalFilter(List<String> includes, List<String> excludes) {
+    this.includes = includes;
+    this.excludes = excludes;
+  }
+
+  /** Blank patterns, e.g. of an empty {@code -Dmarkdocs.excludes=}, are ignored. */
+  public static GoalFilter of(List<String> includes, List<String> excludes) {
+    List<String> included = patterns(includes);
+    List<String> excluded = patterns(excludes);
+    return included.isEmpty() && excluded.isEmpty() ? ALL : new GoalFilter(included, excluded);
+  }
+
+  public boolean isAll() {
+    return this == ALL;
+  }
+
+  /** A mojo without a goal name is only selected when no includes are given. */
+  public boolean accepts(String goal) {
+    if (goal == null) {
+      return includes.isEmpty();
+    }
+    if (!includes.isEmpty() && !matchesAny(includes, goal)) {
+      return false;
+    }
+    return !matchesAny(excludes, goal);
+  }
+
+  /** Canonical form, part of cache keys and generation fingerprints. */
+  @Override
+  public String toString() {
+    return "includes=" + String.join(",", includes) + ";excludes=" + String.join(",", excludes);
+  }
+
+  private static List<String> patterns(List<String> patterns) {
+    List<String> result = new ArrayList<>();
+    if (patterns != null) {
+      for (String pattern : patterns) {
+        if (pattern != null && !pattern.isBlank()) {
+          result.add(pattern.trim());
+        }
+      }
+    }
+    return List.copyOf(result);
+  }
+
+  private static boolean matchesAny(List<String> patterns, String goal) {
+    for (String pattern : patterns) {
+      if (matches(pattern, goal)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // greedy wildcard match, backing up only to the last star
+  static boolean matches(String pattern, String name) {
+    int p = 0;
+    int n = 0;
+    int star = -1;
+    int starMatch = 0;
+    while (n < name.length()) {
+      if (p < pattern.length()
+          && (pattern.charAt(p) == '?' || pattern.charAt(p) == name.charAt(n))) {
+        p++;
+        n++;
+      } else if (p < pattern.length() && pattern.charAt(p) == '*') {
+        star = p++;
+        starMatch = n;
+      } else if (star >= 0) {
+        p = star + 1;
+        n = ++starMatch;
+      } else {
+        return false;
+      }
+    }
+    while (p < pattern.length() && pattern.charAt(p) == '*') {
+      p++;
+    }
+    return p == pattern.length();
+  }
+}
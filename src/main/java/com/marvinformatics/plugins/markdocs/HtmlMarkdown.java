@@ -0,0 +1,1177 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Converts the Javadoc HTML of descriptor descriptions to markdown: paragraphs, line breaks, lists,
+ * preformatted blocks, code spans, emphasis, links, headings and block quotes, with entities
+ * decoded and inline tags left over from Javadoc, such as {@code {@code ...}} and {@code {@link
+ * ...}}, unwrapped. Text between the markup is escaped like {@link MarkdownText} does.
+ *
+ * <p>The description is tokenized in one pass and written straight to the output. The only
+ * lookahead is to the end of the current tag, code span or inline tag, which is consumed right
+ * after, and a lookahead that finds no end disables further ones of its kind, so the time stays
+ * linear in the length of the description whatever it holds. Tags that are not HTML, e.g. XML
+ * configuration examples written without escaping, are kept as text.
+ */
+final class HtmlMarkdown {
+
+  // pending breaks, strongest wins
+  private static final int NONE = 0;
+  private static final int SPACE = 1;
+  private static final int LINE = 2;
+  private static final int HARD_LINE = 3;
+  private static final int PARAGRAPH = 4;
+
+  // entries of the block stack, otherwise the next number of an ordered list
+  private static final int UNORDERED = -1;
+  private static final int QUOTE = -2;
+  // lists and quotes nested deeper are flattened into the deepest one, so that the prefix every
+  // line repeats stays short and the output linear in the description
+  private static final int MAX_DEPTH = 16;
+
+  private static final int MAX_TAG_NAME = 10;
+  private static final int MAX_ENTITY_LENGTH = 10;
+
+  private static final String[] ENTITY_NAMES = {
+    "lt", "gt", "amp", "quot", "apos", "nbsp", "copy", "reg", "trade", "hellip", "mdash", "ndash",
+    "lsquo", "rsquo", "ldquo", "rdquo", "laquo", "raquo", "middot", "bull", "times", "euro"
+  };
+  private static final char[] ENTITY_VALUES = {
+    '<', '>', '&', '"', '\'', '\u00a0', '\u00a9', '\u00ae', '\u2122', '\u2026', '\u2014', '\u2013',
+    '\u2018', '\u2019', '\u201c', '\u201d', '\u00ab', '\u00bb', '\u00b7', '\u2022', '\u00d7',
+    '\u20ac'
+  };
+
+  private final CharSequence html;
+  private final int length;
+  private final Appendable out;
+  private final boolean plain;
+  private final int limit;
+
+  private final StringBuilder prefix;
+  private int[] blocks = new int[8];
+  private int[] blockPrefixes = new int[8];
+  private int depth;
+  private int flattened;
+
+  private int pending = NONE;
+  private boolean started;
+  private boolean atLineStart;
+  private boolean lineStart = true;
+  private boolean endsWithText;
+  private char lastChar;
+  private int written;
+
+  private boolean pre;
+  private boolean preStarted;
+  private int preNewlines;
+  private String preFence;
+  private boolean heading;
+  private String linkTarget;
+
+  private NameLinker.Matches names;
+  private int name;
+  private int nameEnd = -1;
+
+  private boolean tagsExhausted;
+  private boolean bracesExhausted;
+  private String tagName;
+  private boolean closingTag;
+  private int attributesStart;
+  private int attributesEnd;
+  private int decoded;
+
+  private HtmlMarkdown(CharSequence html, Appendable out, String indent, boolean plain, int limit) {
+    this.html = html;
+    this.length = html.length();
+    this.out = out;
+    this.plain = plain;
+    this.limit = limit;
+    this.prefix = new StringBuilder(indent);
+  }
+
+  /** Writes the description as markdown blocks, starting at the beginning of a line. */
+  static void append(CharSequence html, Appendable out) throws IOException {
+    HtmlMarkdown converter = new HtmlMarkdown(html, out, "", false, Integer.MAX_VALUE);
+    converter.atLineStart = true;
+    converter.convert();
+  }
+
+  /**
+   * Like {@link #append(CharSequence, Appendable)}, linking the names {@code links} finds to their
+   * pages; {@code page} is the goal whose page is written.
+   */
+  static void append(CharSequence html, NameLinker links, Goal page, Appendable out)
+      throws IOException {
+    HtmlMarkdown converter = new HtmlMarkdown(html, out, "", false, Integer.MAX_VALUE);
+    converter.atLineStart = true;
+    converter.names = links.find(html, page);
+    converter.convert();
+  }
+
+  /**
+   * Writes the description as markdown continuing the current line, indenting further lines by
+   * {@code indent}, e.g. to stay inside a list item. A period is added unless the text already ends
+   * a sentence or the description ends with a block such as a code block.
+   */
+  static void appendSentence(CharSequence html, String indent, Appendable out) throws IOException {
+    appendSentence(html, indent, null, null, out);
+  }
+
+  /** Like {@link #appendSentence(CharSequence, String, Appendable)}, with names linked. */
+  static void appendSentence(
+      CharSequence html, String indent, NameLinker links, Goal page, Appendable out)
+      throws IOException {
+    HtmlMarkdown converter = new HtmlMarkdown(html, out, indent, false, Integer.MAX_VALUE);
+    if (links != null) {
+      converter.names = links.find(html, page);
+    }
+    converter.convert();
+    char last = converter.lastChar;
+    if (!converter.started
+        || (converter.endsWithText && last != '.' && last != '!' && last != '?')) {
+      out.append('.');
+    }
+  }
+
+  /**
+   * Writes the text of the description without markup or escaping, all whitespace and breaks
+   * collapsed to single spaces, stopping once about {@code limit} characters were written.
+   */
+  static void appendText(CharSequence html, int limit, Appendable out) throws IOException {
+    new HtmlMarkdown(html, out, "", true, limit).convert();
+  }
+
+  /** Writes the escaped one-line summary of the description, see {@link MarkdownText}. */
+  static void appendSummary(CharSequence html, Appendable out) throws IOException {
+    // the summary never looks further than its length and the character after it
+    StringBuilder text = new StringBuilder(MarkdownText.SUMMARY_LENGTH * 2);
+    appendText(html, MarkdownText.SUMMARY_LENGTH * 2, text);
+    MarkdownText.appendSummary(text, MarkdownText.SUMMARY_LENGTH, out);
+  }
+
+  /** Writes the one-line summary of the description without markdown escaping. */
+  static void appendPlainSummary(CharSequence html, Appendable out) throws IOException {
+    StringBuilder text = new StringBuilder(MarkdownText.SUMMARY_LENGTH * 2);
+    appendText(html, MarkdownText.SUMMARY_LENGTH * 2, text);
+    MarkdownText.appendPlainSummary(text, MarkdownText.SUMMARY_LENGTH, out);
+  }
+
+  private void convert() throws IOException {
+    int i = 0;
+    while (i < length && written < limit) {
+      char c = html.charAt(i);
+      if (c == '<') {
+        i = tag(i);
+      } else if (c == '&') {
+        i = entity(i);
+      } else if (c == '{' && isInlineTagStart(i)) {
+        i = inlineTag(i);
+      } else if (isWhitespace(c)) {
+        i = whitespace(i);
+      } else {
+        i = textRun(i);
+      }
+    }
+
+    if (pre) {
+      closePre();
+    }
+    if (linkTarget != null) {
+      closeLink();
+    }
+  }
+
+  // --- tags
+
+  private int tag(int i) throws IOException {
+    if (startsWith(i, "<!--")) {
+      int end = indexOf("-->", i + 4);
+      return end < 0 ? length : end + 3;
+    }
+    int end = readTag(i);
+    if (end < 0) {
+      text('<', next(i + 1));
+      return i + 1;
+    }
+
+    if (pre) {
+      if (tagName.equals("pre") && closingTag) {
+        closePre();
+      } else if (tagName.equals("br")) {
+        preNewlines++;
+      }
+      return end;
+    }
+
+    switch (tagName) {
+      case "p":
+      case "div":
+      case "center":
+      case "table":
+      case "caption":
+      case "dl":
+        request(PARAGRAPH);
+        break;
+      case "br":
+      case "tr":
+      case "dt":
+      case "dd":
+        request(HARD_LINE);
+        break;
+      case "td":
+      case "th":
+        request(SPACE);
+        break;
+      case "hr":
+        request(PARAGRAPH);
+        mark("---", false);
+        request(PARAGRAPH);
+        break;
+      case "h1":
+      case "h2":
+      case "h3":
+      case "h4":
+      case "h5":
+      case "h6":
+        heading(tagName.charAt(1) - '0');
+        break;
+      case "ul":
+      case "ol":
+        list(tagName.equals("ul") ? UNORDERED : 1);
+        break;
+      case "li":
+        if (!closingTag) {
+          listItem();
+        }
+        break;
+      case "blockquote":
+        quote();
+        break;
+      case "pre":
+        if (!closingTag) {
+          openPre(end);
+        }
+        break;
+      case "code":
+      case "tt":
+      case "kbd":
+      case "samp":
+        return closingTag ? end : code(end, tagName);
+      case "a":
+        link();
+        break;
+      case "b":
+      case "strong":
+        mark("**", true);
+        break;
+      case "i":
+      case "em":
+      case "cite":
+      case "var":
+        mark("*", true);
+        break;
+      case "s":
+      case "strike":
+      case "del":
+        mark("~~", true);
+        break;
+      default:
+        // span, font, sub, sup and the like carry nothing markdown can show
+        break;
+    }
+    return end;
+  }
+
+  // reads the HTML tag at i; returns the index after it, or -1 when it is not one
+  private int readTag(int i) {
+    if (tagsExhausted) {
+      return -1;
+    }
+    int j = i + 1;
+    closingTag = j < length && html.charAt(j) == '/';
+    if (closingTag) {
+      j++;
+    }
+    int nameStart = j;
+    while (j < length && j - nameStart <= MAX_TAG_NAME && isAsciiLetterOrDigit(html.charAt(j))) {
+      j++;
+    }
+    if (j == nameStart || !isAsciiLetter(html.charAt(nameStart))) {
+      return -1;
+    }
+    tagName = htmlTag(html.subSequence(nameStart, j).toString().toLowerCase(Locale.ROOT));
+    if (tagName == null || (j < length && !isTagNameEnd(html.charAt(j)))) {
+      return -1;
+    }
+
+    attributesStart = j;
+    char quote = 0;
+    for (; j < length; j++) {
+      char c = html.charAt(j);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '"' || c == '\'') {
+        quote = c;
+      } else if (c == '>') {
+        attributesEnd = j;
+        return j + 1;
+      }
+    }
+    // no tag can end from here on
+    tagsExhausted = true;
+    return -1;
+  }
+
+  private void heading(int level) throws IOException {
+    request(PARAGRAPH);
+    if (closingTag) {
+      heading = false;
+      return;
+    }
+    // the page title is the only level one heading
+    mark("######".substring(0, Math.min(6, level + 2)) + " ", false);
+    heading = true;
+  }
+
+  private void list(int kind) throws IOException {
+    if (closingTag) {
+      if (flattened > 0) {
+        flattened--;
+        request(inList() ? LINE : PARAGRAPH);
+        return;
+      }
+      int list = depth - 1;
+      while (list >= 0 && blocks[list] == QUOTE) {
+        list--;
+      }
+      if (list >= 0) {
+        popBlocks(list);
+      }
+      request(inList() ? LINE : PARAGRAPH);
+      return;
+    }
+    request(inList() ? LINE : PARAGRAPH);
+    if (!pushBlock(kind)) {
+      flattened++;
+    }
+  }
+
+  private void listItem() throws IOException {
+    if (!inList()) {
+      request(PARAGRAPH);
+      pushBlock(UNORDERED);
+    }
+    if (!inList()) {
+      // an item directly in a quote nested as deep as blocks go
+      request(LINE);
+      mark("- ", false);
+      return;
+    }
+    int list = depth - 1;
+    prefix.setLength(blockPrefixes[list]);
+    request(LINE);
+    String marker = blocks[list] == UNORDERED ? "- " : blocks[list]++ + ". ";
+    mark(marker, false);
+    if (!plain) {
+      lineStart = true;
+      for (int i = 0; i < marker.length(); i++) {
+        prefix.append(' ');
+      }
+    }
+  }
+
+  private void quote() throws IOException {
+    if (closingTag) {
+      if (flattened > 0) {
+        flattened--;
+        request(PARAGRAPH);
+        return;
+      }
+      int quote = depth - 1;
+      while (quote >= 0 && blocks[quote] != QUOTE) {
+        quote--;
+      }
+      if (quote >= 0) {
+        popBlocks(quote);
+      }
+      request(PARAGRAPH);
+      return;
+    }
+    request(PARAGRAPH);
+    if (!pushBlock(QUOTE)) {
+      flattened++;
+    } else if (!plain) {
+      prefix.append("> ");
+    }
+  }
+
+  private boolean inList() {
+    return depth > 0 && blocks[depth - 1] != QUOTE;
+  }
+
+  // the pending break still belongs to the enclosing block; false when nested too deep
+  private boolean pushBlock(int kind) throws IOException {
+    if (!plain) {
+      flushBreak();
+    }
+    if (depth == MAX_DEPTH) {
+      return false;
+    }
+    if (depth == blocks.length) {
+      blocks = Arrays.copyOf(blocks, depth * 2);
+      blockPrefixes = Arrays.copyOf(blockPrefixes, depth * 2);
+    }
+    blocks[depth] = kind;
+    blockPrefixes[depth++] = prefix.length();
+    return true;
+  }
+
+  private void popBlocks(int block) throws IOException {
+    if (!plain) {
+      flushBreak();
+      endsWithText = false;
+    }
+    prefix.setLength(blockPrefixes[block]);
+    depth = block;
+    flattened = 0;
+  }
+
+  private void openPre(int contentStart) throws IOException {
+    if (plain) {
+      request(SPACE);
+      return;
+    }
+    int contentEnd = indexOf("</pre", contentStart);
+    int longest = longestBacktickRun(contentStart, contentEnd < 0 ? length : contentEnd);
+    request(PARAGRAPH);
+    preFence = "```" + "`".repeat(Math.max(0, longest - 2));
+    mark(preFence, false);
+    pre = true;
+    preStarted = false;
+    preNewlines = 0;
+  }
+
+  private void closePre() throws IOException {
+    pre = false;
+    flush();
+    out.append('\n');
+    atLineStart = true;
+    mark(preFence, false);
+    request(PARAGRAPH);
+  }
+
+  private void preformatted(char c) throws IOException {
+    if (c == '\r') {
+      return;
+    }
+    if (c == '\n') {
+      preNewlines++;
+      return;
+    }
+    if (!preStarted) {
+      // the line break after the opening fence, whatever the blank lines that followed <pre>
+      out.append('\n');
+      atLineStart = true;
+      preStarted = true;
+      preNewlines = 0;
+    }
+    for (; preNewlines > 0; preNewlines--) {
+      if (atLineStart) {
+        appendTrimmedPrefix();
+      }
+      out.append('\n');
+      atLineStart = true;
+    }
+    if (atLineStart) {
+      out.append(prefix);
+      atLineStart = false;
+    }
+    out.append(c);
+    lastChar = c;
+  }
+
+  private void link() throws IOException {
+    if (closingTag) {
+      if (linkTarget != null) {
+        closeLink();
+      }
+      return;
+    }
+    String href = attribute("href");
+    if (linkTarget == null && href != null && isSafeTarget(href)) {
+      mark("[", true);
+      linkTarget = href;
+    }
+  }
+
+  private void closeLink() throws IOException {
+    if (!plain) {
+      StringBuilder target = new StringBuilder(linkTarget.length() + 3).append("](");
+      for (int i = 0; i < linkTarget.length(); i++) {
+        char c = linkTarget.charAt(i);
+        if (c == ' ' || c == '(' || c == ')' || c == '<' || c == '>') {
+          target.append('%').append(Integer.toHexString(c).toUpperCase(Locale.ROOT));
+        } else {
+          target.append(c);
+        }
+      }
+      mark(target.append(')').toString(), true);
+    }
+    linkTarget = null;
+  }
+
+  // the value of an attribute of the tag just read, entities left as they are
+  private String attribute(String name) {
+    int i = attributesStart;
+    while (i < attributesEnd) {
+      while (i < attributesEnd && !isAsciiLetter(html.charAt(i))) {
+        i++;
+      }
+      int nameStart = i;
+      while (i < attributesEnd && !isWhitespace(html.charAt(i)) && html.charAt(i) != '=') {
+        i++;
+      }
+      boolean matches = regionEquals(nameStart, i, name);
+      while (i < attributesEnd && isWhitespace(html.charAt(i))) {
+        i++;
+      }
+      if (i >= attributesEnd || html.charAt(i) != '=') {
+        continue;
+      }
+      i++;
+      while (i < attributesEnd && isWhitespace(html.charAt(i))) {
+        i++;
+      }
+      int valueStart = i;
+      int valueEnd;
+      if (i < attributesEnd && (html.charAt(i) == '"' || html.charAt(i) == '\'')) {
+        char quote = html.charAt(i);
+        valueStart++;
+        valueEnd = valueStart;
+        while (valueEnd < attributesEnd && html.charAt(valueEnd) != quote) {
+          valueEnd++;
+        }
+        i = valueEnd + 1;
+      } else {
+        valueEnd = valueStart;
+        while (valueEnd < attributesEnd && !isWhitespace(html.charAt(valueEnd))) {
+          valueEnd++;
+        }
+        i = valueEnd;
+      }
+      if (matches) {
+        return html.subSequence(valueStart, valueEnd).toString().trim();
+      }
+    }
+    return null;
+  }
+
+  // --- code spans
+
+  // writes the content up to the closing tag as a code span; returns the index after that tag
+  private int code(int contentStart, String name) throws IOException {
+    int contentEnd = indexOf("</" + name, contentStart);
+    int end;
+    if (contentEnd < 0) {
+      contentEnd = length;
+      end = length;
+    } else {
+      int close = indexOf(">", contentEnd);
+      end = close < 0 ? length : close + 1;
+    }
+    codeSpan(contentStart, contentEnd, true, false);
+    return end;
+  }
+
+  /**
+   * Writes [start, end) as a code span, whitespace collapsed and fenced with more backticks than it
+   * holds in a row. Content of HTML has its tags dropped and entities decoded; a Javadoc reference
+   * is shown as {@code Type.member}.
+   */
+  private void codeSpan(int start, int end, boolean html, boolean reference) throws IOException {
+    while (start < end && isWhitespace(this.html.charAt(start))) {
+      start++;
+    }
+    while (end > start && isWhitespace(this.html.charAt(end - 1))) {
+      end--;
+    }
+    if (reference && start < end && this.html.charAt(start) == '#') {
+      start++;
+    }
+    if (start == end) {
+      return;
+    }
+
+    // a name filling the whole span links it
+    int link = nameAt(start);
+    boolean linked = link >= 0 && names.end(link) == end;
+    if (linked) {
+      mark("[", true);
+    }
+    String fence = "`".repeat(longestBacktickRun(start, end) + 1);
+    boolean padded = this.html.charAt(start) == '`' || this.html.charAt(end - 1) == '`';
+    mark(padded ? fence + ' ' : fence, true);
+
+    boolean space = false;
+    for (int i = start; i < end; ) {
+      char c = this.html.charAt(i);
+      if (isWhitespace(c)) {
+        space = true;
+        i++;
+        continue;
+      }
+      int next = i + 1;
+      if (html && c == '<') {
+        int tagEnd = readTag(i);
+        if (tagEnd >= 0) {
+          i = tagEnd;
+          continue;
+        }
+      } else if (html && c == '&') {
+        int entityEnd = readEntity(i);
+        if (entityEnd >= 0) {
+          c = (char) decoded;
+          if (Character.isSupplementaryCodePoint(decoded)) {
+            codeCharacter(Character.highSurrogate(decoded), space);
+            c = Character.lowSurrogate(decoded);
+            space = false;
+          }
+          next = entityEnd;
+        }
+      } else if (reference && c == '#') {
+        c = '.';
+      }
+      codeCharacter(c, space);
+      space = false;
+      i = next;
+    }
+
+    mark(padded ? ' ' + fence : fence, true);
+    if (linked) {
+      mark("](" + names.target(link) + ")", true);
+    }
+  }
+
+  private void codeCharacter(char c, boolean space) throws IOException {
+    if (space) {
+      out.append(' ');
+      written++;
+    }
+    out.append(c);
+    written++;
+    lineStart = false;
+    endsWithText = true;
+    lastChar = c;
+  }
+
+  // --- Javadoc inline tags
+
+  private boolean isInlineTagStart(int i) {
+    return !bracesExhausted
+        && i + 2 < length
+        && html.charAt(i + 1) == '@'
+        && isAsciiLetter(html.charAt(i + 2));
+  }
+
+  private int inlineTag(int i) throws IOException {
+    int nameStart = i + 2;
+    int j = nameStart;
+    while (j < length && isAsciiLetter(html.charAt(j))) {
+      j++;
+    }
+    int nameEnd = j;
+    int contentStart = j;
+    int braces = 0;
+    for (; j < length; j++) {
+      char c = html.charAt(j);
+      if (c == '{') {
+        braces++;
+      } else if (c == '}' && braces-- == 0) {
+        break;
+      }
+    }
+    if (j == length) {
+      // unbalanced from here on, so no later inline tag could end either
+      bracesExhausted = true;
+      text('{', '@');
+      return i + 1;
+    }
+    int contentEnd = j;
+
+    if (pre) {
+      // {@code} and {@literal} are unwrapped, anything else is kept as it is
+      boolean literal =
+          regionEquals(nameStart, nameEnd, "code") || regionEquals(nameStart, nameEnd, "literal");
+      int from = i;
+      int to = j + 1;
+      if (literal) {
+        from = contentStart < contentEnd && isWhitespace(html.charAt(contentStart)) ? 1 : 0;
+        from += contentStart;
+        to = contentEnd;
+      }
+      for (int k = from; k < to; k++) {
+        preformatted(html.charAt(k));
+      }
+      return j + 1;
+    }
+
+    if (regionEquals(nameStart, nameEnd, "code")) {
+      codeSpan(contentStart, contentEnd, false, false);
+    } else if (regionEquals(nameStart, nameEnd, "link")
+        || regionEquals(nameStart, nameEnd, "linkplain")) {
+      int referenceEnd = referenceEnd(contentStart, contentEnd);
+      if (isBlank(referenceEnd, contentEnd)) {
+        codeSpan(contentStart, referenceEnd, false, true);
+      } else {
+        literal(referenceEnd, contentEnd);
+      }
+    } else if (regionEquals(nameStart, nameEnd, "value")) {
+      codeSpan(contentStart, contentEnd, false, true);
+    } else if (!regionEquals(nameStart, nameEnd, "docRoot")
+        && !regionEquals(nameStart, nameEnd, "inheritDoc")) {
+      // {@literal}, and the text of any other tag
+      literal(contentStart, contentEnd);
+    }
+    return j + 1;
+  }
+
+  // the end of the reference of a {@link}, whose member may list parameter types with blanks
+  private int referenceEnd(int start, int end) {
+    int i = start;
+    while (i < end && isWhitespace(html.charAt(i))) {
+      i++;
+    }
+    int parentheses = 0;
+    for (; i < end; i++) {
+      char c = html.charAt(i);
+      if (c == '(') {
+        parentheses++;
+      } else if (c == ')') {
+        parentheses--;
+      } else if (parentheses <= 0 && isWhitespace(c)) {
+        break;
+      }
+    }
+    return i;
+  }
+
+  private void literal(int start, int end) throws IOException {
+    for (int i = start; i < end; i++) {
+      char c = html.charAt(i);
+      if (isWhitespace(c)) {
+        request(SPACE);
+      } else {
+        text(c, i + 1 < end ? html.charAt(i + 1) : -1);
+      }
+    }
+  }
+
+  // --- text
+
+  private int entity(int i) throws IOException {
+    int end = readEntity(i);
+    if (end < 0) {
+      text('&', next(i + 1));
+      return i + 1;
+    }
+    if (decoded == ' ' || decoded == '\t' || decoded == '\n' || decoded == '\r') {
+      if (pre) {
+        preformatted((char) decoded);
+      } else {
+        request(SPACE);
+      }
+    } else if (Character.isSupplementaryCodePoint(decoded)) {
+      text(Character.highSurrogate(decoded), Character.lowSurrogate(decoded));
+      text(Character.lowSurrogate(decoded), next(end));
+    } else {
+      text((char) decoded, next(end));
+    }
+    return end;
+  }
+
+  // decodes the entity at i into decoded; returns the index after it, or -1 when it is none
+  private int readEntity(int i) {
+    int max = Math.min(length, i + MAX_ENTITY_LENGTH);
+    int j = i + 1;
+    if (j < length && html.charAt(j) == '#') {
+      j++;
+      int radix = 10;
+      if (j < length && (html.charAt(j) == 'x' || html.charAt(j) == 'X')) {
+        radix = 16;
+        j++;
+      }
+      int digitsStart = j;
+      int value = 0;
+      while (j < max && Character.digit(html.charAt(j), radix) >= 0) {
+        value = value * radix + Character.digit(html.charAt(j), radix);
+        j++;
+      }
+      if (j == digitsStart
+          || j >= length
+          || html.charAt(j) != ';'
+          || value <= 0
+          || !Character.isValidCodePoint(value)) {
+        return -1;
+      }
+      decoded = value;
+      return j + 1;
+    }
+
+    int nameStart = j;
+    while (j < max && isAsciiLetterOrDigit(html.charAt(j))) {
+      j++;
+    }
+    if (j == nameStart || j >= length || html.charAt(j) != ';') {
+      return -1;
+    }
+    for (int e = 0; e < ENTITY_NAMES.length; e++) {
+      String name = ENTITY_NAMES[e];
+      if (name.length() == j - nameStart && startsWith(nameStart, name)) {
+        decoded = ENTITY_VALUES[e];
+        return j + 1;
+      }
+    }
+    return -1;
+  }
+
+  private int whitespace(int i) throws IOException {
+    if (pre) {
+      preformatted(html.charAt(i));
+      return i + 1;
+    }
+    int newlines = 0;
+    for (; i < length && isWhitespace(html.charAt(i)); i++) {
+      if (html.charAt(i) == '\n') {
+        newlines++;
+      }
+    }
+    if (heading || newlines == 0) {
+      request(SPACE);
+    } else {
+      // the author's own line breaks and blank lines are kept
+      request(newlines == 1 ? LINE : PARAGRAPH);
+    }
+    return i;
+  }
+
+  // copies the characters up to the next markup, blank or escape in one append
+  private int textRun(int i) throws IOException {
+    if (pre) {
+      preformatted(html.charAt(i));
+      return i + 1;
+    }
+    flush();
+    int max = plain ? Math.min(length, i + limit - written) : length;
+    if (nameEnd < 0) {
+      int link = nameAt(i);
+      if (link >= 0 && names.inText(link)) {
+        mark("[", true);
+        nameEnd = names.end(link);
+      }
+    }
+    // a run ends where a name starts or ends, to open or close its link
+    if (nameEnd >= 0) {
+      max = Math.min(max, nameEnd);
+    } else if (nameAt(i + 1) >= -1 && name < names.size()) {
+      max = Math.min(max, names.start(name));
+    }
+    int end = i;
+    while (end < max && isRunCharacter(html.charAt(end), end, end == i && lineStart)) {
+      end++;
+    }
+    if (end == i) {
+      text(html.charAt(i), next(i + 1));
+      end = i + 1;
+    } else {
+      out.append(html, i, end);
+      written += end - i;
+      lineStart = false;
+      endsWithText = true;
+      lastChar = html.charAt(end - 1);
+    }
+    if (end == nameEnd) {
+      mark("](" + names.target(name) + ")", true);
+      nameEnd = -1;
+    }
+    return end;
+  }
+
+  // the name to link starting at i, -1 if none does, or -2 where nothing is linked; names
+  // starting before i are passed over for good
+  private int nameAt(int i) {
+    if (names == null || plain || pre || heading || linkTarget != null) {
+      return -2;
+    }
+    while (name < names.size() && names.start(name) < i) {
+      name++;
+    }
+    return name < names.size() && names.start(name) == i ? name : -1;
+  }
+
+  private boolean isRunCharacter(char c, int i, boolean lineStart) {
+    if (c == '<' || c == '&' || c == '{' || isWhitespace(c)) {
+      return false;
+    }
+    return plain || !needsEscape(c, next(i + 1), lineStart);
+  }
+
+  private void text(char c, int next) throws IOException {
+    if (pre && !plain) {
+      preformatted(c);
+      return;
+    }
+    flush();
+    if (!plain && needsEscape(c, next, lineStart)) {
+      out.append('\\');
+    }
+    out.append(c);
+    written++;
+    lineStart = false;
+    endsWithText = true;
+    lastChar = c;
+  }
+
+  private static boolean needsEscape(char c, int next, boolean lineStart) {
+    switch (c) {
+      case '<':
+        return true;
+      case '>':
+        return lineStart;
+      case '&':
+        return next == '#' || (next >= 0 && isAsciiLetter((char) next));
+      default:
+        return MarkdownText.needsEscape(c, next, lineStart);
+    }
+  }
+
+  // writes markup, which plain text leaves out
+  private void mark(String markup, boolean inline) throws IOException {
+    flush();
+    if (plain) {
+      return;
+    }
+    out.append(markup);
+    lineStart = false;
+    endsWithText = inline;
+    lastChar = markup.charAt(markup.length() - 1);
+  }
+
+  // --- breaks
+
+  private void request(int level) {
+    if (level == SPACE && lineStart && !plain) {
+      return;
+    }
+    pending = Math.max(pending, level);
+  }
+
+  private void flush() throws IOException {
+    flushBreak();
+    started = true;
+    if (atLineStart) {
+      out.append(prefix);
+      atLineStart = false;
+      lineStart = true;
+    }
+  }
+
+  // breaks before the first and after the last text are dropped
+  private void flushBreak() throws IOException {
+    int level = pending;
+    pending = NONE;
+    if (!started || level == NONE) {
+      return;
+    }
+    if (plain) {
+      out.append(' ');
+      written++;
+      return;
+    }
+    if (atLineStart) {
+      if (level == PARAGRAPH) {
+        appendTrimmedPrefix();
+        out.append('\n');
+      }
+      return;
+    }
+    switch (level) {
+      case SPACE:
+        out.append(' ');
+        return;
+      case LINE:
+        out.append('\n');
+        break;
+      case HARD_LINE:
+        out.append("  \n");
+        break;
+      default:
+        out.append('\n');
+        appendTrimmedPrefix();
+        out.append('\n');
+        break;
+    }
+    atLineStart = true;
+  }
+
+  private void appendTrimmedPrefix() throws IOException {
+    int end = prefix.length();
+    while (end > 0 && prefix.charAt(end - 1) == ' ') {
+      end--;
+    }
+    out.append(prefix, 0, end);
+  }
+
+  // --- scanning
+
+  private int next(int i) {
+    return i < length ? html.charAt(i) : -1;
+  }
+
+  private int longestBacktickRun(int start, int end) {
+    int longest = 0;
+    int run = 0;
+    for (int i = start; i < end; i++) {
+      run = html.charAt(i) == '`' ? run + 1 : 0;
+      longest = Math.max(longest, run);
+    }
+    return longest;
+  }
+
+  private boolean isBlank(int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (!isWhitespace(html.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // case insensitive
+  private boolean startsWith(int i, String text) {
+    return i + text.length() <= length && regionEquals(i, i + text.length(), text);
+  }
+
+  private boolean regionEquals(int start, int end, String text) {
+    if (end - start != text.length()) {
+      return false;
+    }
+    for (int i = 0; i < text.length(); i++) {
+      if (Character.toLowerCase(html.charAt(start + i)) != Character.toLowerCase(text.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // case insensitive, like tag names
+  private int indexOf(String text, int from) {
+    for (int i = from; i + text.length() <= length; i++) {
+      if (html.charAt(i) == text.charAt(0) && startsWith(i, text)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static String htmlTag(String name) {
+    switch (name) {
+      case "p":
+      case "div":
+      case "center":
+      case "br":
+      case "hr":
+      case "h1":
+      case "h2":
+      case "h3":
+      case "h4":
+      case "h5":
+      case "h6":
+      case "ul":
+      case "ol":
+      case "li":
+      case "dl":
+      case "dt":
+      case "dd":
+      case "pre":
+      case "blockquote":
+      case "table":
+      case "caption":
+      case "thead":
+      case "tbody":
+      case "tfoot":
+      case "tr":
+      case "td":
+      case "th":
+      case "a":
+      case "b":
+      case "strong":
+      case "i":
+      case "em":
+      case "cite":
+      case "var":
+      case "s":
+      case "strike":
+      case "del":
+      case "code":
+      case "tt":
+      case "kbd":
+      case "samp":
+      case "span":
+      case "font":
+      case "sub":
+      case "sup":
+      case "small":
+      case "big":
+      case "u":
+      case "ins":
+      case "abbr":
+      case "img":
+      case "wbr":
+      case "nobr":
+        return name;
+      default:
+        return null;
+    }
+  }
+
+  // only web and mail targets, or relative ones, so javascript:, data: and the like stay text;
+  // a relative target may not hide a scheme behind an entity or whitespace in its first segment
+  private static boolean isSafeTarget(String href) {
+    String lower = href.toLowerCase(Locale.ROOT);
+    if (lower.startsWith("http:") || lower.startsWith("https:") || lower.startsWith("mailto:")) {
+      return true;
+    }
+    for (int i = 0; i < href.length(); i++) {
+      char c = href.charAt(i);
+      if (c == '/' || c == '?' || c == '#') {
+        return true;
+      }
+      if (c == ':' || c == '&' || c <= ' ') {
+        return false;
+      }
+    }
+    return !href.isEmpty();
+  }
+
+  private static boolean isTagNameEnd(char c) {
+    return isWhitespace(c) || c == '>' || c == '/';
+  }
+
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f';
+  }
+
+  private static boolean isAsciiLetter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  private static boolean isAsciiLetterOrDigit(char c) {
+    return isAsciiLetter(c) || (c >= '0' && c <= '9');
+  }
+}
@@ -0,0 +1,115 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The {@code json} format, for tooling: {@code plugin.json} describes the plugin and lists its
+ * goals, and every goal gets an object with its parameters. Descriptions are converted to markdown
+ * like on the markdown pages; absent values are {@code null}.
+ */
+public class JsonRenderer implements PageRenderer {
+
+  public static final String FORMAT = "json";
+
+  @Override
+  public String getFormat() {
+    return FORMAT;
+  }
+
+  @Override
+  public String getOverviewPage() {
+    return "plugin.json";
+  }
+
+  @Override
+  public String getExtension() {
+    return ".json";
+  }
+
+  @Override
+  public void writeOverview(PluginDescriptor descriptor, String title, Appendable out)
+      throws IOException {
+    out.append("{\n");
+    field("title", MarkdownGenerator.overviewTitle(descriptor, title), out);
+    field("groupId", descriptor.getGroupId(), out);
+    field("artifactId", descriptor.getArtifactId(), out);
+    field("version", descriptor.getVersion(), out);
+    field("name", descriptor.getName(), out);
+    field("description", markdown(descriptor.getDescription()), out);
+    out.append("  \"goals\": [");
+    List<Goal> goals = descriptor.getGoals();
+    for (int i = 0; i < goals.size(); i++) {
+      Goal goal = goals.get(i);
+      out.append(i == 0 ? "\n    {" : ",\n    {");
+      member("name", goal.getName(), out);
+      out.append(", ");
+      member("page", goalPage(goal), out);
+      out.append(", ");
+      member("phase", goal.getPhase(), out);
+      out.append(", ");
+      member("summary", summary(goal.getDescription()), out);
+      out.append('}');
+    }
+    out.append(goals.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+  }
+
+  @Override
+  public void writeGoalPage(Goal goal, Appendable out) throws IOException {
+    out.append("{\n");
+    field("name", goal.getName(), out);
+    field("phase", goal.getPhase(), out);
+    field("implementation", goal.getImplementation(), out);
+    field("description", markdown(goal.getDescription()), out);
+    out.append("  \"parameters\": [");
+    List<Parameter> parameters = goal.getParameters();
+    for (int i = 0; i < parameters.size(); i++) {
+      Parameter param = parameters.get(i);
+      out.append(i == 0 ? "\n    {" : ",\n    {");
+      member("name", param.getName(), out);
+      out.append(", ");
+      member("type", param.getType(), out);
+      out.append(", \"required\": ").append(String.valueOf(param.isRequired()));
+      out.append(", \"editable\": ").append(String.valueOf(param.isEditable()));
+      out.append(", ");
+      member("defaultValue", param.getDefaultValue(), out);
+      out.append(", ");
+      member("description", markdown(param.getDescription()), out);
+      out.append('}');
+    }
+    out.append(parameters.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+  }
+
+  private static void field(String name, String value, Appendable out) throws IOException {
+    out.append("  ");
+    member(name, value, out);
+    out.append(",\n");
+  }
+
+  private static void member(String name, String value, Appendable out) throws IOException {
+    out.append('"').append(name).append("\": ");
+    if (value == null) {
+      out.append("null");
+    } else {
+      SearchIndex.appendString(value, out);
+    }
+  }
+
+  private static String markdown(String html) throws IOException {
+    if (html == null) {
+      return null;
+    }
+    StringBuilder text = new StringBuilder();
+    HtmlMarkdown.append(html, text);
+    return text.toString();
+  }
+
+  private static String summary(String html) throws IOException {
+    if (html == null) {
+      return null;
+    }
+    StringBuilder text = new StringBuilder();
+    HtmlMarkdown.appendPlainSummary(html, text);
+    return text.toString();
+  }
+}
@@ -2,28 +2,54 @@ package com.marvinformatics.plugins.markdocs;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.util.List;
-import org.apache.commons.io.FileUtils;
-import org.apache.maven.plugin.AbstractMojo;
+import java.util.concurrent.ForkJoinPool;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.MavenProjectHelper;
 
-@Mojo(name = "generate", defaultPhase = LifecyclePhase.SITE)
-public class MarkDocsMojo extends AbstractMojo {
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.SITE, threadSafe = true)
+public class MarkDocsMojo extends AbstractMarkDocsMojo {
+
+  private static final String ARCHIVE_CLASSIFIER = "markdocs";
 
   @Parameter(defaultValue = "${project}", readonly = true, required = true)
   private MavenProject project;
 
+  @Component private MavenProjectHelper projectHelper;
+
   @Parameter(
       property = "markdocs.pluginDescriptor",
       defaultValue = "${project.build.directory}/classes/META-INF/maven/plugin.xml")
   private File pluginDescriptor;
 
+  /**
+   * Compiled mojo classes, scanned instead of {@link #pluginDescriptor} when that does not exist or
+   * is older than the newest class, so the descriptor need not be generated first.
+   */
+  @Parameter(
+      property = "markdocs.classesDirectory",
+      defaultValue = "${project.build.outputDirectory}")
+  private File classesDirectory;
+
+  /**
+   * Falls back to scanning {@link #classesDirectory} when the descriptor is missing or stale. Off
+   * by default: it walks the class tree on every run and the pages it gives have no descriptions.
+   */
+  @Parameter(property = "markdocs.scanClasses", defaultValue = "false")
+  private boolean scanClasses;
+
+  /**
+   * Documents a plugin from the local repository instead, given as {@code
+   * groupId:artifactId:version}. The descriptor is read straight out of the jar.
+   */
+  @Parameter(property = "markdocs.pluginArtifact")
+  private String pluginArtifact;
+
   @Parameter(
       property = "markdocs.outputDirectory",
       defaultValue = "${project.build.directory}/markdocs")
@@ -32,52 +58,124 @@ public class MarkDocsMojo extends AbstractMojo {
   @Parameter(property = "markdocs.title", defaultValue = "${project.name}")
   private String title;
 
-  private PluginDescriptorParser parser;
-  private MarkdownGenerator markdownGenerator;
+  /**
+   * Streams the pages into {@link #archiveFile} instead of writing them to the output directory.
+   */
+  @Parameter(property = "markdocs.archive", defaultValue = "false")
+  private boolean archive;
+
+  @Parameter(
+      property = "markdocs.archiveFile",
+      defaultValue = "${project.build.directory}/${project.build.finalName}-markdocs.zip")
+  private File archiveFile;
+
+  /** Attaches the archive to the project with the {@code markdocs} classifier. */
+  @Parameter(property = "markdocs.attach", defaultValue = "true")
+  private boolean attach;
 
   @Override
   public void execute() throws MojoExecutionException, MojoFailureException {
     getLog().info("Generating markdown documentation for Maven plugin");
 
-    if (!pluginDescriptor.exists()) {
-      throw new MojoExecutionException(
-          "Plugin descriptor not found: " + pluginDescriptor.getAbsolutePath());
-    }
-
+    ForkJoinPool pool = createPool();
+    DescriptorSource source = null;
     try {
-      parser = new PluginDescriptorParser();
-      markdownGenerator = new MarkdownGenerator();
-
-      PluginDescriptor descriptor = parser.parse(pluginDescriptor);
-
-      if (!outputDirectory.exists()) {
-        outputDirectory.mkdirs();
+      MojoClassScanner scanner = null;
+      if (pluginArtifact != null && !pluginArtifact.isBlank()) {
+        source = DescriptorSource.ofJar(resolvePluginJar(pluginArtifact.trim()));
+      } else {
+        source = DescriptorSource.ofFile(pluginDescriptor);
+        MojoClassScanner classes = scanClasses ? createScanner(pool) : null;
+        if (classes != null && isMissingOrStale(classes)) {
+          getLog()
+              .warn(
+                  "Plugin descriptor "
+                      + (pluginDescriptor.isFile() ? "older than the classes" : "not found")
+                      + ", scanning the mojo classes in "
+                      + classesDirectory
+                      + " instead: the pages will have no descriptions until plugin:descriptor"
+                      + " runs");
+          scanner = classes;
+          source = DescriptorSource.ofClasses(classes);
+        }
       }
 
-      generateOverviewPage(descriptor);
-      generateGoalPages(descriptor);
+      if (!source.exists()) {
+        throw new MojoExecutionException("Plugin descriptor not found: " + source);
+      }
 
-      getLog().info("Markdown documentation generated in: " + outputDirectory.getAbsolutePath());
+      DocumentationGenerator generator = createGenerator(pool);
+      if (archive) {
+        generateArchive(generator, source);
+      } else if (generator.generate(source, outputDirectory, title)) {
+        getLog().info("Markdown documentation generated in: " + outputDirectory.getAbsolutePath());
+      } else {
+        getLog().info("Markdown documentation is up to date: " + outputDirectory.getAbsolutePath());
+      }
+      logCacheStatistics(generator);
+      if (scanner != null && scanner.getRead() + scanner.getSkipped() > 0) {
+        getLog()
+            .info(
+                "Scanned "
+                    + scanner.getRead()
+                    + " class files, skipped "
+                    + scanner.getSkipped()
+                    + " unchanged ones");
+      }
+      writeMetrics(
+          generator, archive ? archiveFile.getAbsoluteFile().getParentFile() : outputDirectory);
+    } finally {
+      if (source != null) {
+        source.close();
+      }
+      pool.shutdown();
+    }
+  }
 
-    } catch (Exception e) {
-      throw new MojoExecutionException("Failed to generate markdown documentation", e);
+  private MojoClassScanner createScanner(ForkJoinPool pool) {
+    PluginDescriptor plugin =
+        PluginDescriptor.builder()
+            .groupId(project.getGroupId())
+            .artifactId(project.getArtifactId())
+            .version(project.getVersion())
+            .name(project.getName())
+            .description(project.getDescription())
+            .build();
+    MojoClassScanner scanner = new MojoClassScanner(classesDirectory, plugin, pool);
+    if (descriptorCache) {
+      scanner.setStateDirectory(cacheDirectory());
     }
+    return scanner;
   }
 
-  private void generateOverviewPage(PluginDescriptor descriptor) throws IOException {
-    String content = markdownGenerator.generateOverview(descriptor, title);
-    File overviewFile = new File(outputDirectory, "README.md");
-    FileUtils.writeStringToFile(overviewFile, content, StandardCharsets.UTF_8);
-    getLog().info("Generated overview: " + overviewFile.getName());
+  // plugin:descriptor writes the descriptor after compiling, so an older one misses changes; one
+  // written since the pages were generated is taken as is, without walking the class tree
+  private boolean isMissingOrStale(MojoClassScanner scanner) throws MojoExecutionException {
+    if (!classesDirectory.isDirectory()) {
+      return false;
+    }
+    File generated = new File(outputDirectory, GenerationManifest.FILE_NAME);
+    if (pluginDescriptor.isFile()
+        && generated.isFile()
+        && pluginDescriptor.lastModified() > generated.lastModified()) {
+      return false;
+    }
+    try {
+      return !pluginDescriptor.isFile() || scanner.lastModified() > pluginDescriptor.lastModified();
+    } catch (IOException e) {
+      throw new MojoExecutionException("Failed to list the classes in " + classesDirectory, e);
+    }
   }
 
-  private void generateGoalPages(PluginDescriptor descriptor) throws IOException {
-    List<Goal> goals = descriptor.getGoals();
-    for (Goal goal : goals) {
-      String content = markdownGenerator.generateGoalPage(goal);
-      File goalFile = new File(outputDirectory, goal.getName() + ".md");
-      FileUtils.writeStringToFile(goalFile, content, StandardCharsets.UTF_8);
-      getLog().info("Generated goal page: " + goalFile.getName());
+  private void generateArchive(DocumentationGenerator generator, DescriptorSource source)
+      throws MojoExecutionException {
+    if (generator.generateArchive(source, archiveFile, title)) {
+      getLog().info("Markdown documentation archived in: " + archiveFile.getAbsolutePath());
+    } else {
+      getLog().info("Markdown documentation archive is up to date: " + archiveFile);
+    }
+    if (attach) {
+      projectHelper.attachArtifact(project, "zip", ARCHIVE_CLASSIFIER, archiveFile);
     }
   }
 }
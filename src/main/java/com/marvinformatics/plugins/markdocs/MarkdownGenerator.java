@@ -1,133 +1,391 @@
 package com.marvinformatics.plugins.markdocs;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
-public class MarkdownGenerator {
+/** The {@code markdown} format, with the built-in layout or user templates. */
+public class MarkdownGenerator implements PageRenderer {
+
+  public static final String FORMAT = "markdown";
+
+  /** Names available to overview templates; the context is the plugin descriptor. */
+  public static final PageTemplate.Schema<Overview> OVERVIEW_SCHEMA =
+      new PageTemplate.Schema<Overview>()
+          .value("title", overview -> overviewTitle(overview.descriptor, overview.title))
+          .value("name", overview -> overview.descriptor.getName())
+          .value("groupId", overview -> overview.descriptor.getGroupId())
+          .value("artifactId", overview -> overview.descriptor.getArtifactId())
+          .value("version", overview -> overview.descriptor.getVersion())
+          .value(
+              "description", overview -> overview.descriptor.getDescription(), HtmlMarkdown::append)
+          .list(
+              "goals",
+              overview -> overview.descriptor.getGoals(),
+              new PageTemplate.Schema<Goal>()
+                  .value("name", Goal::getName)
+                  .value("description", Goal::getDescription, HtmlMarkdown::append)
+                  .value("summary", Goal::getDescription, HtmlMarkdown::appendSummary)
+                  .value("phase", Goal::getPhase)
+                  .value("implementation", Goal::getImplementation));
+
+  private static final PageTemplate.Schema<Parameter> PARAMETER_SCHEMA =
+      new PageTemplate.Schema<Parameter>()
+          .value("name", Parameter::getName)
+          .value("type", Parameter::getType)
+          .value("shortType", MarkdownGenerator::shortType)
+          .value("required", Parameter::isRequired)
+          .value("requirement", param -> param.isRequired() ? "Required" : "Optional")
+          .value("editable", Parameter::isEditable)
+          .value("description", Parameter::getDescription, MarkdownGenerator::writeParameterText)
+          .value("defaultValue", Parameter::getDefaultValue);
+
+  /** Names available to goal page templates; the context is one goal. */
+  public static final PageTemplate.Schema<Goal> GOAL_SCHEMA =
+      new PageTemplate.Schema<Goal>()
+          .value("title", MarkdownGenerator::goalTitle)
+          .value("name", Goal::getName)
+          .value("phase", Goal::getPhase)
+          .value("boundPhase", goal -> goal.getPhase() != null ? goal.getPhase() : "unspecified")
+          .value("description", Goal::getDescription, HtmlMarkdown::append)
+          .value("implementation", Goal::getImplementation)
+          .value("hasParameters", goal -> !goal.getParameters().isEmpty())
+          .list("parameters", Goal::getParameters, PARAMETER_SCHEMA)
+          .value(
+              "hasConfigurableParameters",
+              goal -> goal.getParameters().stream().anyMatch(MarkdownGenerator::isConfigurable))
+          .list(
+              "configurableParameters",
+              MarkdownGenerator::configurableParameters,
+              PARAMETER_SCHEMA);
+
+  private static final String PARAMETER_INDENT = "  ";
+
+  private final PageTemplate overviewTemplate;
+  private final PageTemplate goalTemplate;
+
+  /** Renders both pages with the built-in layout. */
+  public MarkdownGenerator() {
+    this(null, null);
+  }
+
+  /**
+   * @param overviewTemplate compiled against {@link #OVERVIEW_SCHEMA}, {@code null} for the
+   *     built-in layout
+   * @param goalTemplate compiled against {@link #GOAL_SCHEMA}, {@code null} for the built-in layout
+   */
+  public MarkdownGenerator(PageTemplate overviewTemplate, PageTemplate goalTemplate) {
+    this.overviewTemplate = overviewTemplate;
+    this.goalTemplate = goalTemplate;
+  }
+
+  @Override
+  public String getFormat() {
+    return FORMAT;
+  }
+
+  @Override
+  public String getOverviewPage() {
+    return "README.md";
+  }
+
+  @Override
+  public String getExtension() {
+    return ".md";
+  }
+
+  @Override
+  public String getConfiguration() {
+    StringBuilder configuration = new StringBuilder();
+    if (overviewTemplate != null) {
+      configuration.append("overviewTemplate=").append(overviewTemplate.getHash());
+    }
+    if (goalTemplate != null) {
+      if (configuration.length() > 0) {
+        configuration.append('\n');
+      }
+      configuration.append("goalTemplate=").append(goalTemplate.getHash());
+    }
+    return configuration.toString();
+  }
+
+  public PageTemplate getOverviewTemplate() {
+    return overviewTemplate;
+  }
+
+  public PageTemplate getGoalTemplate() {
+    return goalTemplate;
+  }
+
+  public static PageTemplate compileOverviewTemplate(String name, String source) {
+    return PageTemplate.compile(name, source, OVERVIEW_SCHEMA);
+  }
+
+  public static PageTemplate compileGoalTemplate(String name, String source) {
+    return PageTemplate.compile(name, source, GOAL_SCHEMA);
+  }
+
+  /** Template source producing exactly the built-in overview, as a starting point. */
+  public static String defaultOverviewTemplate() {
+    return readTemplate("templates/overview.mustache");
+  }
+
+  /** Template source producing exactly the built-in goal page, as a starting point. */
+  public static String defaultGoalTemplate() {
+    return readTemplate("templates/goal.mustache");
+  }
+
+  private static String readTemplate(String resource) {
+    try (InputStream in = MarkdownGenerator.class.getResourceAsStream(resource)) {
+      if (in == null) {
+        throw new IllegalStateException("Missing template " + resource);
+      }
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
 
   public String generateOverview(PluginDescriptor descriptor, String title) {
     StringBuilder sb = new StringBuilder();
+    try {
+      writeOverview(descriptor, title, sb);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public void writeOverview(PluginDescriptor descriptor, String title, Appendable out)
+      throws IOException {
+    if (overviewTemplate != null) {
+      overviewTemplate.render(new Overview(descriptor, title), out);
+      return;
+    }
 
-    String pluginTitle = title != null ? title : (descriptor.getName() + " Goals Documentation");
-    sb.append("# ").append(pluginTitle).append("\n\n");
+    out.append("# ");
+    MarkdownText.appendEscaped(overviewTitle(descriptor, title), out);
+    out.append("\n\n");
 
-    sb.append(
+    out.append(
         "This directory provides detailed documentation for each Maven goal available in the ");
-    sb.append(descriptor.getName()).append(". Click on the goal name for full details:\n\n");
+    MarkdownText.appendEscaped(String.valueOf(descriptor.getName()), out);
+    out.append(". Click on the goal name for full details:\n\n");
 
     List<Goal> goals = descriptor.getGoals();
     if (!goals.isEmpty()) {
       for (Goal goal : goals) {
-        sb.append("- [").append(goal.getName()).append("](").append(goal.getName()).append(".md)");
-        if (goal.getDescription() != null) {
-          String shortDesc = goal.getDescription().split("\\.")[0]; // Take first sentence
-          if (shortDesc.length() > 80) {
-            shortDesc = shortDesc.substring(0, 77) + "...";
-          }
-          sb.append(": ").append(shortDesc).append(".");
-        }
-        sb.append("\n");
+        writeOverviewItem(goal, out);
       }
     }
+  }
 
-    return sb.toString();
+  /** The built-in layout can be split; an overview template renders every goal on one page. */
+  @Override
+  public boolean supportsOverviewPages() {
+    return overviewTemplate == null;
+  }
+
+  @Override
+  public void writeOverviewPage(
+      PluginDescriptor descriptor, String title, OverviewPages pages, int page, Appendable out)
+      throws IOException {
+    if (overviewTemplate != null) {
+      writeOverview(descriptor, title, out);
+      return;
+    }
+    int pageCount = pages.getPageCount();
+
+    out.append("# ");
+    MarkdownText.appendEscaped(overviewTitle(descriptor, title), out);
+    if (pageCount > 1) {
+      out.append(" (page ")
+          .append(String.valueOf(page + 1))
+          .append(" of ")
+          .append(String.valueOf(pageCount))
+          .append(')');
+    }
+    out.append("\n\n");
+
+    out.append(
+        "This directory provides detailed documentation for each Maven goal available in the ");
+    MarkdownText.appendEscaped(String.valueOf(descriptor.getName()), out);
+    out.append(". Click on the goal name for full details:\n\n");
+    writePageNavigation(pages, page, out);
+
+    List<Goal> goals = pages.getGoals(page);
+    for (int i = 0; i < goals.size(); i++) {
+      String heading = pages.getHeading(page, i);
+      if (heading != null) {
+        out.append(i == 0 ? "## " : "\n## ");
+        MarkdownText.appendEscaped(heading, out);
+        out.append("\n\n");
+      }
+      writeOverviewItem(goals.get(i), out);
+    }
+
+    if (pageCount > 1) {
+      out.append('\n');
+      writePageNavigation(pages, page, out);
+    }
+  }
+
+  private static void writeOverviewItem(Goal goal, Appendable out) throws IOException {
+    out.append("- [");
+    MarkdownText.appendEscaped(goal.getName(), out);
+    out.append("](").append(goal.getName()).append(".md)");
+    if (goal.getDescription() != null) {
+      out.append(": ");
+      HtmlMarkdown.appendSummary(goal.getDescription(), out);
+    }
+    out.append("\n");
+  }
+
+  // previous, every page by number and next
+  private void writePageNavigation(OverviewPages pages, int page, Appendable out)
+      throws IOException {
+    int pageCount = pages.getPageCount();
+    if (pageCount == 1) {
+      return;
+    }
+    out.append("**Pages:** ");
+    if (page > 0) {
+      out.append("[Previous](")
+          .append(OverviewPages.pageName(getOverviewPage(), page - 1))
+          .append(") | ");
+    }
+    for (int i = 0; i < pageCount; i++) {
+      if (i > 0) {
+        out.append(' ');
+      }
+      if (i == page) {
+        out.append("**").append(String.valueOf(i + 1)).append("**");
+      } else {
+        out.append('[')
+            .append(String.valueOf(i + 1))
+            .append("](")
+            .append(OverviewPages.pageName(getOverviewPage(), i))
+            .append(')');
+      }
+    }
+    if (page + 1 < pageCount) {
+      out.append(" | [Next](")
+          .append(OverviewPages.pageName(getOverviewPage(), page + 1))
+          .append(')');
+    }
+    out.append("\n\n");
   }
 
   public String generateGoalPage(Goal goal) {
     StringBuilder sb = new StringBuilder();
+    try {
+      writeGoalPage(goal, sb);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return sb.toString();
+  }
 
-    // Capitalize first letter of goal name for title
-    String title =
-        goal.getName().substring(0, 1).toUpperCase()
-            + goal.getName().substring(1).replace("-", " ")
-            + " Goal";
-    sb.append("# ").append(title).append("\n\n");
+  @Override
+  public void writeGoalPage(Goal goal, Appendable out) throws IOException {
+    writeGoalPage(goal, null, out);
+  }
+
+  /**
+   * The built-in layout anchors every parameter and links names in descriptions; template pages are
+   * written as the template says.
+   */
+  @Override
+  public void writeGoalPage(Goal goal, NameLinker links, Appendable out) throws IOException {
+    if (goalTemplate != null) {
+      goalTemplate.render(goal, out);
+      return;
+    }
 
-    sb.append("**Goal Name:** `").append(goal.getName()).append("`\n\n");
+    out.append("# ");
+    MarkdownText.appendEscaped(goalTitle(goal), out);
+    out.append("\n\n");
+
+    out.append("**Goal Name:** `").append(goal.getName()).append("`\n\n");
 
     if (goal.getPhase() != null) {
-      sb.append("**Phase:** `").append(goal.getPhase()).append("`\n\n");
+      out.append("**Phase:** `").append(goal.getPhase()).append("`\n\n");
     }
 
     if (goal.getDescription() != null) {
-      sb.append("**Description:**  \n");
-      sb.append(goal.getDescription()).append("\n\n");
+      out.append("**Description:**  \n");
+      if (links != null) {
+        HtmlMarkdown.append(goal.getDescription(), links, goal, out);
+      } else {
+        HtmlMarkdown.append(goal.getDescription(), out);
+      }
+      out.append("\n\n");
     }
 
-    sb.append("**Usage:**  \n");
-    sb.append("This goal is bound to the `")
+    out.append("**Usage:**  \n");
+    out.append("This goal is bound to the `")
         .append(goal.getPhase() != null ? goal.getPhase() : "unspecified")
         .append(
             "` phase and is triggered automatically during the Maven build when the plugin is activated.");
-    sb.append("\n\n");
+    out.append("\n\n");
 
     List<Parameter> parameters = goal.getParameters();
     if (!parameters.isEmpty()) {
-      sb.append("**Parameters:**\n\n");
+      out.append("**Parameters:**\n\n");
 
       for (Parameter param : parameters) {
-        String paramType = param.getType() != null ? param.getType() : "String";
-        String shortType =
-            paramType.contains(".")
-                ? paramType.substring(paramType.lastIndexOf(".") + 1)
-                : paramType;
         String requiredText = param.isRequired() ? "Required" : "Optional";
 
-        sb.append("- **")
-            .append(param.getName())
-            .append("** (")
-            .append(shortType)
-            .append(", ")
-            .append(requiredText)
-            .append(")\n");
+        out.append("- ");
+        if (links != null) {
+          out.append("<a id=\"").append(param.getName()).append("\"></a>");
+        }
+        out.append("**");
+        MarkdownText.appendEscaped(param.getName(), out);
+        out.append("** (");
+        MarkdownText.appendEscaped(shortType(param), out);
+        out.append(", ").append(requiredText).append(")\n");
 
         if (param.getDescription() != null) {
-          String desc = param.getDescription().trim();
-          sb.append("  ").append(desc);
-          if (!desc.endsWith(".")) {
-            sb.append(".");
-          }
-          sb.append("\n");
+          out.append("  ");
+          writeParameterText(param.getDescription(), links, goal, out);
+          out.append("\n");
         }
 
         if (param.getDefaultValue() != null) {
-          sb.append("  *Default:* `").append(param.getDefaultValue()).append("`\n");
+          out.append("  *Default:* `").append(param.getDefaultValue()).append("`\n");
         } else if (!param.isRequired()) {
-          sb.append("  *Default:* None.\n");
+          out.append("  *Default:* None.\n");
         }
 
-        sb.append("\n");
+        out.append("\n");
       }
     }
 
     // Only show example configuration if there are configurable parameters
-    List<Parameter> configurableParams =
-        parameters.stream()
-            .filter(
-                p ->
-                    p.isEditable()
-                        && p.getType() != null
-                        && !p.getType().equals("org.apache.maven.execution.MavenSession")
-                        && !p.getType().equals("org.apache.maven.project.MavenProject"))
-            .toList();
+    List<Parameter> configurableParams = configurableParameters(goal);
 
     if (!configurableParams.isEmpty()) {
-      sb.append("**Example Configuration:**\n\n");
-      sb.append("```\n");
-      sb.append("<plugin>\n");
-      sb.append("  <groupId><!-- groupId --></groupId>\n");
-      sb.append("  <artifactId><!-- artifactId --></artifactId>\n");
-      sb.append("  <version><!-- version --></version>\n");
-      sb.append("  <configuration>\n");
+      out.append("**Example Configuration:**\n\n");
+      out.append("```\n");
+      out.append("<plugin>\n");
+      out.append("  <groupId><!-- groupId --></groupId>\n");
+      out.append("  <artifactId><!-- artifactId --></artifactId>\n");
+      out.append("  <version><!-- version --></version>\n");
+      out.append("  <configuration>\n");
 
       for (Parameter param : configurableParams) {
         if (param.isRequired()) {
-          sb.append("    <")
+          out.append("    <")
               .append(param.getName())
               .append("><!-- required --></")
               .append(param.getName())
               .append(">\n");
         } else {
-          sb.append("    <")
+          out.append("    <")
               .append(param.getName())
               .append("><!-- optional --></")
               .append(param.getName())
@@ -135,11 +393,59 @@ public class MarkdownGenerator {
         }
       }
 
-      sb.append("  </configuration>\n");
-      sb.append("</plugin>\n");
-      sb.append("```\n\n");
+      out.append("  </configuration>\n");
+      out.append("</plugin>\n");
+      out.append("```\n\n");
     }
+  }
 
-    return sb.toString();
+  static String overviewTitle(PluginDescriptor descriptor, String title) {
+    return title != null ? title : (descriptor.getName() + " Goals Documentation");
+  }
+
+  // Capitalize first letter of goal name for title
+  static String goalTitle(Goal goal) {
+    return goal.getName().substring(0, 1).toUpperCase()
+        + goal.getName().substring(1).replace("-", " ")
+        + " Goal";
+  }
+
+  // continuation lines stay inside the parameter's list item
+  private static void writeParameterText(String description, Appendable out) throws IOException {
+    writeParameterText(description, null, null, out);
+  }
+
+  private static void writeParameterText(
+      String description, NameLinker links, Goal goal, Appendable out) throws IOException {
+    HtmlMarkdown.appendSentence(description, PARAMETER_INDENT, links, goal, out);
+  }
+
+  static String shortType(Parameter param) {
+    String paramType = param.getType() != null ? param.getType() : "String";
+    return paramType.contains(".")
+        ? paramType.substring(paramType.lastIndexOf(".") + 1)
+        : paramType;
+  }
+
+  private static boolean isConfigurable(Parameter p) {
+    return p.isEditable()
+        && p.getType() != null
+        && !p.getType().equals("org.apache.maven.execution.MavenSession")
+        && !p.getType().equals("org.apache.maven.project.MavenProject");
+  }
+
+  static List<Parameter> configurableParameters(Goal goal) {
+    return goal.getParameters().stream().filter(MarkdownGenerator::isConfigurable).toList();
+  }
+
+  /** Context of overview templates: the descriptor and the configured title. */
+  public static final class Overview {
+    private final PluginDescriptor descriptor;
+    private final String title;
+
+    private Overview(PluginDescriptor descriptor, String title) {
+      this.descriptor = descriptor;
+      this.title = title;
+    }
   }
 }
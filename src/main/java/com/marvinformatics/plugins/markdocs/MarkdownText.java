@@ -0,0 +1,298 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.IOException;
+
+/**
+ * Writes descriptor text into markdown pages: escapes characters that would otherwise start
+ * emphasis, code spans, links or headings, and extracts the one-line summary of a description. Text
+ * is scanned once with a character class table and copied straight to the output in runs, without
+ * intermediate strings.
+ */
+final class MarkdownText {
+
+  /** Longest summary written to the overview, ellipsis included. */
+  static final int SUMMARY_LENGTH = 80;
+
+  private static final String ELLIPSIS = "...";
+
+  // character classes of ASCII characters; anything else is plain text
+  private static final byte PLAIN = 0;
+  private static final byte SPACE = 1; // blank inside a line
+  private static final byte NEWLINE = 2;
+  private static final byte ALWAYS = 3; // ` [ ] always escaped
+  private static final byte EMPHASIS = 4; // * _ escaped unless followed by a blank
+  private static final byte BACKSLASH = 5; // escaped before punctuation, where it would escape
+  private static final byte HASH = 6; // escaped at the start of a line
+  private static final byte PERIOD = 7;
+  private static final byte TERMINAL = 8; // ! ?
+  private static final byte PUNCTUATION = 9; // other ASCII punctuation
+
+  private static final byte[] CLASSES = new byte[128];
+
+  static {
+    for (char c = '!'; c <= '~'; c++) {
+      if (!Character.isLetterOrDigit(c)) {
+        CLASSES[c] = PUNCTUATION;
+      }
+    }
+    CLASSES[' '] = SPACE;
+    CLASSES['\t'] = SPACE;
+    CLASSES['\n'] = NEWLINE;
+    CLASSES['\r'] = NEWLINE;
+    CLASSES['`'] = ALWAYS;
+    CLASSES['['] = ALWAYS;
+    CLASSES[']'] = ALWAYS;
+    CLASSES['*'] = EMPHASIS;
+    CLASSES['_'] = EMPHASIS;
+    CLASSES['\\'] = BACKSLASH;
+    CLASSES['#'] = HASH;
+    CLASSES['.'] = PERIOD;
+    CLASSES['!'] = TERMINAL;
+    CLASSES['?'] = TERMINAL;
+  }
+
+  private MarkdownText() {}
+
+  /** Writes the text as is, escaped; line breaks and indentation are kept. */
+  static void appendEscaped(CharSequence text, Appendable out) throws IOException {
+    escape(text, 0, text.length(), false, out);
+  }
+
+  /** Writes the trimmed, escaped text, adding a period unless it already ends a sentence. */
+  static void appendSentence(CharSequence text, Appendable out) throws IOException {
+    int start = skipBlanks(text, 0);
+    int end = text.length();
+    while (end > start && isBlank(text.charAt(end - 1))) {
+      end--;
+    }
+    escape(text, start, end, false, out);
+    if (end == start || !endsSentence(text.charAt(end - 1))) {
+      out.append('.');
+    }
+  }
+
+  /**
+   * Writes the first sentence of the text on a single line, ended by its own punctuation. A period
+   * only ends the sentence when a blank or the end of the text follows and the word holds no other
+   * period, so {@code e.g.}, {@code 1.2.3} and {@code *.exec} do not. Sentences longer than {@code
+   * maxLength} are cut at the last word that fits, or at a character boundary that does not split a
+   * surrogate pair or a combining sequence, and end with an ellipsis instead.
+   */
+  static void appendSummary(CharSequence text, int maxLength, Appendable out) throws IOException {
+    appendSummary(text, maxLength, true, out);
+  }
+
+  /** Writes the summary of {@link #appendSummary} without escaping, for other output formats. */
+  static void appendPlainSummary(CharSequence text, int maxLength, Appendable out)
+      throws IOException {
+    appendSummary(text, maxLength, false, out);
+  }
+
+  private static void appendSummary(
+      CharSequence text, int maxLength, boolean escaped, Appendable out) throws IOException {
+    int length = text.length();
+    int start = skipBlanks(text, 0);
+    int limit = maxLength - ELLIPSIS.length();
+
+    int end = length;
+    int visible = 0; // characters written so far, runs of blanks counting as one
+    int fitEnd = -1; // end of the last word that fits with the ellipsis
+    int hardCut = -1; // where the ellipsis would go if no word fits
+    boolean inBlank = false;
+    boolean periodInWord = false;
+    boolean truncated = false;
+
+    for (int i = start; i < length; i++) {
+      char c = text.charAt(i);
+      byte type = c < 128 ? CLASSES[c] : PLAIN;
+
+      if (type == SPACE || type == NEWLINE) {
+        if (!inBlank && visible <= limit) {
+          fitEnd = i;
+        }
+        inBlank = true;
+        periodInWord = false;
+        continue;
+      }
+      if (inBlank) {
+        visible++;
+        inBlank = false;
+      }
+      visible++;
+      if (visible <= limit) {
+        hardCut = i + 1;
+      }
+      if (visible > maxLength) {
+        truncated = true;
+        break;
+      }
+
+      if (type == PERIOD || type == TERMINAL) {
+        boolean followedByBlank = i + 1 == length || isBlank(text.charAt(i + 1));
+        if (followedByBlank && (type == TERMINAL || !periodInWord)) {
+          end = i + 1;
+          break;
+        }
+        if (type == PERIOD) {
+          periodInWord = true;
+        }
+      }
+    }
+
+    if (!truncated) {
+      int trimmed = end;
+      while (trimmed > start && isBlank(text.charAt(trimmed - 1))) {
+        trimmed--;
+      }
+      appendRange(text, start, trimmed, escaped, out);
+      if (trimmed == start || !endsSentence(text.charAt(trimmed - 1))) {
+        out.append('.');
+      }
+      return;
+    }
+
+    int cut = fitEnd > start ? fitEnd : graphemeBoundary(text, start, hardCut);
+    while (cut > start && isTrailingPunctuation(text.charAt(cut - 1))) {
+      cut--;
+    }
+    appendRange(text, start, cut, escaped, out);
+    out.append(ELLIPSIS);
+  }
+
+  private static void appendRange(
+      CharSequence text, int start, int end, boolean escaped, Appendable out) throws IOException {
+    if (escaped) {
+      escape(text, start, end, true, out);
+    } else {
+      out.append(text, start, end);
+    }
+  }
+
+  /**
+   * Whether the character needs a backslash when written as text, given the character after it, or
+   * -1 at the end of the text, and whether it is the first one on its line.
+   */
+  static boolean needsEscape(char c, int next, boolean lineStart) {
+    if (c >= 128) {
+      return false;
+    }
+    switch (CLASSES[c]) {
+      case ALWAYS:
+        return true;
+      case EMPHASIS:
+        return next >= 0 && !isBlank((char) next);
+      case BACKSLASH:
+        return next >= 0 && isPunctuation((char) next);
+      case HASH:
+        return lineStart;
+      default:
+        return false;
+    }
+  }
+
+  private static void escape(
+      CharSequence text, int start, int end, boolean singleLine, Appendable out)
+      throws IOException {
+    int run = start;
+    boolean lineStart = true;
+
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      if (c >= 128) {
+        lineStart = false;
+        continue;
+      }
+
+      switch (CLASSES[c]) {
+        case SPACE:
+        case NEWLINE:
+          if (singleLine) {
+            out.append(text, run, i).append(' ');
+            while (i + 1 < end && isBlank(text.charAt(i + 1))) {
+              i++;
+            }
+            run = i + 1;
+          } else if (CLASSES[c] == NEWLINE) {
+            lineStart = true;
+          }
+          continue;
+        case ALWAYS:
+          out.append(text, run, i).append('\\');
+          run = i;
+          break;
+        case EMPHASIS:
+          if (i + 1 < end && !isBlank(text.charAt(i + 1))) {
+            out.append(text, run, i).append('\\');
+            run = i;
+          }
+          break;
+        case BACKSLASH:
+          if (i + 1 < end && isPunctuation(text.charAt(i + 1))) {
+            out.append(text, run, i).append('\\');
+            run = i;
+          }
+          break;
+        case HASH:
+          if (lineStart) {
+            out.append(text, run, i).append('\\');
+            run = i;
+          }
+          break;
+        default:
+          break;
+      }
+      lineStart = false;
+    }
+    out.append(text, run, end);
+  }
+
+  // steps back from a cut position so it never lands inside a surrogate pair or before a mark
+  private static int graphemeBoundary(CharSequence text, int start, int cut) {
+    while (cut > start && cut < text.length()) {
+      char c = text.charAt(cut);
+      char previous = text.charAt(cut - 1);
+      boolean inside =
+          Character.isLowSurrogate(c)
+              || isExtending(Character.codePointAt(text, cut))
+              || previous == '\u200d';
+      if (!inside) {
+        break;
+      }
+      cut--;
+    }
+    return cut;
+  }
+
+  private static boolean isExtending(int codePoint) {
+    int type = Character.getType(codePoint);
+    return type == Character.NON_SPACING_MARK
+        || type == Character.ENCLOSING_MARK
+        || type == Character.COMBINING_SPACING_MARK
+        || codePoint == 0x200d
+        || (codePoint >= 0xfe00 && codePoint <= 0xfe0f)
+        || (codePoint >= 0x1f3fb && codePoint <= 0x1f3ff);
+  }
+
+  private static int skipBlanks(CharSequence text, int index) {
+    while (index < text.length() && isBlank(text.charAt(index))) {
+      index++;
+    }
+    return index;
+  }
+
+  private static boolean isBlank(char c) {
+    return c < 128 && (CLASSES[c] == SPACE || CLASSES[c] == NEWLINE);
+  }
+
+  private static boolean isPunctuation(char c) {
+    return c < 128 && CLASSES[c] >= ALWAYS;
+  }
+
+  private static boolean endsSentence(char c) {
+    return c < 128 && (CLASSES[c] == PERIOD || CLASSES[c] == TERMINAL);
+  }
+
+  private static boolean isTrailingPunctuation(char c) {
+    return isBlank(c) || c == ',' || c == ';' || c == ':' || c == '-' || c == '(';
+  }
+}
@@ -0,0 +1,15 @@
+package com.marvinformatics.plugins.markdocs;
+
+/**
+ * Type names, phases, default expressions and parameter names repeat across goals and plugins, so
+ * the model keeps a single canonical copy of each. The JVM string table is used rather than a map
+ * of our own so that entries are collected once no descriptor refers to them.
+ */
+final class ModelStrings {
+
+  private ModelStrings() {}
+
+  static String intern(String value) {
+    return value != null ? value.intern() : null;
+  }
+}
@@ -0,0 +1,642 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Models a plugin from its compiled mojo classes, for when {@code plugin.xml} was not generated yet
+ * or is older than the classes. The {@code @Mojo} and {@code @Parameter} annotations are kept in
+ * the class files, so every class file is read at the bytecode level, concurrently on the pool,
+ * without loading it. Parameters declared in superclasses within the directory are inherited.
+ *
+ * <p>Javadoc is not compiled into classes, so the goals and parameters have no descriptions. With a
+ * state directory, what was read from each class file is kept between scans, and a class file with
+ * the recorded size and modification time, or failing that content hash, is not read again.
+ */
+public class MojoClassScanner {
+
+  private static final int MAGIC = 0x4d444353; // "MDCS"
+
+  /** Bump whenever the layout changes, so old state is read again. */
+  private static final int FORMAT_VERSION = 1;
+
+  private static final int CLASS_MAGIC = 0xcafebabe;
+  private static final int ACC_ABSTRACT = 0x0400;
+  private static final int ACC_INTERFACE = 0x0200;
+
+  private static final String ANNOTATIONS = "Lorg/apache/maven/plugins/annotations/";
+  private static final String MOJO = ANNOTATIONS + "Mojo;";
+  private static final String PARAMETER = ANNOTATIONS + "Parameter;";
+
+  private final File classesDirectory;
+  private final PluginDescriptor plugin;
+  private final ForkJoinPool pool;
+  private File stateDirectory;
+  private final AtomicInteger read = new AtomicInteger();
+  private final AtomicInteger skipped = new AtomicInteger();
+
+  /**
+   * @param plugin groupId, artifactId, version, name and description of the plugin, which are not
+   *     in its classes; its goals are ignored
+   */
+  public MojoClassScanner(File classesDirectory, PluginDescriptor plugin, ForkJoinPool pool) {
+    this.classesDirectory = classesDirectory;
+    this.plugin = plugin;
+    this.pool = pool;
+  }
+
+  /** Where to keep what was read from each class file between scans, {@code null} to not. */
+  public void setStateDirectory(File stateDirectory) {
+    this.stateDirectory = stateDirectory;
+  }
+
+  public File getClassesDirectory() {
+    return classesDirectory;
+  }
+
+  /** Class files read during the scans so far. */
+  public int getRead() {
+    return read.get();
+  }
+
+  /** Class files whose bytes had not changed since the previous scan, so they were not read. */
+  public int getSkipped() {
+    return skipped.get();
+  }
+
+  /** Modification time of the newest class file, 0 when there is none. */
+  public long lastModified() throws IOException {
+    long newest = 0;
+    for (Path file : classFiles()) {
+      newest = Math.max(newest, file.toFile().lastModified());
+    }
+    return newest;
+  }
+
+  /** Size in bytes of all class files. */
+  public long size() throws IOException {
+    long size = 0;
+    for (Path file : classFiles()) {
+      size += file.toFile().length();
+    }
+    return size;
+  }
+
+  /** Feeds the plugin and the path, size and modification time of every class file in. */
+  public void digest(MessageDigest digest) throws IOException {
+    GenerationManifest.update(digest, plugin.getGroupId());
+    GenerationManifest.update(digest, plugin.getArtifactId());
+    GenerationManifest.update(digest, plugin.getVersion());
+    GenerationManifest.update(digest, plugin.getName());
+    GenerationManifest.update(digest, plugin.getDescription());
+    for (Path file : classFiles()) {
+      GenerationManifest.update(digest, relativePath(file));
+      File classFile = file.toFile();
+      GenerationManifest.update(digest, classFile.length() + ":" + classFile.lastModified());
+    }
+  }
+
+  /**
+   * Reads the class files and hands every goal to the listener, in goal name order like {@code
+   * plugin.xml}, once all classes are read: a goal may inherit parameters from any of them.
+   */
+  public PluginDescriptor scan(GoalFilter filter, PluginDescriptorParser.GoalListener listener)
+      throws Exception {
+    List<Path> files = classFiles();
+    Map<String, ClassState> previous = readState();
+
+    List<ForkJoinTask<ClassState>> tasks = new ArrayList<>(files.size());
+    for (Path file : files) {
+      ClassState known = previous.get(relativePath(file));
+      tasks.add(pool.submit(() -> load(file, known)));
+    }
+    List<ClassState> classes = new ArrayList<>(files.size());
+    for (ForkJoinTask<ClassState> task : tasks) {
+      classes.add(task.join());
+    }
+    writeState(classes);
+
+    Map<String, ClassInfo> byName = new HashMap<>();
+    for (ClassState state : classes) {
+      byName.put(state.info.name, state.info);
+    }
+    List<Goal> goals = new ArrayList<>();
+    for (ClassState state : classes) {
+      ClassInfo info = state.info;
+      if (info.goal != null && !info.isAbstract && filter.accepts(info.goal)) {
+        goals.add(goal(info, byName));
+      }
+    }
+    goals.sort(Comparator.comparing(Goal::getName));
+
+    PluginDescriptor.Builder descriptor =
+        PluginDescriptor.builder()
+            .groupId(plugin.getGroupId())
+            .artifactId(plugin.getArtifactId())
+            .version(plugin.getVersion())
+            .name(plugin.getName())
+            .description(plugin.getDescription());
+    for (Goal goal : goals) {
+      descriptor.addGoal(goal);
+      listener.goalParsed(goal);
+    }
+    return descriptor.build();
+  }
+
+  // own parameters first, so a field hides one of the same name in a superclass
+  private static Goal goal(ClassInfo mojo, Map<String, ClassInfo> classes) {
+    List<Parameter> parameters = new ArrayList<>();
+    Set<String> names = new HashSet<>();
+    Set<String> visited = new HashSet<>();
+    for (ClassInfo type = mojo;
+        type != null && visited.add(type.name);
+        type = type.superName != null ? classes.get(type.superName) : null) {
+      for (Parameter parameter : type.parameters) {
+        if (names.add(parameter.getName())) {
+          parameters.add(parameter);
+        }
+      }
+    }
+    parameters.sort(Comparator.comparing(Parameter::getName));
+
+    Goal.Builder goal =
+        Goal.builder()
+            .name(mojo.goal)
+            .phase(mojo.phase)
+            .implementation(mojo.name.replace('/', '.'));
+    parameters.forEach(goal::addParameter);
+    return goal.build();
+  }
+
+  private List<Path> classFiles() throws IOException {
+    if (!classesDirectory.isDirectory()) {
+      return List.of();
+    }
+    try (Stream<Path> files = Files.walk(classesDirectory.toPath())) {
+      return files
+          .filter(file -> file.getFileName().toString().endsWith(".class"))
+          .filter(Files::isRegularFile)
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  private String relativePath(Path file) {
+    return classesDirectory.toPath().relativize(file).toString().replace(File.separatorChar, '/');
+  }
+
+  // stat before reading, so a change made while reading is seen by the next scan
+  private ClassState load(Path file, ClassState known) throws IOException {
+    File classFile = file.toFile();
+    long size = classFile.length();
+    long lastModified = classFile.lastModified();
+    String path = relativePath(file);
+    if (known != null && known.size == size && known.lastModified == lastModified) {
+      skipped.incrementAndGet();
+      return known;
+    }
+    byte[] bytes = Files.readAllBytes(file);
+    String contentHash = GenerationManifest.hash(bytes);
+    if (known != null && known.contentHash.equals(contentHash)) {
+      skipped.incrementAndGet();
+      return new ClassState(path, size, lastModified, contentHash, known.info);
+    }
+    read.incrementAndGet();
+    try {
+      return new ClassState(path, size, lastModified, contentHash, new ClassReader(bytes).read());
+    } catch (RuntimeException e) {
+      throw new IOException("Malformed class file " + file, e);
+    }
+  }
+
+  // --- state kept between scans
+
+  private File stateFile() {
+    byte[] key = classesDirectory.getAbsolutePath().getBytes(StandardCharsets.UTF_8);
+    return new File(stateDirectory, GenerationManifest.hash(key) + ".classes");
+  }
+
+  // missing, truncated or foreign state means every class file is read
+  private Map<String, ClassState> readState() {
+    Map<String, ClassState> states = new HashMap<>();
+    if (stateDirectory == null || !stateFile().isFile()) {
+      return states;
+    }
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(stateFile().toPath())))) {
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+        return states;
+      }
+      for (int i = in.readInt(); i > 0; i--) {
+        String path = in.readUTF();
+        long size = in.readLong();
+        long lastModified = in.readLong();
+        String contentHash = in.readUTF();
+        ClassInfo info = new ClassInfo(in.readUTF(), readString(in));
+        info.isAbstract = in.readBoolean();
+        info.goal = readString(in);
+        info.phase = readString(in);
+        for (int j = in.readInt(); j > 0; j--) {
+          Parameter.Builder parameter = Parameter.builder().name(in.readUTF()).type(in.readUTF());
+          parameter.defaultValue(readString(in));
+          int flags = in.readUnsignedByte();
+          parameter.required((flags & 1) != 0).editable((flags & 2) != 0);
+          info.parameters.add(parameter.build());
+        }
+        states.put(path, new ClassState(path, size, lastModified, contentHash, info));
+      }
+      return states;
+    } catch (IOException | RuntimeException e) {
+      return new HashMap<>();
+    }
+  }
+
+  // written to a temporary file first, so concurrent builds never read half-written state
+  private void writeState(List<ClassState> classes) throws IOException {
+    if (stateDirectory == null) {
+      return;
+    }
+    Path dir = stateDirectory.toPath();
+    Files.createDirectories(dir);
+    File file = stateFile();
+    Path temp = Files.createTempFile(dir, file.getName(), ".tmp");
+    try {
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(classes.size());
+        for (ClassState state : classes) {
+          out.writeUTF(state.path);
+          out.writeLong(state.size);
+          out.writeLong(state.lastModified);
+          out.writeUTF(state.contentHash);
+          ClassInfo info = state.info;
+          out.writeUTF(info.name);
+          writeString(out, info.superName);
+          out.writeBoolean(info.isAbstract);
+          writeString(out, info.goal);
+          writeString(out, info.phase);
+          out.writeInt(info.parameters.size());
+          for (Parameter parameter : info.parameters) {
+            out.writeUTF(parameter.getName());
+            out.writeUTF(parameter.getType());
+            writeString(out, parameter.getDefaultValue());
+            out.writeByte((parameter.isRequired() ? 1 : 0) | (parameter.isEditable() ? 2 : 0));
+          }
+        }
+      }
+      try {
+        Files.move(
+            temp,
+            file.toPath(),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static final class ClassState {
+    private final String path;
+    private final long size;
+    private final long lastModified;
+    private final String contentHash;
+    private final ClassInfo info;
+
+    private ClassState(
+        String path, long size, long lastModified, String contentHash, ClassInfo info) {
+      this.path = path;
+      this.size = size;
+      this.lastModified = lastModified;
+      this.contentHash = contentHash;
+      this.info = info;
+    }
+  }
+
+  /** What a class contributes: its goal, if it is a mojo, and its own parameters. */
+  private static final class ClassInfo {
+    private final String name;
+    private final String superName;
+    private boolean isAbstract;
+    private String goal;
+    private String phase;
+    private final List<Parameter> parameters = new ArrayList<>();
+
+    private ClassInfo(String name, String superName) {
+      this.name = name;
+      this.superName = superName;
+    }
+  }
+
+  /**
+   * Reads the class name, superclass, and the {@code @Mojo} and {@code @Parameter} annotations of a
+   * class file, skipping everything else by its length. Strings of the constant pool are only
+   * decoded when used.
+   */
+  private static final class ClassReader {
+    private final byte[] bytes;
+    private int[] offsets;
+    private String[] strings;
+    private int position;
+
+    private ClassReader(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    private ClassInfo read() {
+      if (readInt() != CLASS_MAGIC) {
+        throw new IllegalArgumentException("Not a class file");
+      }
+      position += 4; // minor and major version
+      readConstantPool();
+
+      int access = readUnsignedShort();
+      String name = className(readUnsignedShort());
+      int superClass = readUnsignedShort();
+      ClassInfo info = new ClassInfo(name, superClass == 0 ? null : className(superClass));
+      info.isAbstract = (access & (ACC_ABSTRACT | ACC_INTERFACE)) != 0;
+      int interfaces = readUnsignedShort();
+      position += 2 * interfaces;
+
+      for (int fields = readUnsignedShort(); fields > 0; fields--) {
+        position += 2; // access flags
+        String fieldName = utf8(readUnsignedShort());
+        String descriptor = utf8(readUnsignedShort());
+        for (int attributes = readUnsignedShort(); attributes > 0; attributes--) {
+          String attribute = utf8(readUnsignedShort());
+          int end = readInt() + position;
+          if (isAnnotations(attribute)) {
+            for (int annotations = readUnsignedShort(); annotations > 0; annotations--) {
+              Map<String, Object> values = new HashMap<>();
+              if (PARAMETER.equals(readAnnotation(values))) {
+                info.parameters.add(parameter(fieldName, descriptor, values));
+              }
+            }
+          }
+          position = end;
+        }
+      }
+      for (int methods = readUnsignedShort(); methods > 0; methods--) {
+        position += 6; // access flags, name and descriptor
+        skipAttributes();
+      }
+      for (int attributes = readUnsignedShort(); attributes > 0; attributes--) {
+        String attribute = utf8(readUnsignedShort());
+        int end = readInt() + position;
+        if (isAnnotations(attribute)) {
+          for (int annotations = readUnsignedShort(); annotations > 0; annotations--) {
+            Map<String, Object> values = new HashMap<>();
+            if (MOJO.equals(readAnnotation(values))) {
+              info.goal = (String) values.get("name");
+              info.phase = phase((String) values.get("defaultPhase"));
+            }
+          }
+        }
+        position = end;
+      }
+      return info;
+    }
+
+    private static Parameter parameter(
+        String field, String descriptor, Map<String, Object> values) {
+      String name = (String) values.get("name");
+      String defaultValue = (String) values.get("defaultValue");
+      return Parameter.builder()
+          .name(name != null && !name.isEmpty() ? name : field)
+          .type(typeName(descriptor))
+          .defaultValue(defaultValue != null && !defaultValue.isEmpty() ? defaultValue : null)
+          .required(Boolean.TRUE.equals(values.get("required")))
+          .editable(!Boolean.TRUE.equals(values.get("readonly")))
+          .build();
+    }
+
+    // LifecyclePhase.PROCESS_CLASSES is the process-classes phase; NONE binds to none
+    private static String phase(String constant) {
+      if (constant == null || constant.equals("NONE")) {
+        return null;
+      }
+      return constant.toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    private static String typeName(String descriptor) {
+      int dimensions = 0;
+      while (descriptor.charAt(dimensions) == '[') {
+        dimensions++;
+      }
+      String element;
+      switch (descriptor.charAt(dimensions)) {
+        case 'Z':
+          element = "boolean";
+          break;
+        case 'B':
+          element = "byte";
+          break;
+        case 'C':
+          element = "char";
+          break;
+        case 'S':
+          element = "short";
+          break;
+        case 'I':
+          element = "int";
+          break;
+        case 'J':
+          element = "long";
+          break;
+        case 'F':
+          element = "float";
+          break;
+        case 'D':
+          element = "double";
+          break;
+        default:
+          element = descriptor.substring(dimensions + 1, descriptor.length() - 1).replace('/', '.');
+          break;
+      }
+      return element + "[]".repeat(dimensions);
+    }
+
+    private static boolean isAnnotations(String attribute) {
+      // @Mojo and @Parameter are kept in the class file only, but read either kind
+      return attribute.equals("RuntimeInvisibleAnnotations")
+          || attribute.equals("RuntimeVisibleAnnotations");
+    }
+
+    private void readConstantPool() {
+      int count = readUnsignedShort();
+      offsets = new int[count];
+      strings = new String[count];
+      for (int i = 1; i < count; i++) {
+        offsets[i] = position;
+        int tag = bytes[position++] & 0xff;
+        switch (tag) {
+          case 1: // Utf8
+            position += 2 + readUnsignedShort(position);
+            break;
+          case 3: // Integer
+          case 4: // Float
+          case 9: // Fieldref
+          case 10: // Methodref
+          case 11: // InterfaceMethodref
+          case 12: // NameAndType
+          case 17: // Dynamic
+          case 18: // InvokeDynamic
+            position += 4;
+            break;
+          case 5: // Long
+          case 6: // Double
+            position += 8;
+            i++;
+            break;
+          case 7: // Class
+          case 8: // String
+          case 16: // MethodType
+          case 19: // Module
+          case 20: // Package
+            position += 2;
+            break;
+          case 15: // MethodHandle
+            position += 3;
+            break;
+          default:
+            throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+        }
+      }
+    }
+
+    // reads one annotation into values; returns its type descriptor
+    private String readAnnotation(Map<String, Object> values) {
+      String type = utf8(readUnsignedShort());
+      for (int pairs = readUnsignedShort(); pairs > 0; pairs--) {
+        String name = utf8(readUnsignedShort());
+        Object value = readElementValue();
+        if (values != null) {
+          values.put(name, value);
+        }
+      }
+      return type;
+    }
+
+    // constants, the names of enum constants and the like; nested values are skipped
+    private Object readElementValue() {
+      char tag = (char) (bytes[position++] & 0xff);
+      switch (tag) {
+        case 's':
+          return utf8(readUnsignedShort());
+        case 'Z':
+          return readInt(offsets[readUnsignedShort()] + 1) != 0;
+        case 'B':
+        case 'C':
+        case 'D':
+        case 'F':
+        case 'I':
+        case 'J':
+        case 'S':
+        case 'c':
+          position += 2;
+          return null;
+        case 'e':
+          position += 2; // the enum type
+          return utf8(readUnsignedShort());
+        case '@':
+          readAnnotation(null);
+          return null;
+        case '[':
+          for (int values = readUnsignedShort(); values > 0; values--) {
+            readElementValue();
+          }
+          return null;
+        default:
+          throw new IllegalArgumentException("Unknown annotation element tag " + tag);
+      }
+    }
+
+    private void skipAttributes() {
+      for (int attributes = readUnsignedShort(); attributes > 0; attributes--) {
+        position += 2;
+        int length = readInt();
+        position += length;
+      }
+    }
+
+    private String className(int index) {
+      return utf8(readUnsignedShort(offsets[index] + 1));
+    }
+
+    // modified UTF-8, as DataInput reads it
+    private String utf8(int index) {
+      String value = strings[index];
+      if (value == null) {
+        int offset = offsets[index] + 1;
+        int length = readUnsignedShort(offset);
+        try {
+          value =
+              new DataInputStream(new ByteArrayInputStream(bytes, offset, length + 2)).readUTF();
+        } catch (IOException e) {
+          throw new IllegalArgumentException("Malformed constant " + index, e);
+        }
+        strings[index] = value;
+      }
+      return value;
+    }
+
+    private int readUnsignedShort() {
+      int value = readUnsignedShort(position);
+      position += 2;
+      return value;
+    }
+
+    private int readUnsignedShort(int offset) {
+      return ((bytes[offset] & 0xff) << 8) | (bytes[offset + 1] & 0xff);
+    }
+
+    private int readInt() {
+      int value = readInt(position);
+      position += 4;
+      return value;
+    }
+
+    private int readInt(int offset) {
+      return (readUnsignedShort(offset) << 16) | readUnsignedShort(offset + 2);
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Maps names to positions in an immutable list: an open-addressing table of positions, built once.
+ * It holds no keys or boxed values of its own, names are read back from the list elements.
+ */
+final class NameIndex {
+
+  private static final NameIndex EMPTY = new NameIndex(new int[0]);
+
+  // position + 1 of an element, 0 for a free slot
+  private final int[] slots;
+
+  private NameIndex(int[] slots) {
+    this.slots = slots;
+  }
+
+  static <T> NameIndex of(List<T> elements, Function<? super T, String> nameOf) {
+    if (elements.isEmpty()) {
+      return EMPTY;
+    }
+    // at most half full, so probe sequences stay short
+    int[] slots = new int[Integer.highestOneBit(elements.size() * 2 - 1) << 1];
+    int mask = slots.length - 1;
+    for (int i = 0; i < elements.size(); i++) {
+      String name = nameOf.apply(elements.get(i));
+      if (name == null) {
+        continue;
+      }
+      int slot = spread(name.hashCode()) & mask;
+      while (slots[slot] != 0 && !name.equals(nameOf.apply(elements.get(slots[slot] - 1)))) {
+        slot = (slot + 1) & mask;
+      }
+      // the first element with a name wins
+      if (slots[slot] == 0) {
+        slots[slot] = i + 1;
+      }
+    }
+    return new NameIndex(slots);
+  }
+
+  <T> int indexOf(List<T> elements, Function<? super T, String> nameOf, String name) {
+    if (name == null || slots.length == 0) {
+      return -1;
+    }
+    int mask = slots.length - 1;
+    int slot = spread(name.hashCode()) & mask;
+    while (slots[slot] != 0) {
+      int index = slots[slot] - 1;
+      if (name.equals(nameOf.apply(elements.get(index)))) {
+        return index;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+}
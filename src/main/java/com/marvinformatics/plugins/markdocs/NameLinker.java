@@ -0,0 +1,356 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the goal and parameter names of one descriptor in descriptions, to link them to their pages
+ * and parameter anchors. All names go into one Aho-Corasick automaton, built once per descriptor,
+ * so a description is scanned once in time linear in its length and the matches, however many names
+ * the descriptor has.
+ *
+ * <p>A name matches as a whole word, the longest one first where names overlap. A parameter name
+ * links to the parameter of the goal being documented, or else to the one goal having a parameter
+ * of that name. In running text only names that cannot be ordinary words link, those with a dash,
+ * an underscore, a digit or an inner capital such as {@code haltOnFailure}; a code span holding
+ * exactly a name always does.
+ */
+public final class NameLinker {
+
+  private static final int ROOT = 0;
+  private static final int NO_GOAL = -1;
+  private static final int AMBIGUOUS = -2;
+
+  private final List<Goal> goals;
+  private final String[] names;
+  // per name: the goal named so, and the goal owning a parameter named so, NO_GOAL or AMBIGUOUS
+  private final int[] goalOf;
+  private final int[] parameterOwner;
+  private final boolean[] inText;
+  private final String key;
+
+  // trie transitions, keyed by state << 16 | character in an open-addressing table
+  private long[] transitionKeys = new long[64];
+  private int[] transitionTargets = new int[64];
+  private int transitionCount;
+
+  private int stateCount = 1;
+  private int[] fail = new int[16];
+  // name ending at the state, the nearest state on the failure chain ending a name, or -1
+  private int[] output = new int[16];
+  private int[] dictionary = new int[16];
+  private int[] depth = new int[16];
+  private int[] firstChild = new int[16];
+  private int[] nextSibling = new int[16];
+
+  private NameLinker(PluginDescriptor descriptor) {
+    this.goals = descriptor.getGoals();
+    Map<String, Integer> ids = new HashMap<>();
+    int[] goalOf = grow(new int[0], 15);
+    int[] parameterOwner = grow(new int[0], 15);
+    MessageDigest digest = GenerationManifest.newDigest();
+    Arrays.fill(output, -1);
+    Arrays.fill(firstChild, -1);
+
+    for (int g = 0; g < goals.size(); g++) {
+      Goal goal = goals.get(g);
+      GenerationManifest.update(digest, goal.getName());
+      int id = add(goal.getName(), ids);
+      if (id >= 0) {
+        if (id >= goalOf.length) {
+          goalOf = grow(goalOf, id);
+          parameterOwner = grow(parameterOwner, id);
+        }
+        if (goalOf[id] == NO_GOAL) {
+          goalOf[id] = g;
+        }
+      }
+      for (Parameter parameter : goal.getParameters()) {
+        GenerationManifest.update(digest, parameter.getName());
+        id = add(parameter.getName(), ids);
+        if (id < 0) {
+          continue;
+        }
+        if (id >= goalOf.length) {
+          goalOf = grow(goalOf, id);
+          parameterOwner = grow(parameterOwner, id);
+        }
+        int owner = parameterOwner[id];
+        parameterOwner[id] = owner == NO_GOAL || owner == g ? g : AMBIGUOUS;
+      }
+    }
+
+    this.names = new String[ids.size()];
+    this.inText = new boolean[ids.size()];
+    ids.forEach(
+        (name, id) -> {
+          names[id] = name;
+          inText[id] = isIdentifier(name);
+        });
+    this.goalOf = Arrays.copyOf(goalOf, names.length);
+    this.parameterOwner = Arrays.copyOf(parameterOwner, names.length);
+    this.key = GenerationManifest.toHex(digest.digest());
+    buildFailureLinks();
+  }
+
+  /** Links no names; pages written with it still get the anchors that links point at. */
+  public static final NameLinker NONE = of(PluginDescriptor.builder().build());
+
+  public static NameLinker of(PluginDescriptor descriptor) {
+    return new NameLinker(descriptor);
+  }
+
+  /** Changes whenever a link could point elsewhere, i.e. with any goal or parameter name. */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * The names to link in a description on the page of {@code page}, a goal of this descriptor:
+   * ascending and not overlapping, each with its link target. The goal's own name is not linked.
+   */
+  Matches find(CharSequence text, Goal page) {
+    Matches matches = new Matches();
+    int state = ROOT;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      int next;
+      while ((next = transition(state, c)) < 0 && state != ROOT) {
+        state = fail[state];
+      }
+      state = Math.max(next, ROOT);
+      if (i + 1 < text.length() && isWordCharacter(text.charAt(i + 1))) {
+        continue;
+      }
+      // the deepest state first, so the longest name ending here wins
+      for (int s = output[state] >= 0 ? state : dictionary[state]; s > ROOT; s = dictionary[s]) {
+        int start = i + 1 - depth[s];
+        if (start > 0 && isWordCharacter(text.charAt(start - 1))) {
+          continue;
+        }
+        String target = target(output[s], page);
+        if (target != null) {
+          matches.add(start, i + 1, target, inText[output[s]]);
+          break;
+        }
+      }
+    }
+    return matches;
+  }
+
+  private String target(int name, Goal page) {
+    String value = names[name];
+    if (page != null && page.getParameter(value) != null) {
+      return "#" + value;
+    }
+    if (goalOf[name] >= 0) {
+      return page != null && page.getName().equals(value) ? null : value + ".md";
+    }
+    int owner = parameterOwner[name];
+    if (owner >= 0 && goals.get(owner) != page) {
+      return goals.get(owner).getName() + ".md#" + value;
+    }
+    return null;
+  }
+
+  // --- the automaton
+
+  private int add(String name, Map<String, Integer> ids) {
+    if (name == null || name.isEmpty()) {
+      return -1;
+    }
+    Integer known = ids.get(name);
+    if (known != null) {
+      return known;
+    }
+    int id = ids.size();
+    ids.put(name, id);
+
+    int state = ROOT;
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      int next = transition(state, c);
+      if (next < 0) {
+        next = newState(state, depth[state] + 1);
+        putTransition(state, c, next);
+      }
+      state = next;
+    }
+    output[state] = id;
+    return id;
+  }
+
+  private int newState(int parent, int stateDepth) {
+    if (stateCount == fail.length) {
+      int capacity = stateCount * 2;
+      fail = Arrays.copyOf(fail, capacity);
+      depth = Arrays.copyOf(depth, capacity);
+      dictionary = Arrays.copyOf(dictionary, capacity);
+      nextSibling = Arrays.copyOf(nextSibling, capacity);
+      output = Arrays.copyOf(output, capacity);
+      firstChild = Arrays.copyOf(firstChild, capacity);
+      Arrays.fill(output, stateCount, capacity, -1);
+      Arrays.fill(firstChild, stateCount, capacity, -1);
+    }
+    int state = stateCount++;
+    depth[state] = stateDepth;
+    nextSibling[state] = firstChild[parent];
+    firstChild[parent] = state;
+    return state;
+  }
+
+  // breadth first, so the failure link of a state is set before any deeper state needs it
+  private void buildFailureLinks() {
+    int[] queue = new int[stateCount];
+    char[] labels = new char[stateCount];
+    for (int i = 0; i < transitionKeys.length; i++) {
+      if (transitionTargets[i] > 0) {
+        labels[transitionTargets[i]] = (char) transitionKeys[i];
+      }
+    }
+    int head = 0;
+    int tail = 0;
+    dictionary[ROOT] = -1;
+    for (int child = firstChild[ROOT]; child >= 0; child = nextSibling[child]) {
+      fail[child] = ROOT;
+      dictionary[child] = -1;
+      queue[tail++] = child;
+    }
+    while (head < tail) {
+      int state = queue[head++];
+      for (int child = firstChild[state]; child >= 0; child = nextSibling[child]) {
+        char c = labels[child];
+        int f = fail[state];
+        int next;
+        while ((next = transition(f, c)) < 0 && f != ROOT) {
+          f = fail[f];
+        }
+        fail[child] = Math.max(next, ROOT);
+        int suffix = fail[child];
+        dictionary[child] = output[suffix] >= 0 ? suffix : dictionary[suffix];
+        queue[tail++] = child;
+      }
+    }
+  }
+
+  private int transition(int state, char c) {
+    long key = (long) state << 16 | c;
+    int mask = transitionKeys.length - 1;
+    int slot = spread(key) & mask;
+    while (transitionTargets[slot] != 0) {
+      if (transitionKeys[slot] == key) {
+        return transitionTargets[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  // targets are never the root, so 0 marks a free slot
+  private void putTransition(int state, char c, int target) {
+    if (transitionCount * 2 >= transitionKeys.length) {
+      long[] oldKeys = transitionKeys;
+      int[] oldTargets = transitionTargets;
+      transitionKeys = new long[oldKeys.length * 2];
+      transitionTargets = new int[oldKeys.length * 2];
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldTargets[i] != 0) {
+          insert(oldKeys[i], oldTargets[i]);
+        }
+      }
+    }
+    insert((long) state << 16 | c, target);
+    transitionCount++;
+  }
+
+  private void insert(long key, int target) {
+    int mask = transitionKeys.length - 1;
+    int slot = spread(key) & mask;
+    while (transitionTargets[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    transitionKeys[slot] = key;
+    transitionTargets[slot] = target;
+  }
+
+  private static int spread(long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  private static int[] grow(int[] values, int index) {
+    int[] grown = Arrays.copyOf(values, Math.max(values.length * 2, index + 1));
+    Arrays.fill(grown, values.length, grown.length, NO_GOAL);
+    return grown;
+  }
+
+  // names that are no ordinary word: a dash, underscore or digit, or a capital after the start
+  private static boolean isIdentifier(String name) {
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (c == '-' || c == '_' || Character.isDigit(c) || (i > 0 && Character.isUpperCase(c))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isWordCharacter(char c) {
+    return Character.isLetterOrDigit(c) || c == '-' || c == '_';
+  }
+
+  /** Matches in ascending order, where a longer match replaces the shorter ones it overlaps. */
+  static final class Matches {
+    private int[] starts = new int[4];
+    private int[] ends = new int[4];
+    private String[] targets = new String[4];
+    private boolean[] inText = new boolean[4];
+    private int size;
+
+    // matches arrive by ascending end; one starting at or before the last replaces it, one
+    // starting inside it is dropped
+    private void add(int start, int end, String target, boolean text) {
+      while (size > 0 && start <= starts[size - 1]) {
+        size--;
+      }
+      if (size > 0 && start < ends[size - 1]) {
+        return;
+      }
+      if (size == starts.length) {
+        starts = Arrays.copyOf(starts, size * 2);
+        ends = Arrays.copyOf(ends, size * 2);
+        targets = Arrays.copyOf(targets, size * 2);
+        inText = Arrays.copyOf(inText, size * 2);
+      }
+      starts[size] = start;
+      ends[size] = end;
+      targets[size] = target;
+      inText[size] = text;
+      size++;
+    }
+
+    int size() {
+      return size;
+    }
+
+    int start(int match) {
+      return starts[match];
+    }
+
+    int end(int match) {
+      return ends[match];
+    }
+
+    String target(int match) {
+      return targets[match];
+    }
+
+    /** Whether the match links in running text, not only as a whole code span. */
+    boolean inText(int match) {
+      return inText[match];
+    }
+  }
+}
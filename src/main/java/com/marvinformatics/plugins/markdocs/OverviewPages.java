@@ -0,0 +1,182 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * How the overview of a plugin with many goals is split: goals grouped by their lifecycle phase or
+ * name prefix, and cut into pages of at most a given number of goals. The goals are sorted once,
+ * when the pages are laid out; each page is then a view of that order, so every page can be
+ * rendered and written on its own.
+ */
+public final class OverviewPages {
+
+  public enum GroupBy {
+    /** The goals in descriptor order, without headings. */
+    NONE,
+    /** By default phase, in lifecycle order; goals bound to no phase come last. */
+    PHASE,
+    /** By the part of the goal name before the first dash, e.g. {@code check} of check-project. */
+    PREFIX
+  }
+
+  // the clean, default and site lifecycles, in the order they run
+  private static final List<String> PHASES =
+      List.of(
+          "pre-clean",
+          "clean",
+          "post-clean",
+          "validate",
+          "initialize",
+          "generate-sources",
+          "process-sources",
+          "generate-resources",
+          "process-resources",
+          "compile",
+          "process-classes",
+          "generate-test-sources",
+          "process-test-sources",
+          "generate-test-resources",
+          "process-test-resources",
+          "test-compile",
+          "process-test-classes",
+          "test",
+          "prepare-package",
+          "package",
+          "pre-integration-test",
+          "integration-test",
+          "post-integration-test",
+          "verify",
+          "install",
+          "deploy",
+          "pre-site",
+          "site",
+          "post-site",
+          "site-deploy");
+
+  private final GroupBy groupBy;
+  private final int pageSize;
+  private final List<Goal> goals;
+  private final String[] groups;
+
+  private OverviewPages(GroupBy groupBy, int pageSize, List<Goal> goals) {
+    this.groupBy = groupBy;
+    this.pageSize = pageSize;
+    this.goals = goals;
+    this.groups = new String[goals.size()];
+    for (int i = 0; i < groups.length; i++) {
+      groups[i] = group(goals.get(i));
+    }
+  }
+
+  /**
+   * @param pageSize goals per page, 0 or less for a single page
+   */
+  public static OverviewPages of(List<Goal> goals, GroupBy groupBy, int pageSize) {
+    List<Goal> ordered = new ArrayList<>(goals);
+    // stable, so the goals of a group keep their descriptor order
+    if (groupBy == GroupBy.PHASE) {
+      ordered.sort(
+          Comparator.comparingInt((Goal goal) -> phaseRank(goal.getPhase()))
+              .thenComparing(OverviewPages::phase));
+    } else if (groupBy == GroupBy.PREFIX) {
+      ordered.sort(Comparator.comparing(OverviewPages::prefix));
+    }
+    return new OverviewPages(groupBy, Math.max(0, pageSize), ordered);
+  }
+
+  /** Whether this is the plain overview: every goal on one page, without headings. */
+  public boolean isSinglePage() {
+    return groupBy == GroupBy.NONE && getPageCount() == 1;
+  }
+
+  public GroupBy getGroupBy() {
+    return groupBy;
+  }
+
+  public int getPageSize() {
+    return pageSize;
+  }
+
+  public int getPageCount() {
+    return pageSize == 0 || goals.isEmpty() ? 1 : (goals.size() + pageSize - 1) / pageSize;
+  }
+
+  /** The goals of the page, numbered from 0, in overview order. */
+  public List<Goal> getGoals(int page) {
+    return goals.subList(start(page), end(page));
+  }
+
+  /**
+   * The heading of the group of the {@code index}th goal of the page, where the group starts or the
+   * page does; {@code null} where the goal continues the group of the one before it.
+   */
+  public String getHeading(int page, int index) {
+    int goal = start(page) + index;
+    if (groupBy == GroupBy.NONE || (index > 0 && groups[goal].equals(groups[goal - 1]))) {
+      return null;
+    }
+    return goal > 0 && groups[goal].equals(groups[goal - 1])
+        ? groups[goal] + " (continued)"
+        : groups[goal];
+  }
+
+  /**
+   * File name of the page: the overview itself for the first, then the overview name numbered, e.g.
+   * {@code README-2.md}.
+   */
+  public static String pageName(String overviewPage, int page) {
+    if (page == 0) {
+      return overviewPage;
+    }
+    int dot = overviewPage.lastIndexOf('.');
+    return dot < 0
+        ? overviewPage + '-' + (page + 1)
+        : overviewPage.substring(0, dot) + '-' + (page + 1) + overviewPage.substring(dot);
+  }
+
+  @Override
+  public String toString() {
+    return groupBy.name().toLowerCase(Locale.ROOT) + "/" + pageSize;
+  }
+
+  private int start(int page) {
+    return pageSize == 0 ? 0 : Math.min(goals.size(), page * pageSize);
+  }
+
+  private int end(int page) {
+    return pageSize == 0 ? goals.size() : Math.min(goals.size(), (page + 1) * pageSize);
+  }
+
+  private String group(Goal goal) {
+    switch (groupBy) {
+      case PHASE:
+        return goal.getPhase() != null ? "Phase " + goal.getPhase() : "No default phase";
+      case PREFIX:
+        return prefix(goal);
+      default:
+        return "";
+    }
+  }
+
+  private static String phase(Goal goal) {
+    return goal.getPhase() != null ? goal.getPhase() : "";
+  }
+
+  // phases of no lifecycle above come after the known ones, and goals without a phase last
+  private static int phaseRank(String phase) {
+    if (phase == null) {
+      return PHASES.size() + 1;
+    }
+    int rank = PHASES.indexOf(phase);
+    return rank >= 0 ? rank : PHASES.size();
+  }
+
+  private static String prefix(Goal goal) {
+    String name = goal.getName();
+    int dash = name.indexOf('-');
+    return dash > 0 ? name.substring(0, dash) : name;
+  }
+}
@@ -0,0 +1,233 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Per-thread buffer a page is rendered into. The text is encoded to UTF-8 through fixed-size chunks
+ * straight into the digest and the file channel, so a page written by the thread that rendered it
+ * never exists as a String or a byte[].
+ */
+final class PageBuffer implements Appendable, AutoCloseable {
+
+  private static final int INITIAL_CAPACITY = 16 * 1024;
+  private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+  private static final int CHUNK_SIZE = 8 * 1024;
+
+  private static final ThreadLocal<PageBuffer> BUFFERS = ThreadLocal.withInitial(PageBuffer::new);
+
+  private final CharBuffer charChunk = CharBuffer.allocate(CHUNK_SIZE);
+  private final ByteBuffer byteChunk = ByteBuffer.allocate(CHUNK_SIZE * 3);
+  private final CharsetEncoder encoder =
+      StandardCharsets.UTF_8
+          .newEncoder()
+          .onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  private final MessageDigest digest = GenerationManifest.newDigest();
+
+  private StringBuilder text = new StringBuilder(INITIAL_CAPACITY);
+  private long byteCount;
+
+  private PageBuffer() {}
+
+  static PageBuffer acquire() {
+    PageBuffer buffer = BUFFERS.get();
+    buffer.text.setLength(0);
+    return buffer;
+  }
+
+  @Override
+  public PageBuffer append(CharSequence csq) {
+    text.append(csq);
+    return this;
+  }
+
+  @Override
+  public PageBuffer append(CharSequence csq, int start, int end) {
+    text.append(csq, start, end);
+    return this;
+  }
+
+  @Override
+  public PageBuffer append(char c) {
+    text.append(c);
+    return this;
+  }
+
+  int length() {
+    return text.length();
+  }
+
+  /** UTF-8 size of the last {@link #hash()} or {@link #writeTo(Path)}. */
+  long byteCount() {
+    return byteCount;
+  }
+
+  String hash() throws IOException {
+    encode(null);
+    return GenerationManifest.toHex(digest.digest());
+  }
+
+  /** Writes the page and returns its hash, computed in the same pass. */
+  String writeTo(Path file) throws IOException {
+    try (FileChannel channel =
+        FileChannel.open(
+            file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+      return writeTo(channel);
+    }
+  }
+
+  /** Writes the page to an open channel, e.g. a zip entry, and returns its hash. */
+  String writeTo(WritableByteChannel channel) throws IOException {
+    encode(channel);
+    return GenerationManifest.toHex(digest.digest());
+  }
+
+  /**
+   * Encodes the page into bytes of its own, hashed in the same pass, for another thread to write
+   * once this buffer was reused.
+   */
+  Encoded encode() throws IOException {
+    // mostly ASCII, so one byte per character is usually all that is needed
+    ByteArrayChannel bytes = new ByteArrayChannel(text.length() + 16);
+    encode(bytes);
+    return new Encoded(bytes.array, bytes.size, GenerationManifest.toHex(digest.digest()));
+  }
+
+  @Override
+  public String toString() {
+    return text.toString();
+  }
+
+  // drop the storage of an unusually large page instead of keeping it for the thread's lifetime
+  @Override
+  public void close() {
+    if (text.capacity() > MAX_RETAINED_CAPACITY) {
+      text = new StringBuilder(INITIAL_CAPACITY);
+    }
+  }
+
+  private void encode(WritableByteChannel channel) throws IOException {
+    digest.reset();
+    encoder.reset();
+    charChunk.clear();
+    byteChunk.clear();
+    byteCount = 0;
+
+    int position = 0;
+    int length = text.length();
+    boolean endOfInput;
+    do {
+      int count = Math.min(charChunk.remaining(), length - position);
+      text.getChars(position, position + count, charChunk.array(), charChunk.position());
+      charChunk.position(charChunk.position() + count);
+      position += count;
+      endOfInput = position == length;
+
+      charChunk.flip();
+      while (encoder.encode(charChunk, byteChunk, endOfInput).isOverflow()) {
+        drain(channel);
+      }
+      // a surrogate pair split by the chunk boundary stays behind for the next round
+      charChunk.compact();
+    } while (!endOfInput);
+
+    CoderResult result;
+    while ((result = encoder.flush(byteChunk)).isOverflow()) {
+      drain(channel);
+    }
+    if (result.isError()) {
+      result.throwException();
+    }
+    drain(channel);
+  }
+
+  private void drain(WritableByteChannel channel) throws IOException {
+    byteChunk.flip();
+    byteCount += byteChunk.remaining();
+    digest.update(byteChunk.array(), 0, byteChunk.limit());
+    if (channel != null) {
+      while (byteChunk.hasRemaining()) {
+        channel.write(byteChunk);
+      }
+    }
+    byteChunk.clear();
+  }
+
+  /** A page encoded by {@link #encode()}. */
+  static final class Encoded {
+    private final byte[] bytes;
+    private final int length;
+    private final String hash;
+
+    private Encoded(byte[] bytes, int length, String hash) {
+      this.bytes = bytes;
+      this.length = length;
+      this.hash = hash;
+    }
+
+    int length() {
+      return length;
+    }
+
+    String hash() {
+      return hash;
+    }
+
+    void writeTo(Path file) throws IOException {
+      try (FileChannel channel =
+          FileChannel.open(
+              file,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.TRUNCATE_EXISTING,
+              StandardOpenOption.WRITE)) {
+        ByteBuffer content = ByteBuffer.wrap(bytes, 0, length);
+        while (content.hasRemaining()) {
+          channel.write(content);
+        }
+      }
+    }
+  }
+
+  private static final class ByteArrayChannel implements WritableByteChannel {
+    private byte[] array;
+    private int size;
+
+    ByteArrayChannel(int capacity) {
+      array = new byte[capacity];
+    }
+
+    @Override
+    public int write(ByteBuffer source) {
+      int count = source.remaining();
+      if (size + count > array.length) {
+        array = Arrays.copyOf(array, Math.max(size + count, array.length * 2));
+      }
+      source.get(array, size, count);
+      size += count;
+      return count;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return true;
+    }
+
+    @Override
+    public void close() {}
+  }
+}
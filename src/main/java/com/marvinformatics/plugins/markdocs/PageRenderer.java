@@ -0,0 +1,63 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.IOException;
+
+/**
+ * An output format of the documentation. Renderers are stateless and called concurrently, one page
+ * at a time per thread, with the model of a descriptor parsed once for all of them.
+ *
+ * <p>Besides the built-in {@code markdown}, {@code asciidoc} and {@code json} formats, renderers
+ * listed in {@code META-INF/services/com.marvinformatics.plugins.markdocs.PageRenderer} of a jar
+ * added to the plugin's dependencies can be selected by their format name.
+ */
+public interface PageRenderer {
+
+  /** Name selecting the format, also the subdirectory of its pages when several are written. */
+  String getFormat();
+
+  /** File name of the overview page, e.g. {@code README.md}. */
+  String getOverviewPage();
+
+  /** Extension of the goal pages, including the dot, e.g. {@code .md}. */
+  String getExtension();
+
+  void writeOverview(PluginDescriptor descriptor, String title, Appendable out) throws IOException;
+
+  /**
+   * Whether the format can split its overview into pages grouped and sized by {@link
+   * OverviewPages}; the others write their whole overview with {@link #writeOverview}.
+   */
+  default boolean supportsOverviewPages() {
+    return false;
+  }
+
+  /** Writes page {@code page}, numbered from 0, of the overview laid out by {@code pages}. */
+  default void writeOverviewPage(
+      PluginDescriptor descriptor, String title, OverviewPages pages, int page, Appendable out)
+      throws IOException {
+    writeOverview(descriptor, title, out);
+  }
+
+  void writeGoalPage(Goal goal, Appendable out) throws IOException;
+
+  /**
+   * Writes the goal page as a target of links, e.g. from the search index: with parameter anchors,
+   * and the names {@code links} finds in descriptions linked to their pages, for formats that
+   * support it; the others ignore the links.
+   */
+  default void writeGoalPage(Goal goal, NameLinker links, Appendable out) throws IOException {
+    writeGoalPage(goal, out);
+  }
+
+  /**
+   * Everything besides the model that changes the rendered pages, e.g. template hashes; part of the
+   * generation fingerprint, so pages are rendered again once it changes.
+   */
+  default String getConfiguration() {
+    return "";
+  }
+
+  default String goalPage(Goal goal) {
+    return goal.getName() + getExtension();
+  }
+}
@@ -0,0 +1,241 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Content-addressed store shared by the documentation of several versions of a plugin, each written
+ * to {@code <root>/<version>/}. Every distinct page is kept once as {@code <root>/pages/<hash>}
+ * followed by the extension of the page, so {@code pages} is not a valid version, and the pages of
+ * the versions are hard links to it; on a file system without hard links a markdown page is a copy
+ * in the first version that has it and a short relative link to that copy in every later one, and
+ * any other page, such as the search index or a page of another format, a copy everywhere.
+ *
+ * <p>The store also remembers which page a goal model rendered to, keyed by a digest of the model
+ * and everything else the page depends on, so a goal unchanged since an earlier version is never
+ * rendered again.
+ */
+public final class PageStore {
+
+  static final String DIRECTORY_NAME = "pages";
+
+  private static final String INDEX_FILE = ".markdocs-store";
+  private static final String RENDERED_PREFIX = "rendered ";
+  private static final String FIRST_PREFIX = "first ";
+
+  private final File root;
+  private final Path directory;
+  // model key -> page hash
+  private final Map<String, String> renderedPages = new ConcurrentHashMap<>();
+  // stored page file name -> first page with that content, relative to the root
+  private final Map<String, String> firstPages = new ConcurrentHashMap<>();
+  private volatile boolean hardLinks;
+
+  private PageStore(File root, boolean hardLinks) {
+    this.root = root;
+    this.directory = new File(root, DIRECTORY_NAME).toPath();
+    this.hardLinks = hardLinks;
+  }
+
+  /** Opens the store below {@code root}, with what the previous executions recorded. */
+  public static PageStore open(File root) throws IOException {
+    return open(root, true);
+  }
+
+  static PageStore open(File root, boolean hardLinks) throws IOException {
+    PageStore store = new PageStore(root, hardLinks);
+    Files.createDirectories(store.directory);
+    Path index = store.directory.resolve(INDEX_FILE);
+    if (Files.isRegularFile(index)) {
+      for (String line : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+        int separator = line.indexOf("  ");
+        if (separator < 0) {
+          continue;
+        }
+        String value = line.substring(separator + 2);
+        if (line.startsWith(RENDERED_PREFIX)) {
+          store.renderedPages.put(line.substring(RENDERED_PREFIX.length(), separator), value);
+        } else if (line.startsWith(FIRST_PREFIX)) {
+          store.firstPages.put(line.substring(FIRST_PREFIX.length(), separator), value);
+        }
+      }
+    }
+    return store;
+  }
+
+  public File getRoot() {
+    return root;
+  }
+
+  /**
+   * The hash of the page the model rendered to, or {@code null} when it is not stored.
+   *
+   * @param page the name of the page, for its extension
+   */
+  String renderedPage(String modelKey, String page) {
+    String hash = renderedPages.get(modelKey);
+    return hash != null && Files.isRegularFile(pageFile(hash, page)) ? hash : null;
+  }
+
+  void putRenderedPage(String modelKey, String hash) {
+    renderedPages.put(modelKey, hash);
+  }
+
+  /**
+   * Adds the page unless the store already has it.
+   *
+   * @param name the name of the page, for its extension
+   * @return whether the page was new
+   */
+  boolean put(PageBuffer content, String hash, String name) throws IOException {
+    Path page = pageFile(hash, name);
+    if (Files.isRegularFile(page)) {
+      return false;
+    }
+    // stored pages are linked from everywhere, so one is never written in place
+    Path temporary = Files.createTempFile(directory, hash, ".tmp");
+    try {
+      content.writeTo(temporary);
+      try {
+        Files.move(temporary, page, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporary, page);
+      }
+      return true;
+    } catch (FileAlreadyExistsException e) {
+      return false;
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /**
+   * Makes {@code target}, a page below the root, show the stored page. An existing file is
+   * replaced, never written to, as it may be a link to another page.
+   */
+  void link(String hash, File target) throws IOException {
+    Path page = pageFile(hash, target.getName());
+    Path file = target.toPath();
+    if (hardLinks && Files.isRegularFile(file) && Files.isSameFile(file, page)) {
+      return;
+    }
+    Files.deleteIfExists(file);
+    if (hardLinks) {
+      try {
+        Files.createLink(file, page);
+        return;
+      } catch (UnsupportedOperationException | FileSystemException e) {
+        hardLinks = false;
+      }
+    }
+
+    String relative = relativePath(target);
+    String stored = page.getFileName().toString();
+    String first = firstPages.putIfAbsent(stored, relative);
+    if (first == null
+        || first.equals(relative)
+        || !new File(root, first).isFile()
+        || !target.getName().endsWith(".md")) {
+      firstPages.put(stored, relative);
+      Files.copy(page, file);
+    } else {
+      Files.write(file, redirect(target, new File(root, first)).getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * Deletes the stored pages that no page of any version below the root refers to anymore, and
+   * saves what the store recorded.
+   *
+   * @return the number of pages deleted
+   */
+  public int save() throws IOException {
+    Set<String> referenced = new HashSet<>();
+    Set<String> referencedFiles = new HashSet<>();
+    try (DirectoryStream<Path> versions = Files.newDirectoryStream(root.toPath())) {
+      for (Path version : versions) {
+        if (Files.isDirectory(version) && !version.equals(directory)) {
+          GenerationManifest manifest = GenerationManifest.load(version.toFile());
+          for (String page : manifest.getPages()) {
+            String hash = manifest.getPageHash(page);
+            referenced.add(hash);
+            referencedFiles.add(pageFile(hash, page).getFileName().toString());
+          }
+        }
+      }
+    }
+
+    int removed = 0;
+    try (DirectoryStream<Path> pages = Files.newDirectoryStream(directory)) {
+      for (Path page : pages) {
+        String name = page.getFileName().toString();
+        if (Files.isRegularFile(page)
+            && !name.equals(INDEX_FILE)
+            && !name.endsWith(".tmp")
+            && !referencedFiles.contains(name)) {
+          Files.delete(page);
+          removed++;
+        }
+      }
+    }
+    renderedPages.values().retainAll(referenced);
+    firstPages.keySet().retainAll(referencedFiles);
+
+    List<String> index = new ArrayList<>();
+    new TreeMap<>(renderedPages)
+        .forEach((key, hash) -> index.add(RENDERED_PREFIX + key + "  " + hash));
+    new TreeMap<>(firstPages).forEach((hash, page) -> index.add(FIRST_PREFIX + hash + "  " + page));
+    Files.write(directory.resolve(INDEX_FILE), index, StandardCharsets.UTF_8);
+    return removed;
+  }
+
+  // keeps the extension of the page, so a stored page opens like the pages linked to it
+  private Path pageFile(String hash, String page) {
+    String name = page.substring(page.lastIndexOf('/') + 1);
+    int dot = name.lastIndexOf('.');
+    return directory.resolve(dot > 0 ? hash + name.substring(dot) : hash);
+  }
+
+  private String relativePath(File target) {
+    return root.toPath().relativize(target.toPath()).toString().replace(File.separatorChar, '/');
+  }
+
+  // from <root>/<version>/<page> to the same kind of path of the first version with it
+  private String redirect(File target, File first) {
+    String name = target.getName();
+    String title = name.substring(0, name.length() - 3);
+    String relative = relativePath(first);
+    String version = relative.substring(0, relative.indexOf('/'));
+    String link =
+        target
+            .getParentFile()
+            .toPath()
+            .relativize(first.toPath())
+            .toString()
+            .replace(File.separatorChar, '/');
+    return "# "
+        + title
+        + "\n\nThis page has not changed since version "
+        + version
+        + ": ["
+        + title
+        + "]("
+        + link
+        + ")\n";
+  }
+}
@@ -0,0 +1,392 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A page layout in a small Mustache-like syntax, compiled once into a tree of nodes that is then
+ * rendered for every page.
+ *
+ * <ul>
+ *   <li>{@code {{name}}} writes a value escaped for markdown, {@code {{{name}}}} writes it as is,
+ *       e.g. inside code spans; {@code null} writes nothing
+ *   <li>{@code {{#name}}...{{/name}}} renders its body for every element of a list, or once when
+ *       the value is {@code true} or any other non-null value
+ *   <li>{@code {{^name}}...{{/name}}} renders its body when the value is {@code null}, {@code
+ *       false} or an empty list
+ *   <li>{@code {{! comment }}} is dropped
+ * </ul>
+ *
+ * A section or comment tag alone on its line removes the whole line, as in Mustache. Names are
+ * resolved against a {@link Schema} when compiling, innermost list element first, so unknown names
+ * are reported before anything is rendered.
+ */
+public final class PageTemplate {
+
+  private final String name;
+  private final String hash;
+  private final Node[] nodes;
+
+  private PageTemplate(String name, String hash, Node[] nodes) {
+    this.name = name;
+    this.hash = hash;
+    this.nodes = nodes;
+  }
+
+  /**
+   * @throws IllegalArgumentException for syntax errors and unknown names, with the template name
+   *     and line in the message
+   */
+  public static <T> PageTemplate compile(String name, String source, Schema<T> schema) {
+    String hash = GenerationManifest.hash(source.getBytes(StandardCharsets.UTF_8));
+    return new PageTemplate(name, hash, new Compiler(name, source, schema).compile());
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /** SHA-256 of the template source. */
+  public String getHash() {
+    return hash;
+  }
+
+  public void render(Object context, Appendable out) throws IOException {
+    render(nodes, new Frame(context, null), out);
+  }
+
+  private static void render(Node[] nodes, Frame frame, Appendable out) throws IOException {
+    for (Node node : nodes) {
+      node.render(frame, out);
+    }
+  }
+
+  /** Writes a value for a {@code {{name}}} tag. */
+  public interface ValueWriter<V> {
+    void write(V value, Appendable out) throws IOException;
+  }
+
+  private static final ValueWriter<Object> ESCAPED =
+      (value, out) ->
+          MarkdownText.appendEscaped(
+              value instanceof CharSequence ? (CharSequence) value : value.toString(), out);
+
+  /** The names a template may use on a context of type {@code T}. */
+  public static final class Schema<T> {
+    private final Map<String, Property> properties = new LinkedHashMap<>();
+
+    public Schema<T> value(String name, Function<? super T, ?> getter) {
+      properties.put(name, new Property(getter, null, ESCAPED));
+      return this;
+    }
+
+    /** A value that {@code {{name}}} writes with its own writer rather than just escaped. */
+    public <V> Schema<T> value(
+        String name, Function<? super T, ? extends V> getter, ValueWriter<? super V> writer) {
+      properties.put(name, new Property(getter, null, writer));
+      return this;
+    }
+
+    /** A list whose elements become the innermost context of a {@code {{#name}}} section. */
+    public <E> Schema<T> list(
+        String name, Function<? super T, ? extends List<? extends E>> getter, Schema<E> element) {
+      properties.put(name, new Property(getter, element, ESCAPED));
+      return this;
+    }
+  }
+
+  private static final class Property {
+    private final Function<Object, ?> getter;
+    private final Schema<?> element;
+    private final ValueWriter<Object> writer;
+
+    @SuppressWarnings("unchecked")
+    private Property(Function<?, ?> getter, Schema<?> element, ValueWriter<?> writer) {
+      this.getter = (Function<Object, ?>) getter;
+      this.element = element;
+      this.writer = (ValueWriter<Object>) writer;
+    }
+  }
+
+  private static final class Frame {
+    private final Object context;
+    private final Frame parent;
+
+    private Frame(Object context, Frame parent) {
+      this.context = context;
+      this.parent = parent;
+    }
+
+    private Object get(int depth, Property property) {
+      Frame frame = this;
+      for (int i = 0; i < depth; i++) {
+        frame = frame.parent;
+      }
+      return property.getter.apply(frame.context);
+    }
+  }
+
+  private abstract static class Node {
+    abstract void render(Frame frame, Appendable out) throws IOException;
+  }
+
+  private static final class Text extends Node {
+    private final String text;
+
+    private Text(String text) {
+      this.text = text;
+    }
+
+    @Override
+    void render(Frame frame, Appendable out) throws IOException {
+      out.append(text);
+    }
+  }
+
+  private static final class Variable extends Node {
+    private final int depth;
+    private final Property property;
+    private final boolean raw;
+
+    private Variable(int depth, Property property, boolean raw) {
+      this.depth = depth;
+      this.property = property;
+      this.raw = raw;
+    }
+
+    @Override
+    void render(Frame frame, Appendable out) throws IOException {
+      Object value = frame.get(depth, property);
+      if (value == null) {
+        return;
+      }
+      if (!raw) {
+        property.writer.write(value, out);
+      } else if (value instanceof CharSequence) {
+        out.append((CharSequence) value);
+      } else {
+        out.append(value.toString());
+      }
+    }
+  }
+
+  private static final class Section extends Node {
+    private final int depth;
+    private final Property property;
+    private final boolean inverted;
+    private Node[] body;
+
+    private Section(int depth, Property property, boolean inverted) {
+      this.depth = depth;
+      this.property = property;
+      this.inverted = inverted;
+    }
+
+    @Override
+    void render(Frame frame, Appendable out) throws IOException {
+      Object value = frame.get(depth, property);
+      if (inverted) {
+        if (isEmpty(value)) {
+          PageTemplate.render(body, frame, out);
+        }
+      } else if (property.element != null) {
+        if (value != null) {
+          for (Object element : (List<?>) value) {
+            PageTemplate.render(body, new Frame(element, frame), out);
+          }
+        }
+      } else if (!isEmpty(value)) {
+        PageTemplate.render(body, frame, out);
+      }
+    }
+
+    private static boolean isEmpty(Object value) {
+      return value == null
+          || Boolean.FALSE.equals(value)
+          || (value instanceof List && ((List<?>) value).isEmpty());
+    }
+  }
+
+  private static final class Compiler {
+    private final String name;
+    private final String source;
+    private final List<Schema<?>> scopes = new ArrayList<>();
+    private final Deque<OpenSection> open = new ArrayDeque<>();
+
+    private Compiler(String name, String source, Schema<?> root) {
+      this.name = name;
+      this.source = source;
+      scopes.add(root);
+    }
+
+    private Node[] compile() {
+      List<Node> nodes = new ArrayList<>();
+      int position = 0;
+      int textStart = 0;
+
+      while (true) {
+        int tagStart = source.indexOf("{{", position);
+        if (tagStart < 0) {
+          break;
+        }
+        boolean raw = source.startsWith("{{{", tagStart);
+        String close = raw ? "}}}" : "}}";
+        int tagEnd = source.indexOf(close, tagStart + close.length());
+        if (tagEnd < 0) {
+          throw error(tagStart, "unterminated tag");
+        }
+        String tag = source.substring(tagStart + close.length(), tagEnd).trim();
+        int next = tagEnd + close.length();
+        char type = raw || tag.isEmpty() ? ' ' : tag.charAt(0);
+
+        int textEnd = tagStart;
+        if (type == '#' || type == '^' || type == '/' || type == '!') {
+          int lineStart = lineStart(tagStart);
+          int lineEnd = lineEnd(next);
+          if (lineStart >= 0 && lineEnd >= 0) {
+            textEnd = lineStart;
+            next = lineEnd;
+          }
+        }
+        addText(nodes, textStart, textEnd);
+
+        switch (type) {
+          case '!':
+            break;
+          case '#':
+          case '^':
+            nodes = openSection(nodes, tag.substring(1).trim(), type == '^', tagStart);
+            break;
+          case '/':
+            nodes = closeSection(nodes, tag.substring(1).trim(), tagStart);
+            break;
+          default:
+            Resolved resolved = resolve(tag, tagStart);
+            nodes.add(new Variable(resolved.depth, resolved.property, raw));
+        }
+        position = next;
+        textStart = next;
+      }
+
+      addText(nodes, textStart, source.length());
+      if (!open.isEmpty()) {
+        OpenSection section = open.peek();
+        throw error(section.offset, "section '" + section.name + "' is never closed");
+      }
+      return nodes.toArray(new Node[0]);
+    }
+
+    private List<Node> openSection(List<Node> nodes, String tag, boolean inverted, int offset) {
+      Resolved resolved = resolve(tag, offset);
+      Section section = new Section(resolved.depth, resolved.property, inverted);
+      nodes.add(section);
+      boolean pushesScope = !inverted && resolved.property.element != null;
+      if (pushesScope) {
+        scopes.add(resolved.property.element);
+      }
+      open.push(new OpenSection(tag, offset, section, nodes, pushesScope));
+      return new ArrayList<>();
+    }
+
+    // the nodes collected since the opening tag become the body of the section
+    private List<Node> closeSection(List<Node> body, String tag, int offset) {
+      OpenSection section = open.poll();
+      if (section == null || !section.name.equals(tag)) {
+        throw error(offset, "unexpected closing tag '" + tag + "'");
+      }
+      section.section.body = body.toArray(new Node[0]);
+      if (section.pushesScope) {
+        scopes.remove(scopes.size() - 1);
+      }
+      return section.parent;
+    }
+
+    private void addText(List<Node> nodes, int start, int end) {
+      if (end > start) {
+        nodes.add(new Text(source.substring(start, end)));
+      }
+    }
+
+    // offset of the line start when only blanks precede the tag on its line, otherwise -1
+    private int lineStart(int tagStart) {
+      int i = tagStart - 1;
+      while (i >= 0 && source.charAt(i) != '\n') {
+        if (!isBlank(source.charAt(i))) {
+          return -1;
+        }
+        i--;
+      }
+      return i + 1;
+    }
+
+    // offset just past the line end when only blanks follow the tag on its line, otherwise -1
+    private int lineEnd(int tagEnd) {
+      int i = tagEnd;
+      while (i < source.length() && source.charAt(i) != '\n') {
+        if (!isBlank(source.charAt(i)) && source.charAt(i) != '\r') {
+          return -1;
+        }
+        i++;
+      }
+      return i < source.length() ? i + 1 : i;
+    }
+
+    private static boolean isBlank(char c) {
+      return c == ' ' || c == '\t';
+    }
+
+    private Resolved resolve(String tag, int offset) {
+      for (int i = scopes.size() - 1; i >= 0; i--) {
+        Property property = scopes.get(i).properties.get(tag);
+        if (property != null) {
+          return new Resolved(scopes.size() - 1 - i, property);
+        }
+      }
+      throw error(offset, "unknown name '" + tag + "'");
+    }
+
+    private IllegalArgumentException error(int offset, String message) {
+      int line = 1;
+      for (int i = 0; i < offset; i++) {
+        if (source.charAt(i) == '\n') {
+          line++;
+        }
+      }
+      return new IllegalArgumentException(name + ":" + line + ": " + message);
+    }
+  }
+
+  private static final class Resolved {
+    private final int depth;
+    private final Property property;
+
+    private Resolved(int depth, Property property) {
+      this.depth = depth;
+      this.property = property;
+    }
+  }
+
+  private static final class OpenSection {
+    private final String name;
+    private final int offset;
+    private final Section section;
+    private final List<Node> parent;
+    private final boolean pushesScope;
+
+    private OpenSection(
+        String name, int offset, Section section, List<Node> parent, boolean pushesScope) {
+      this.name = name;
+      this.offset = offset;
+      this.section = section;
+      this.parent = parent;
+      this.pushesScope = pushesScope;
+    }
+  }
+}
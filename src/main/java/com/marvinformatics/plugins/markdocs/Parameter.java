@@ -1,58 +1,127 @@
 package com.marvinformatics.plugins.markdocs;
 
-public class Parameter {
-  private String name;
-  private String type;
-  private String description;
-  private String defaultValue;
-  private boolean required;
-  private boolean editable;
+import java.security.MessageDigest;
+import java.util.Objects;
 
-  public String getName() {
-    return name;
+/** One mojo parameter. Immutable; names, types and default values are interned. */
+public final class Parameter {
+  private final String name;
+  private final String type;
+  private final String description;
+  private final String defaultValue;
+  private final boolean required;
+  private final boolean editable;
+
+  private Parameter(Builder builder) {
+    this.name = builder.name;
+    this.type = builder.type;
+    this.description = builder.description;
+    this.defaultValue = builder.defaultValue;
+    this.required = builder.required;
+    this.editable = builder.editable;
   }
 
-  public void setName(String name) {
-    this.name = name;
+  public static Builder builder() {
+    return new Builder();
   }
 
-  public String getType() {
-    return type;
+  public String getName() {
+    return name;
   }
 
-  public void setType(String type) {
-    this.type = type;
+  public String getType() {
+    return type;
   }
 
   public String getDescription() {
     return description;
   }
 
-  public void setDescription(String description) {
-    this.description = description;
-  }
-
   public String getDefaultValue() {
     return defaultValue;
   }
 
-  public void setDefaultValue(String defaultValue) {
-    this.defaultValue = defaultValue;
-  }
-
   public boolean isRequired() {
     return required;
   }
 
-  public void setRequired(boolean required) {
-    this.required = required;
-  }
-
   public boolean isEditable() {
     return editable;
   }
 
-  public void setEditable(boolean editable) {
-    this.editable = editable;
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Parameter)) {
+      return false;
+    }
+    Parameter other = (Parameter) o;
+    return required == other.required
+        && editable == other.editable
+        && Objects.equals(name, other.name)
+        && Objects.equals(type, other.type)
+        && Objects.equals(description, other.description)
+        && Objects.equals(defaultValue, other.defaultValue);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(name, type, description, defaultValue, required, editable);
+  }
+
+  void digest(MessageDigest digest) {
+    GenerationManifest.update(digest, name);
+    GenerationManifest.update(digest, type);
+    GenerationManifest.update(digest, description);
+    GenerationManifest.update(digest, defaultValue);
+    digest.update((byte) ((required ? 1 : 0) | (editable ? 2 : 0)));
+  }
+
+  public static final class Builder {
+    private String name;
+    private String type;
+    private String description;
+    private String defaultValue;
+    private boolean required;
+    private boolean editable = true;
+
+    private Builder() {}
+
+    public Builder name(String name) {
+      this.name = ModelStrings.intern(name);
+      return this;
+    }
+
+    public Builder type(String type) {
+      this.type = ModelStrings.intern(type);
+      return this;
+    }
+
+    public Builder description(String description) {
+      this.description = description;
+      return this;
+    }
+
+    public Builder defaultValue(String defaultValue) {
+      this.defaultValue = ModelStrings.intern(defaultValue);
+      return this;
+    }
+
+    public Builder required(boolean required) {
+      this.required = required;
+      return this;
+    }
+
+    /** Parameters are editable unless the descriptor says otherwise. */
+    public Builder editable(boolean editable) {
+      this.editable = editable;
+      return this;
+    }
+
+    public Parameter build() {
+      return new Parameter(this);
+    }
   }
 }
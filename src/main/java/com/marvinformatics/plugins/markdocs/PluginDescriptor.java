@@ -3,63 +3,112 @@ package com.marvinformatics.plugins.markdocs;
 import java.util.ArrayList;
 import java.util.List;
 
-public class PluginDescriptor {
-  private String groupId;
-  private String artifactId;
-  private String version;
-  private String name;
-  private String description;
-  private List<Goal> goals = new ArrayList<>();
+/** A parsed plugin.xml. Immutable; goals can be looked up by name in constant time. */
+public final class PluginDescriptor {
+  private final String groupId;
+  private final String artifactId;
+  private final String version;
+  private final String name;
+  private final String description;
+  private final List<Goal> goals;
+  private final NameIndex goalIndex;
 
-  public String getGroupId() {
-    return groupId;
+  private PluginDescriptor(Builder builder) {
+    this.groupId = builder.groupId;
+    this.artifactId = builder.artifactId;
+    this.version = builder.version;
+    this.name = builder.name;
+    this.description = builder.description;
+    this.goals = List.copyOf(builder.goals);
+    this.goalIndex = NameIndex.of(goals, Goal::getName);
   }
 
-  public void setGroupId(String groupId) {
-    this.groupId = groupId;
+  public static Builder builder() {
+    return new Builder();
   }
 
-  public String getArtifactId() {
-    return artifactId;
+  public String getGroupId() {
+    return groupId;
   }
 
-  public void setArtifactId(String artifactId) {
-    this.artifactId = artifactId;
+  public String getArtifactId() {
+    return artifactId;
   }
 
   public String getVersion() {
     return version;
   }
 
-  public void setVersion(String version) {
-    this.version = version;
-  }
-
   public String getName() {
     return name;
   }
 
-  public void setName(String name) {
-    this.name = name;
-  }
-
   public String getDescription() {
     return description;
   }
 
-  public void setDescription(String description) {
-    this.description = description;
-  }
-
+  /** Unmodifiable, in descriptor order. */
   public List<Goal> getGoals() {
     return goals;
   }
 
-  public void setGoals(List<Goal> goals) {
-    this.goals = goals;
+  /**
+   * @return the first goal with this name, or {@code null}
+   */
+  public Goal getGoal(String goalName) {
+    int index = indexOfGoal(goalName);
+    return index >= 0 ? goals.get(index) : null;
+  }
+
+  /**
+   * @return the position of the first goal with this name in {@link #getGoals()}, or -1
+   */
+  public int indexOfGoal(String goalName) {
+    return goalIndex.indexOf(goals, Goal::getName, goalName);
   }
 
-  public void addGoal(Goal goal) {
-    this.goals.add(goal);
+  public static final class Builder {
+    private String groupId;
+    private String artifactId;
+    private String version;
+    private String name;
+    private String description;
+    private final List<Goal> goals = new ArrayList<>();
+
+    private Builder() {}
+
+    public Builder groupId(String groupId) {
+      this.groupId = ModelStrings.intern(groupId);
+      return this;
+    }
+
+    public Builder artifactId(String artifactId) {
+      this.artifactId = artifactId;
+      return this;
+    }
+
+    public Builder version(String version) {
+      this.version = ModelStrings.intern(version);
+      return this;
+    }
+
+    public Builder name(String name) {
+      this.name = name;
+      return this;
+    }
+
+    public Builder description(String description) {
+      this.description = description;
+      return this;
+    }
+
+    public Builder addGoal(Goal goal) {
+      this.goals.add(goal);
+      return this;
+    }
+
+    public PluginDescriptor build() {
+      return new PluginDescriptor(this);
+    }
   }
 }
@@ -1,8 +1,15 @@
 package com.marvinformatics.plugins.markdocs;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -10,21 +17,323 @@ import org.w3c.dom.NodeList;
 
 public class PluginDescriptorParser {
 
+  public enum Mode {
+    /** Single pass over the event stream, reading only direct children of each element. */
+    STAX,
+    /** Builds a full DOM first; kept to compare output against the streaming parser. */
+    DOM
+  }
+
+  /** Receives each goal as soon as its mojo was read. */
+  public interface GoalListener {
+    void goalParsed(Goal goal) throws Exception;
+  }
+
+  private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+  private static final GoalListener IGNORE = goal -> {};
+
+  private final Mode mode;
+  private final DescriptorCache cache;
+  private final GoalFilter filter;
+
+  public PluginDescriptorParser() {
+    this(Mode.STAX);
+  }
+
+  public PluginDescriptorParser(Mode mode) {
+    this(mode, null);
+  }
+
+  /**
+   * @param cache consulted before parsing, may be {@code null}
+   */
+  public PluginDescriptorParser(Mode mode, DescriptorCache cache) {
+    this(mode, cache, GoalFilter.ALL);
+  }
+
+  /**
+   * @param filter goals to model; the {@code <mojo>} element of any other goal is skipped in the
+   *     stream as soon as its {@code <goal>} was read
+   */
+  public PluginDescriptorParser(Mode mode, DescriptorCache cache, GoalFilter filter) {
+    this.mode = mode;
+    this.cache = cache;
+    this.filter = filter;
+  }
+
+  public Mode getMode() {
+    return mode;
+  }
+
+  public DescriptorCache getCache() {
+    return cache;
+  }
+
+  public GoalFilter getFilter() {
+    return filter;
+  }
+
   public PluginDescriptor parse(File pluginDescriptorFile) throws Exception {
+    if (cache != null) {
+      return parse(DescriptorSource.ofFile(pluginDescriptorFile));
+    }
+    if (mode == Mode.DOM) {
+      return parseDom(pluginDescriptorFile);
+    }
+    try (InputStream in = new BufferedInputStream(new FileInputStream(pluginDescriptorFile))) {
+      return parseStax(in, IGNORE);
+    }
+  }
+
+  public PluginDescriptor parse(DescriptorSource source) throws Exception {
+    return parse(source, IGNORE);
+  }
+
+  /**
+   * Hands each goal to the listener as soon as its mojo was read, while the rest of the descriptor
+   * is still being parsed. Goals of a cached descriptor are handed over once it was loaded.
+   */
+  public PluginDescriptor parse(DescriptorSource source, GoalListener listener) throws Exception {
+    return source.read(this, listener);
+  }
+
+  PluginDescriptor scan(MojoClassScanner scanner, GoalListener listener) throws Exception {
+    return scanner.scan(filter, listener);
+  }
+
+  PluginDescriptor parseXml(DescriptorSource.XmlSource source, GoalListener listener)
+      throws Exception {
+    if (cache == null) {
+      return parseSource(source, listener);
+    }
+    boolean[] parsed = new boolean[1];
+    PluginDescriptor descriptor =
+        cache.get(
+            source,
+            mode,
+            filter,
+            loaded -> {
+              parsed[0] = true;
+              return parseSource(source, listener);
+            });
+    if (!parsed[0]) {
+      for (Goal goal : descriptor.getGoals()) {
+        listener.goalParsed(goal);
+      }
+    }
+    return descriptor;
+  }
+
+  private PluginDescriptor parseSource(DescriptorSource.XmlSource source, GoalListener listener)
+      throws Exception {
+    try (InputStream in = source.open()) {
+      return parse(in, listener);
+    }
+  }
+
+  public PluginDescriptor parse(InputStream in) throws Exception {
+    return parse(in, IGNORE);
+  }
+
+  private PluginDescriptor parse(InputStream in, GoalListener listener) throws Exception {
+    if (mode == Mode.DOM) {
+      DocumentBuilder dBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+      return parseDom(dBuilder.parse(in), listener);
+    }
+    return parseStax(in, listener);
+  }
+
+  private static XMLInputFactory createInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    return factory;
+  }
+
+  private PluginDescriptor parseStax(InputStream in, GoalListener listener) throws Exception {
+    XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(in);
+    try {
+      reader.nextTag();
+      PluginDescriptor.Builder descriptor = PluginDescriptor.builder();
+
+      while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+        switch (reader.getLocalName()) {
+          case "groupId":
+            descriptor.groupId(readText(reader));
+            break;
+          case "artifactId":
+            descriptor.artifactId(readText(reader));
+            break;
+          case "version":
+            descriptor.version(readText(reader));
+            break;
+          case "name":
+            descriptor.name(readText(reader));
+            break;
+          case "description":
+            descriptor.description(readText(reader));
+            break;
+          case "mojos":
+            while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+              if ("mojo".equals(reader.getLocalName())) {
+                Goal goal = readMojo(reader);
+                if (goal != null) {
+                  descriptor.addGoal(goal);
+                  listener.goalParsed(goal);
+                }
+              } else {
+                skipElement(reader);
+              }
+            }
+            break;
+          default:
+            skipElement(reader);
+        }
+      }
+
+      return descriptor.build();
+    } finally {
+      reader.close();
+    }
+  }
+
+  // null when the goal is filtered out; the plugin plugin writes <goal> first, so the rest of an
+  // excluded mojo, parameters included, is only skipped over and never modelled
+  private Goal readMojo(XMLStreamReader reader) throws XMLStreamException {
+    Goal.Builder goal = Goal.builder();
+    boolean named = false;
+
+    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      switch (reader.getLocalName()) {
+        case "goal":
+          String name = readText(reader);
+          if (!filter.accepts(name)) {
+            skipElement(reader);
+            return null;
+          }
+          goal.name(name);
+          named = true;
+          break;
+        case "description":
+          goal.description(readText(reader));
+          break;
+        case "implementation":
+          goal.implementation(readText(reader));
+          break;
+        case "phase":
+          goal.phase(readText(reader));
+          break;
+        case "parameters":
+          while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if ("parameter".equals(reader.getLocalName())) {
+              goal.addParameter(readParameter(reader));
+            } else {
+              skipElement(reader);
+            }
+          }
+          break;
+        default:
+          skipElement(reader);
+      }
+    }
+
+    return named || filter.accepts(null) ? goal.build() : null;
+  }
+
+  private Parameter readParameter(XMLStreamReader reader) throws XMLStreamException {
+    Parameter.Builder parameter = Parameter.builder();
+
+    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      switch (reader.getLocalName()) {
+        case "name":
+          parameter.name(readText(reader));
+          break;
+        case "type":
+          parameter.type(readText(reader));
+          break;
+        case "description":
+          parameter.description(readText(reader));
+          break;
+        case "defaultValue":
+          parameter.defaultValue(readText(reader));
+          break;
+        case "required":
+          parameter.required("true".equals(readText(reader)));
+          break;
+        case "editable":
+          parameter.editable(!"false".equals(readText(reader)));
+          break;
+        default:
+          skipElement(reader);
+      }
+    }
+
+    return parameter.build();
+  }
+
+  // Same result as Node.getTextContent(): text of all descendants, in document order
+  private static String readText(XMLStreamReader reader) throws XMLStreamException {
+    StringBuilder text = null;
+    String single = "";
+    int depth = 1;
+    while (depth > 0) {
+      switch (reader.next()) {
+        case XMLStreamConstants.START_ELEMENT:
+          depth++;
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          depth--;
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.CDATA:
+        case XMLStreamConstants.SPACE:
+          if (text != null) {
+            text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+          } else if (single.isEmpty()) {
+            single = reader.getText();
+          } else {
+            text = new StringBuilder(single);
+            text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+          }
+          break;
+        default:
+          break;
+      }
+    }
+    return text != null ? text.toString() : single;
+  }
+
+  private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+    int depth = 1;
+    while (depth > 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      }
+    }
+  }
+
+  private PluginDescriptor parseDom(File pluginDescriptorFile) throws Exception {
     DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
     DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-    Document doc = dBuilder.parse(pluginDescriptorFile);
+    return parseDom(dBuilder.parse(pluginDescriptorFile), IGNORE);
+  }
+
+  private PluginDescriptor parseDom(Document doc, GoalListener listener) throws Exception {
     doc.getDocumentElement().normalize();
 
-    PluginDescriptor descriptor = new PluginDescriptor();
+    PluginDescriptor.Builder descriptor = PluginDescriptor.builder();
 
     Element root = doc.getDocumentElement();
 
-    descriptor.setGroupId(getTextContent(root, "groupId"));
-    descriptor.setArtifactId(getTextContent(root, "artifactId"));
-    descriptor.setVersion(getTextContent(root, "version"));
-    descriptor.setName(getTextContent(root, "name"));
-    descriptor.setDescription(getTextContent(root, "description"));
+    descriptor.groupId(getTextContent(root, "groupId"));
+    descriptor.artifactId(getTextContent(root, "artifactId"));
+    descriptor.version(getTextContent(root, "version"));
+    descriptor.name(getTextContent(root, "name"));
+    descriptor.description(getTextContent(root, "description"));
 
     NodeList mojosList = root.getElementsByTagName("mojos");
     if (mojosList.getLength() > 0) {
@@ -33,21 +342,24 @@ public class PluginDescriptorParser {
 
       for (int i = 0; i < mojoNodes.getLength(); i++) {
         Element mojoElement = (Element) mojoNodes.item(i);
-        Goal goal = parseMojo(mojoElement);
-        descriptor.addGoal(goal);
+        if (filter.accepts(getTextContent(mojoElement, "goal"))) {
+          Goal goal = parseMojo(mojoElement);
+          descriptor.addGoal(goal);
+          listener.goalParsed(goal);
+        }
       }
     }
 
-    return descriptor;
+    return descriptor.build();
   }
 
   private Goal parseMojo(Element mojoElement) {
-    Goal goal = new Goal();
+    Goal.Builder goal = Goal.builder();
 
-    goal.setName(getTextContent(mojoElement, "goal"));
-    goal.setDescription(getTextContent(mojoElement, "description"));
-    goal.setImplementation(getTextContent(mojoElement, "implementation"));
-    goal.setPhase(getTextContent(mojoElement, "phase"));
+    goal.name(getTextContent(mojoElement, "goal"));
+    goal.description(getTextContent(mojoElement, "description"));
+    goal.implementation(getTextContent(mojoElement, "implementation"));
+    goal.phase(getTextContent(mojoElement, "phase"));
 
     NodeList parametersNodeList = mojoElement.getElementsByTagName("parameters");
     if (parametersNodeList.getLength() > 0) {
@@ -61,24 +373,24 @@ public class PluginDescriptorParser {
       }
     }
 
-    return goal;
+    return goal.build();
   }
 
   private Parameter parseParameter(Element paramElement) {
-    Parameter parameter = new Parameter();
+    Parameter.Builder parameter = Parameter.builder();
 
-    parameter.setName(getTextContent(paramElement, "name"));
-    parameter.setType(getTextContent(paramElement, "type"));
-    parameter.setDescription(getTextContent(paramElement, "description"));
-    parameter.setDefaultValue(getTextContent(paramElement, "defaultValue"));
+    parameter.name(getTextContent(paramElement, "name"));
+    parameter.type(getTextContent(paramElement, "type"));
+    parameter.description(getTextContent(paramElement, "description"));
+    parameter.defaultValue(getTextContent(paramElement, "defaultValue"));
 
     String required = getTextContent(paramElement, "required");
-    parameter.setRequired("true".equals(required));
+    parameter.required("true".equals(required));
 
     String editable = getTextContent(paramElement, "editable");
-    parameter.setEditable(!"false".equals(editable));
+    parameter.editable(!"false".equals(editable));
 
-    return parameter;
+    return parameter.build();
   }
 
   private String getTextContent(Element parent, String tagName) {
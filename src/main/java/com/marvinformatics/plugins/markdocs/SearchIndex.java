@@ -0,0 +1,305 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Inverted index of goal names, parameter names, types and description terms, written as {@value
+ * #FILE_NAME} for client-side search. It is filled from the model while the pages render, so no
+ * page is read back.
+ *
+ * <pre>
+ * {"version":1,
+ *  "documents":["check-project.md","check-project.md#haltOnFailure",...],
+ *  "terms":["aggregate","boolean",...],
+ *  "postings":[[5,11],[6],...]}
+ * </pre>
+ *
+ * <p>{@code terms} are lower case and sorted by UTF-16 code units, the order of JavaScript string
+ * comparison, so a browser can binary-search a term or a prefix directly. {@code postings[i]} lists
+ * the ascending matches of {@code terms[i]}, each encoded as {@code document * 4 + field}, field
+ * being 0 for a goal name, 1 for a parameter name, 2 for a type and 3 for a description.
+ */
+final class SearchIndex {
+
+  static final String FILE_NAME = "markdocs-index.json";
+
+  static final int FIELD_GOAL = 0;
+  static final int FIELD_PARAMETER = 1;
+  static final int FIELD_TYPE = 2;
+  static final int FIELD_DESCRIPTION = 3;
+
+  private static final int FORMAT_VERSION = 1;
+  private static final int MIN_TERM_LENGTH = 2;
+  private static final int MAX_TERM_LENGTH = 40;
+
+  private static final Postings STOP = new Postings(null);
+
+  private static final Set<String> STOP_WORDS =
+      Set.of(
+          "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "if", "in", "is", "it",
+          "its", "of", "on", "or", "that", "the", "this", "to", "when", "which", "will", "with");
+
+  private final List<String> documents = new ArrayList<>();
+  private final StringBuilder term = new StringBuilder(MAX_TERM_LENGTH);
+
+  // open addressing on the term's String hash, so looking up a word allocates nothing
+  private String[] keys = new String[1024];
+  private Postings[] values = new Postings[1024];
+  private int used;
+  private int termCount;
+
+  SearchIndex() {
+    // stop words are entered once and then found like any other word
+    for (String word : STOP_WORDS) {
+      insert(word, STOP);
+    }
+  }
+
+  int documentCount() {
+    return documents.size();
+  }
+
+  int termCount() {
+    return termCount;
+  }
+
+  /** Indexes the goal and each of its parameters as documents of its page. */
+  void addGoal(Goal goal, String page) {
+    int document = addDocument(page);
+    addName(goal.getName(), document, FIELD_GOAL);
+    addText(goal.getDescription(), document, FIELD_DESCRIPTION);
+
+    for (Parameter parameter : goal.getParameters()) {
+      document = addDocument(page + '#' + parameter.getName());
+      addName(parameter.getName(), document, FIELD_PARAMETER);
+      String type = parameter.getType();
+      if (type != null) {
+        term.setLength(0);
+        term.append(type.toLowerCase(Locale.ROOT));
+        addTerm(document, FIELD_TYPE);
+        addText(type.substring(type.lastIndexOf('.') + 1), document, FIELD_TYPE);
+      }
+      addText(parameter.getDescription(), document, FIELD_DESCRIPTION);
+    }
+  }
+
+  void writeJson(Appendable out) throws IOException {
+    Postings[] sorted = new Postings[termCount];
+    int count = 0;
+    for (Postings postings : values) {
+      if (postings != null && postings != STOP) {
+        sorted[count++] = postings;
+      }
+    }
+    Arrays.sort(sorted, (a, b) -> a.term.compareTo(b.term));
+
+    out.append("{\"version\":").append(Integer.toString(FORMAT_VERSION));
+    out.append(",\n\"documents\":[");
+    for (int i = 0; i < documents.size(); i++) {
+      if (i > 0) {
+        out.append(',');
+      }
+      appendString(documents.get(i), out);
+    }
+    out.append("],\n\"terms\":[");
+    for (int i = 0; i < sorted.length; i++) {
+      if (i > 0) {
+        out.append(',');
+      }
+      appendString(sorted[i].term, out);
+    }
+    out.append("],\n\"postings\":[");
+    for (int i = 0; i < sorted.length; i++) {
+      out.append(i > 0 ? ",[" : "[");
+      Postings postings = sorted[i];
+      for (int j = 0; j < postings.size; j++) {
+        if (j > 0) {
+          out.append(',');
+        }
+        out.append(Integer.toString(postings.values[j]));
+      }
+      out.append(']');
+    }
+    out.append("]}\n");
+  }
+
+  private int addDocument(String target) {
+    documents.add(target);
+    return documents.size() - 1;
+  }
+
+  // the whole name, and its words split at dashes and camel case humps
+  private void addName(String name, int document, int field) {
+    if (name == null) {
+      return;
+    }
+    term.setLength(0);
+    term.append(name.toLowerCase(Locale.ROOT));
+    addTerm(document, field);
+    term.setLength(0);
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (Character.isUpperCase(c) && i > 0 && Character.isLowerCase(name.charAt(i - 1))) {
+        flushTerm(document, field);
+      }
+      if (Character.isLetterOrDigit(c)) {
+        term.append(Character.toLowerCase(c));
+      } else {
+        flushTerm(document, field);
+      }
+    }
+    flushTerm(document, field);
+  }
+
+  // words of descriptor text, skipping HTML tags and entities
+  private void addText(String text, int document, int field) {
+    if (text == null) {
+      return;
+    }
+    term.setLength(0);
+    int length = text.length();
+    for (int i = 0; i < length; i++) {
+      char c = text.charAt(i);
+      if (Character.isLetterOrDigit(c)) {
+        term.append(Character.toLowerCase(c));
+        continue;
+      }
+      flushTerm(document, field);
+      if (c == '<' && i + 1 < length && isTagStart(text.charAt(i + 1))) {
+        int end = text.indexOf('>', i);
+        i = end < 0 ? length : end;
+      } else if (c == '&') {
+        int end = i + 1;
+        while (end < length && end - i <= 8 && Character.isLetterOrDigit(text.charAt(end))) {
+          end++;
+        }
+        if (end < length && text.charAt(end) == ';') {
+          i = end;
+        }
+      }
+    }
+    flushTerm(document, field);
+  }
+
+  private void flushTerm(int document, int field) {
+    int length = term.length();
+    if (length >= MIN_TERM_LENGTH && length <= MAX_TERM_LENGTH) {
+      addTerm(document, field);
+    }
+    term.setLength(0);
+  }
+
+  // adds the word in the term buffer, unless it is a stop word
+  private void addTerm(int document, int field) {
+    Postings postings = find();
+    if (postings == null) {
+      String word = term.toString();
+      postings = new Postings(word);
+      insert(word, postings);
+      termCount++;
+    }
+    if (postings != STOP) {
+      postings.add(document * 4 + field);
+    }
+  }
+
+  private Postings find() {
+    int hash = termHash();
+    int mask = keys.length - 1;
+    for (int slot = (hash ^ (hash >>> 16)) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+      if (keys[slot].hashCode() == hash && keys[slot].contentEquals(term)) {
+        return values[slot];
+      }
+    }
+    return null;
+  }
+
+  private void insert(String word, Postings postings) {
+    int hash = word.hashCode();
+    int mask = keys.length - 1;
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    while (keys[slot] != null) {
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = word;
+    values[slot] = postings;
+    if (++used * 2 > keys.length) {
+      grow();
+    }
+  }
+
+  // String.hashCode of the term buffer
+  private int termHash() {
+    int hash = 0;
+    for (int i = 0; i < term.length(); i++) {
+      hash = 31 * hash + term.charAt(i);
+    }
+    return hash;
+  }
+
+  private void grow() {
+    String[] oldKeys = keys;
+    Postings[] oldValues = values;
+    keys = new String[oldKeys.length * 2];
+    values = new Postings[oldKeys.length * 2];
+    int mask = keys.length - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != null) {
+        int hash = oldKeys[i].hashCode();
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (keys[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  private static boolean isTagStart(char c) {
+    return Character.isLetter(c) || c == '/' || c == '!';
+  }
+
+  static void appendString(String value, Appendable out) throws IOException {
+    out.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        out.append('\\').append(c);
+      } else if (c == '\n') {
+        out.append("\\n");
+      } else if (c < 0x20) {
+        out.append(String.format("\\u%04x", (int) c));
+      } else {
+        out.append(c);
+      }
+    }
+    out.append('"');
+  }
+
+  // documents are added in order and each one's fields in order, so postings arrive ascending
+  private static final class Postings {
+    private final String term;
+    private int[] values = new int[2];
+    private int size;
+
+    Postings(String term) {
+      this.term = term;
+    }
+
+    void add(int posting) {
+      if (size > 0 && values[size - 1] >= posting) {
+        return;
+      }
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = posting;
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+/**
+ * Documents released versions of a plugin from the local repository, each into {@code
+ * <outputDirectory>/<version>/}, with an index linking to every version. A page that does not
+ * change from one version to the next is stored and rendered only once, see {@link PageStore}.
+ */
+@Mojo(name = "versions", requiresProject = false, threadSafe = true)
+public class VersionsMojo extends AbstractMarkDocsMojo {
+
+  /** {@code groupId:artifactId} of the plugin. */
+  @Parameter(property = "markdocs.plugin", required = true)
+  private String plugin;
+
+  /** Versions to document, oldest first; each jar must be in the local repository. */
+  @Parameter(property = "markdocs.versions", required = true)
+  private List<String> versions;
+
+  /** Relative to the working directory, as the goal runs without a project. */
+  @Parameter(property = "markdocs.versions.outputDirectory", defaultValue = "markdocs-versions")
+  private File outputDirectory;
+
+  /** Title of every version's overview and of the index; the artifactId when not set. */
+  @Parameter(property = "markdocs.title")
+  private String title;
+
+  @Override
+  public void execute() throws MojoExecutionException, MojoFailureException {
+    String coordinates = plugin.trim();
+    String artifactId = coordinates.substring(coordinates.indexOf(':') + 1);
+    String documentTitle = title != null && !title.isBlank() ? title : artifactId;
+
+    List<String> documented = new ArrayList<>();
+    List<DescriptorSource> sources = new ArrayList<>();
+    for (String version : versions) {
+      if (version != null && !version.isBlank()) {
+        // each version is a directory next to the one of the page store
+        if (version.trim().equalsIgnoreCase(PageStore.DIRECTORY_NAME)) {
+          throw new MojoExecutionException(
+              "Version " + version.trim() + " clashes with the page store in " + outputDirectory);
+        }
+        documented.add(version.trim());
+        sources.add(DescriptorSource.ofJar(resolvePluginJar(coordinates + ":" + version.trim())));
+      }
+    }
+    getLog()
+        .info(
+            "Generating markdown documentation for "
+                + documented.size()
+                + " versions of "
+                + coordinates);
+
+    String overviewPage;
+    ForkJoinPool pool = createPool();
+    try {
+      DocumentationGenerator generator = createGenerator(pool);
+      overviewPage = generator.getOverviewPage();
+      PageStore store = PageStore.open(outputDirectory);
+
+      // oldest first, so later versions find the pages of their unchanged goals already stored
+      for (int i = 0; i < documented.size(); i++) {
+        String version = documented.get(i);
+        if (generator.generateVersion(
+            sources.get(i), new File(outputDirectory, version), documentTitle, store)) {
+          getLog().info("Documented version " + version);
+        } else {
+          getLog().info("Documentation of version " + version + " is up to date");
+        }
+      }
+
+      int removed = store.save();
+      if (removed > 0) {
+        getLog().info("Removed " + removed + " pages no version refers to anymore");
+      }
+      logCacheStatistics(generator);
+      writeMetrics(generator, outputDirectory);
+    } catch (IOException e) {
+      throw new MojoExecutionException("Failed to update the page store in " + outputDirectory, e);
+    } finally {
+      sources.forEach(DescriptorSource::close);
+      pool.shutdown();
+    }
+
+    try (PageBuffer buffer = PageBuffer.acquire()) {
+      writeIndex(documentTitle, documented, overviewPage, buffer);
+      File index = new File(outputDirectory, "README.md");
+      DocumentationGenerator.writeIfChanged(buffer, index.toPath());
+    } catch (IOException e) {
+      throw new MojoExecutionException("Failed to write the version index", e);
+    }
+
+    getLog().info("Markdown documentation generated in: " + outputDirectory.getAbsolutePath());
+  }
+
+  // newest first, as readers mostly look for the latest release
+  private static void writeIndex(
+      String title, List<String> versions, String overviewPage, Appendable out) throws IOException {
+    out.append("# ");
+    MarkdownText.appendEscaped(title, out);
+    out.append("\n\n");
+    out.append("This directory provides documentation for each version of the plugin:\n\n");
+    for (int i = versions.size() - 1; i >= 0; i--) {
+      String version = versions.get(i);
+      out.append("- [");
+      MarkdownText.appendEscaped(version, out);
+      out.append("](").append(version).append('/').append(overviewPage).append(")\n");
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package com.marvinformatics.plugins.markdocs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+/**
+ * Keeps the documentation of a plugin under development up to date until stopped: whenever the
+ * plugin descriptor changes, e.g. after {@code mvn compile} in another terminal, it is parsed again
+ * and only the goals whose model changed are rendered and written.
+ */
+@Mojo(name = "watch", threadSafe = true)
+public class WatchMojo extends AbstractMarkDocsMojo {
+
+  @Parameter(
+      property = "markdocs.pluginDescriptor",
+      defaultValue = "${project.build.directory}/classes/META-INF/maven/plugin.xml")
+  private File pluginDescriptor;
+
+  @Parameter(
+      property = "markdocs.outputDirectory",
+      defaultValue = "${project.build.directory}/markdocs")
+  private File outputDirectory;
+
+  @Parameter(property = "markdocs.title", defaultValue = "${project.name}")
+  private String title;
+
+  /** Milliseconds without further changes before regenerating, so a burst is one update. */
+  @Parameter(property = "markdocs.watch.debounce", defaultValue = "100")
+  private int debounce;
+
+  @Override
+  public void execute() throws MojoExecutionException, MojoFailureException {
+    DescriptorSource source = DescriptorSource.ofFile(pluginDescriptor);
+    if (!source.exists()) {
+      throw new MojoExecutionException("Plugin descriptor not found: " + source);
+    }
+
+    ForkJoinPool pool = createPool();
+    try (DescriptorWatcher watcher = new DescriptorWatcher(pluginDescriptor.toPath(), debounce)) {
+      DocumentationGenerator generator = createGenerator(pool);
+      PluginDescriptor model = update(generator, source, null);
+
+      getLog().info("Watching " + pluginDescriptor + " for changes, press Ctrl+C to stop");
+      while (watcher.awaitChange()) {
+        if (source.exists()) {
+          model = update(generator, source, model);
+        }
+      }
+    } catch (IOException e) {
+      throw new MojoExecutionException("Failed to watch " + pluginDescriptor, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  // a failed update keeps the previous model, so the next change is compared with what is on disk
+  private PluginDescriptor update(
+      DocumentationGenerator generator, DescriptorSource source, PluginDescriptor model)
+      throws MojoExecutionException {
+    long start = System.nanoTime();
+    PluginDescriptor updated;
+    try {
+      updated = generator.update(source, outputDirectory, title, model);
+    } catch (MojoExecutionException e) {
+      getLog().warn("Failed to update documentation, waiting for the next change", e);
+      return model;
+    }
+    getLog()
+        .info(
+            "Documentation updated in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                + " ms: "
+                + outputDirectory.getAbsolutePath());
+    writeMetrics(generator, outputDirectory);
+    return updated;
+  }
+}
@@ -0,0 +1,109 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Aggregate Mojo Tests")
+class AggregateMojoTest {
+
+  @TempDir Path workDirectory;
+
+  @Test
+  @DisplayName("Should document every built plugin module and link them from the index")
+  void testAggregate() throws Exception {
+    MavenProject root = project("com.example", "parent", "pom", false);
+    root.setName("Example Plugins");
+    MavenProject first = project("com.example", "first-maven-plugin", "maven-plugin", true);
+    first.setDescription("The first\n[beta] plugin.");
+    MavenProject second = project("com.example", "second-maven-plugin", "maven-plugin", true);
+    second.setName("Second_Plugin");
+    Path output = workDirectory.resolve("aggregate");
+
+    mojo(output, root, List.of(root, first, second)).execute();
+
+    assertThat(output.resolve("first-maven-plugin/README.md")).isRegularFile();
+    assertThat(output.resolve("second-maven-plugin/check-project.md")).isRegularFile();
+    assertThat(Files.readString(output.resolve("README.md"), StandardCharsets.UTF_8))
+        .isEqualTo(
+            "# Example Plugins\n\n"
+                + "This directory provides documentation for each Maven plugin in this project:\n\n"
+                + "- [first-maven-plugin](first-maven-plugin/README.md): The first \\[beta\\] plugin.\n"
+                + "- [Second\\_Plugin](second-maven-plugin/README.md)\n");
+  }
+
+  @Test
+  @DisplayName("Should fail when plugin modules share an artifactId or none of them is built")
+  void testUnusableReactor() throws Exception {
+    MavenProject root = project("com.example", "parent", "pom", false);
+    MavenProject first = project("com.example", "docs-maven-plugin", "maven-plugin", true);
+    MavenProject second = project("org.example", "docs-maven-plugin", "maven-plugin", true);
+    Path output = workDirectory.resolve("aggregate");
+
+    assertThatThrownBy(() -> mojo(output, root, List.of(root, first, second)).execute())
+        .isInstanceOf(MojoExecutionException.class)
+        .hasMessageStartingWith(
+            "Plugins com.example:docs-maven-plugin and org.example:docs-maven-plugin would both");
+
+    MavenProject unbuilt = project("com.example", "unbuilt-maven-plugin", "maven-plugin", false);
+    assertThatThrownBy(() -> mojo(output, root, List.of(root, unbuilt)).execute())
+        .isInstanceOf(MojoExecutionException.class)
+        .hasMessageStartingWith("No plugin descriptor found in the 1 plugin modules");
+    assertThat(output.resolve("README.md")).doesNotExist();
+  }
+
+  private MavenProject project(
+      String groupId, String artifactId, String packaging, boolean withDescriptor)
+      throws Exception {
+    MavenProject project = new MavenProject();
+    project.setGroupId(groupId);
+    project.setArtifactId(artifactId);
+    project.setPackaging(packaging);
+    Path classes = workDirectory.resolve(groupId).resolve(artifactId).resolve("classes");
+    project.getBuild().setOutputDirectory(classes.toString());
+    if (withDescriptor) {
+      Path descriptor = classes.resolve("META-INF/maven/plugin.xml");
+      Files.createDirectories(descriptor.getParent());
+      Files.copy(Paths.get("src/test/resources/examples/easyjacoco/plugin.xml"), descriptor);
+    }
+    return project;
+  }
+
+  private static AggregateMojo mojo(Path output, MavenProject root, List<MavenProject> reactor)
+      throws Exception {
+    AggregateMojo mojo = new AggregateMojo();
+    mojo.setLog(new SystemStreamLog());
+    set(mojo, "project", root);
+    set(mojo, "reactorProjects", reactor);
+    set(mojo, "outputDirectory", output.toFile());
+    set(mojo, "title", root.getName());
+    set(mojo, "parserMode", PluginDescriptorParser.Mode.STAX);
+    set(mojo, "threads", 2);
+    return mojo;
+  }
+
+  private static void set(Object target, String name, Object value) throws Exception {
+    for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+      try {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+        return;
+      } catch (NoSuchFieldException e) {
+        // declared further up
+      }
+    }
+    throw new NoSuchFieldException(name);
+  }
+}
@@ -0,0 +1,150 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Descriptor Cache Tests")
+class DescriptorCacheTest {
+
+  private static final File EXAMPLE = new File("src/test/resources/examples/easyjacoco/plugin.xml");
+
+  @TempDir Path workDirectory;
+
+  private File pluginXml;
+  private File cacheDirectory;
+  private final AtomicInteger parses = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    pluginXml = workDirectory.resolve("plugin.xml").toFile();
+    Files.copy(EXAMPLE.toPath(), pluginXml.toPath());
+    cacheDirectory = workDirectory.resolve("cache").toFile();
+  }
+
+  @Test
+  @DisplayName("Should read an unchanged descriptor back without parsing it")
+  void testHit() throws Exception {
+    DescriptorCache cache = new DescriptorCache(cacheDirectory);
+
+    PluginDescriptor parsed = get(cache, PluginDescriptorParser.Mode.STAX);
+    PluginDescriptor cached =
+        get(new DescriptorCache(cacheDirectory), PluginDescriptorParser.Mode.STAX);
+
+    assertThat(parses).hasValue(1);
+    assertThat(cache.getMisses()).isEqualTo(1);
+    assertThat(cached).usingRecursiveComparison().isEqualTo(parsed);
+
+    MarkdownGenerator generator = new MarkdownGenerator();
+    assertThat(generator.generateOverview(cached, "Docs"))
+        .isEqualTo(generator.generateOverview(parsed, "Docs"));
+    for (int i = 0; i < parsed.getGoals().size(); i++) {
+      assertThat(generator.generateGoalPage(cached.getGoals().get(i)))
+          .isEqualTo(generator.generateGoalPage(parsed.getGoals().get(i)));
+    }
+  }
+
+  @Test
+  @DisplayName("Should count hits and misses")
+  void testStatistics() throws Exception {
+    DescriptorCache cache = new DescriptorCache(cacheDirectory);
+
+    get(cache, PluginDescriptorParser.Mode.STAX);
+    get(cache, PluginDescriptorParser.Mode.STAX);
+    get(cache, PluginDescriptorParser.Mode.STAX);
+
+    assertThat(cache.getMisses()).isEqualTo(1);
+    assertThat(cache.getHits()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Should parse again once the descriptor content changes")
+  void testContentChange() throws Exception {
+    DescriptorCache cache = new DescriptorCache(cacheDirectory);
+    get(cache, PluginDescriptorParser.Mode.STAX);
+
+    String xml = Files.readString(pluginXml.toPath(), StandardCharsets.UTF_8);
+    Files.writeString(pluginXml.toPath(), xml.replace("easy-jacoco", "other-jacoco"));
+    PluginDescriptor changed = get(cache, PluginDescriptorParser.Mode.STAX);
+
+    assertThat(parses).hasValue(2);
+    assertThat(changed.getArtifactId()).isEqualTo("other-jacoco-maven-plugin");
+  }
+
+  @Test
+  @DisplayName("Should keep using the entry when only the modification time changes")
+  void testTouch() throws Exception {
+    DescriptorCache cache = new DescriptorCache(cacheDirectory);
+    get(cache, PluginDescriptorParser.Mode.STAX);
+
+    assertThat(pluginXml.setLastModified(pluginXml.lastModified() - 60_000)).isTrue();
+    get(cache, PluginDescriptorParser.Mode.STAX);
+
+    assertThat(parses).hasValue(1);
+    assertThat(cache.getHits()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Should keep entries of different parser modes apart")
+  void testParserMode() throws Exception {
+    DescriptorCache cache = new DescriptorCache(cacheDirectory);
+
+    get(cache, PluginDescriptorParser.Mode.STAX);
+    get(cache, PluginDescriptorParser.Mode.DOM);
+
+    assertThat(parses).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("Should parse again when the entry is corrupt or from another format version")
+  void testCorruptEntry() throws Exception {
+    get(new DescriptorCache(cacheDirectory), PluginDescriptorParser.Mode.STAX);
+
+    File[] entries = cacheDirectory.listFiles();
+    assertThat(entries).hasSize(1);
+    byte[] bytes = Files.readAllBytes(entries[0].toPath());
+    bytes[7]++; // format version
+    Files.write(entries[0].toPath(), bytes);
+    get(new DescriptorCache(cacheDirectory), PluginDescriptorParser.Mode.STAX);
+
+    Files.write(entries[0].toPath(), new byte[] {1, 2, 3});
+    PluginDescriptor descriptor =
+        get(new DescriptorCache(cacheDirectory), PluginDescriptorParser.Mode.STAX);
+
+    assertThat(parses).hasValue(3);
+    assertThat(descriptor.getGoals()).hasSize(5);
+  }
+
+  @Test
+  @DisplayName("Should be consulted by the parser")
+  void testParserUsesCache() throws Exception {
+    DescriptorCache cache = new DescriptorCache(cacheDirectory);
+    PluginDescriptorParser parser =
+        new PluginDescriptorParser(PluginDescriptorParser.Mode.STAX, cache);
+
+    parser.parse(pluginXml);
+    parser.parse(DescriptorSource.ofFile(pluginXml));
+
+    assertThat(cache.getMisses()).isEqualTo(1);
+    assertThat(cache.getHits()).isEqualTo(1);
+  }
+
+  private PluginDescriptor get(DescriptorCache cache, PluginDescriptorParser.Mode mode)
+      throws Exception {
+    return cache.get(
+        DescriptorSource.ofFile(pluginXml),
+        mode,
+        source -> {
+          parses.incrementAndGet();
+          return new PluginDescriptorParser(mode).parse(source);
+        });
+  }
+}
@@ -0,0 +1,136 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Descriptor Diff Tests")
+class DescriptorDiffTest {
+
+  @Test
+  @DisplayName("Should find added, removed and changed goals and parameters")
+  void testCompare() {
+    PluginDescriptor from =
+        descriptor(
+            goal("check", "verify", parameter("haltOnFailure", "boolean", "true", false)),
+            goal("help", null, parameter("detail", "boolean", "false", false)),
+            goal("old", null));
+    PluginDescriptor to =
+        descriptor(
+            goal(
+                "check",
+                "validate",
+                parameter("haltOnFailure", "java.lang.Boolean", null, true),
+                parameter("skip", "boolean", "false", false)),
+            Goal.builder()
+                .name("help")
+                .description("Reworded.")
+                .addParameter(
+                    Parameter.builder()
+                        .name("detail")
+                        .type("boolean")
+                        .defaultValue("false")
+                        .description("Reworded too.")
+                        .build())
+                .build(),
+            goal("report", null));
+
+    DescriptorDiff diff = DescriptorDiff.compare("1.0", from, "1.1", to);
+
+    assertThat(diff.getAddedGoals()).extracting(Goal::getName).containsExactly("report");
+    assertThat(diff.getRemovedGoals()).extracting(Goal::getName).containsExactly("old");
+    // only descriptions of help changed
+    assertThat(diff.getChangedGoals()).hasSize(1);
+    DescriptorDiff.GoalChange check = diff.getChangedGoals().get(0);
+    assertThat(check.getName()).isEqualTo("check");
+    assertThat(check.isPhaseChanged()).isTrue();
+    assertThat(check.getAddedParameters()).extracting(Parameter::getName).containsExactly("skip");
+    assertThat(check.getRemovedParameters()).isEmpty();
+    assertThat(check.getChangedParameters()).hasSize(1);
+    assertThat(check.getChangedParameters().get(0).getTo().isRequired()).isTrue();
+  }
+
+  @Test
+  @DisplayName("Should write a changelog section per comparison")
+  void testChangelog() throws Exception {
+    PluginDescriptor first =
+        descriptor(goal("check", "verify", parameter("skip", null, null, false)));
+    PluginDescriptor second =
+        descriptor(
+            goal("check", "verify", parameter("skip", "boolean", "false", true)),
+            Goal.builder().name("report").description("<p>Writes a <b>report</b>.</p>").build());
+
+    StringBuilder out = new StringBuilder();
+    DescriptorDiff.writeChangelog(
+        "Plugin Changes",
+        List.of(
+            DescriptorDiff.compare("1.1", second, "1.2", second),
+            DescriptorDiff.compare("1.0", first, "1.1", second)),
+        out);
+
+    assertThat(out.toString())
+        .isEqualTo(
+            "# Plugin Changes\n\n"
+                + "## 1.2\n\nChanges since 1.1:\n\n"
+                + "No goals or parameters changed.\n\n"
+                + "## 1.1\n\nChanges since 1.0:\n\n"
+                + "### Added Goals\n\n"
+                + "- `report`: Writes a report.\n\n"
+                + "### Changed Goals\n\n"
+                + "#### `check`\n\n"
+                + "- Parameter `skip`: type changed from none to `boolean`\n"
+                + "- Parameter `skip`: default changed from none to `false`\n"
+                + "- Parameter `skip` is now required\n\n");
+  }
+
+  @Test
+  @DisplayName("Should compare goals with thousands of parameters")
+  void testLargeGoals() {
+    Goal.Builder fromGoal = Goal.builder().name("large");
+    Goal.Builder toGoal = Goal.builder().name("large");
+    for (int i = 0; i < 20_000; i++) {
+      fromGoal.addParameter(parameter("p" + i, "int", String.valueOf(i), false));
+      // every tenth parameter gets another default, and the last ones are renamed
+      String name = i < 19_000 ? "p" + i : "q" + i;
+      toGoal.addParameter(parameter(name, "int", String.valueOf(i % 10 == 0 ? -i : i), false));
+    }
+
+    DescriptorDiff diff =
+        DescriptorDiff.compare(
+            "1.0", descriptor(fromGoal.build()), "2.0", descriptor(toGoal.build()));
+
+    DescriptorDiff.GoalChange change = diff.getChangedGoals().get(0);
+    assertThat(change.getAddedParameters()).hasSize(1_000);
+    assertThat(change.getRemovedParameters()).hasSize(1_000);
+    // p0 keeps its default of 0
+    assertThat(change.getChangedParameters()).hasSize(1_899);
+  }
+
+  private static PluginDescriptor descriptor(Goal... goals) {
+    PluginDescriptor.Builder builder = PluginDescriptor.builder().name("Plugin");
+    for (Goal goal : goals) {
+      builder.addGoal(goal);
+    }
+    return builder.build();
+  }
+
+  private static Goal goal(String name, String phase, Parameter... parameters) {
+    Goal.Builder builder = Goal.builder().name(name).phase(phase);
+    for (Parameter parameter : parameters) {
+      builder.addParameter(parameter);
+    }
+    return builder.build();
+  }
+
+  private static Parameter parameter(
+      String name, String type, String defaultValue, boolean required) {
+    return Parameter.builder()
+        .name(name)
+        .type(type)
+        .defaultValue(defaultValue)
+        .required(required)
+        .build();
+  }
+}
@@ -0,0 +1,113 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Descriptor Source Tests")
+class DescriptorSourceTest {
+
+  private final File pluginXml = new File("src/test/resources/examples/easyjacoco/plugin.xml");
+
+  @TempDir Path workDirectory;
+
+  @Test
+  @DisplayName("Should parse the descriptor straight out of a plugin jar")
+  void testParseFromJar() throws Exception {
+    File jar = createJar("easy-jacoco.jar", true);
+
+    DescriptorSource source = DescriptorSource.ofJar(jar);
+    PluginDescriptor fromJar = new PluginDescriptorParser().parse(source);
+    PluginDescriptor fromFile = new PluginDescriptorParser().parse(pluginXml);
+
+    assertThat(source.exists()).isTrue();
+    assertThat(source.openNanos()).isPositive();
+    assertThat(source.toString()).endsWith("easy-jacoco.jar!/META-INF/maven/plugin.xml");
+    assertThat(fromJar.getArtifactId()).isEqualTo(fromFile.getArtifactId());
+    assertThat(fromJar.getGoals())
+        .extracting(Goal::getName)
+        .containsExactlyElementsOf(fromFile.getGoals().stream().map(Goal::getName).toList());
+  }
+
+  @Test
+  @DisplayName("Should report jars without a plugin descriptor as missing")
+  void testJarWithoutDescriptor() throws Exception {
+    File jar = createJar("library.jar", false);
+
+    assertThat(DescriptorSource.ofJar(jar).exists()).isFalse();
+    assertThat(DescriptorSource.ofJar(new File(workDirectory.toFile(), "absent.jar")).exists())
+        .isFalse();
+    assertThatThrownBy(() -> DescriptorSource.ofJar(jar).open())
+        .hasMessageContaining("META-INF/maven/plugin.xml");
+  }
+
+  @Test
+  @DisplayName("Should fingerprint a jar descriptor by its content")
+  void testJarFingerprint() throws Exception {
+    String first =
+        GenerationManifest.fingerprint(
+            DescriptorSource.ofJar(createJar("a.jar", true)), "title=Docs", "1.0.0");
+    String second =
+        GenerationManifest.fingerprint(
+            DescriptorSource.ofJar(createJar("b.jar", true)), "title=Docs", "1.0.0");
+
+    assertThat(first).isEqualTo(second);
+
+    File changed = workDirectory.resolve("c.jar").toFile();
+    try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(changed.toPath()))) {
+      zip.putNextEntry(new ZipEntry(DescriptorSource.JAR_ENTRY));
+      zip.write(
+          Files.readString(pluginXml.toPath(), StandardCharsets.UTF_8)
+              .replace("<goal>help</goal>", "<goal>usage</goal>")
+              .getBytes(StandardCharsets.UTF_8));
+      zip.closeEntry();
+    }
+    assertThat(
+            GenerationManifest.fingerprint(DescriptorSource.ofJar(changed), "title=Docs", "1.0.0"))
+        .isNotEqualTo(first);
+  }
+
+  @Test
+  @DisplayName("Should open a jar once for the lookup, the fingerprint and the read")
+  void testJarOpenedOnce() throws Exception {
+    File jar = createJar("plugin.jar", true);
+    File library = createJar("library.jar", false);
+
+    try (DescriptorSource source = DescriptorSource.ofJar(jar)) {
+      assertThat(source.exists()).isTrue();
+      String fingerprint = GenerationManifest.fingerprint(source, "title=Docs", "1.0.0");
+      // the jar opened by the lookup is still read, not the one now at its path
+      Files.move(library.toPath(), jar.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+      assertThat(GenerationManifest.fingerprint(source, "title=Docs", "1.0.0"))
+          .isEqualTo(fingerprint);
+      assertThat(new PluginDescriptorParser().parse(source).getGoals()).isNotEmpty();
+      // reading handed the jar over, so the next lookup opens it again
+      assertThat(source.exists()).isFalse();
+    }
+  }
+
+  private File createJar(String name, boolean withDescriptor) throws Exception {
+    File jar = workDirectory.resolve(name).toFile();
+    try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(jar.toPath()))) {
+      zip.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+      zip.write("Manifest-Version: 1.0\n".getBytes(StandardCharsets.UTF_8));
+      zip.closeEntry();
+      if (withDescriptor) {
+        zip.putNextEntry(new ZipEntry(DescriptorSource.JAR_ENTRY));
+        zip.write(Files.readAllBytes(pluginXml.toPath()));
+        zip.closeEntry();
+      }
+    }
+    return jar;
+  }
+}
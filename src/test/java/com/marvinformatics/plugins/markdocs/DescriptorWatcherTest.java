@@ -0,0 +1,108 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Descriptor Watcher Tests")
+class DescriptorWatcherTest {
+
+  @TempDir Path workDirectory;
+
+  private Path pluginXml;
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    pluginXml = workDirectory.resolve("plugin.xml");
+    Files.copy(Paths.get("src/test/resources/examples/easyjacoco/plugin.xml"), pluginXml);
+    executor = Executors.newSingleThreadExecutor();
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("Should report a burst of writes to the descriptor as one change")
+  void testChange() throws Exception {
+    try (DescriptorWatcher watcher = new DescriptorWatcher(pluginXml, 200)) {
+      Future<Boolean> change = executor.submit(watcher::awaitChange);
+      Files.writeString(pluginXml, "<plugin>", StandardCharsets.UTF_8);
+      Files.writeString(pluginXml, "<plugin></plugin>", StandardCharsets.UTF_8);
+
+      assertThat(change.get(10, TimeUnit.SECONDS)).isTrue();
+
+      Future<Boolean> next = executor.submit(watcher::awaitChange);
+      assertThatThrownBy(() -> next.get(500, TimeUnit.MILLISECONDS))
+          .isInstanceOf(TimeoutException.class);
+    }
+  }
+
+  @Test
+  @DisplayName("Should ignore other files in the directory and stop once closed")
+  void testOtherFiles() throws Exception {
+    DescriptorWatcher watcher = new DescriptorWatcher(pluginXml, 0);
+    Future<Boolean> change = executor.submit(watcher::awaitChange);
+    Files.writeString(workDirectory.resolve("other.xml"), "<other/>", StandardCharsets.UTF_8);
+
+    assertThatThrownBy(() -> change.get(500, TimeUnit.MILLISECONDS))
+        .isInstanceOf(TimeoutException.class);
+
+    watcher.close();
+    assertThat(change.get(10, TimeUnit.SECONDS)).isFalse();
+  }
+
+  @Test
+  @DisplayName("Should only render the goals whose model changed")
+  void testUpdate() throws Exception {
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      DocumentationGenerator generator = new DocumentationGenerator(new SystemStreamLog(), pool);
+      GenerationMetrics metrics = new GenerationMetrics();
+      generator.setMetrics(metrics);
+      DescriptorSource source = DescriptorSource.ofFile(pluginXml.toFile());
+      Path output = workDirectory.resolve("docs");
+
+      PluginDescriptor model = generator.update(source, output.toFile(), "Docs", null);
+      assertThat(metrics.toJson()).contains("\"render\": {\"count\": 6,");
+
+      String xml = Files.readString(pluginXml, StandardCharsets.UTF_8);
+      Files.writeString(
+          pluginXml,
+          xml.replace("<description>Generates an aggregated", "<description>Builds an aggregated"),
+          StandardCharsets.UTF_8);
+      GenerationMetrics second = new GenerationMetrics();
+      generator.setMetrics(second);
+      PluginDescriptor updated = generator.update(source, output.toFile(), "Docs", model);
+
+      // the overview and report-project
+      assertThat(second.toJson())
+          .contains("\"render\": {\"count\": 2,")
+          .contains("\"pages\": {\"written\": 2, \"unchanged\": 4, \"removed\": 0}");
+      assertThat(updated.getGoal("report-project")).isNotEqualTo(model.getGoal("report-project"));
+      assertThat(updated.getGoal("help")).isEqualTo(model.getGoal("help"));
+      assertThat(Files.readString(output.resolve("report-project.md"), StandardCharsets.UTF_8))
+          .contains("Builds an aggregated");
+      assertThat(GenerationManifest.load(output.toFile()).getPages()).hasSize(6);
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Documentation Archive Tests")
+class DocumentationArchiveTest {
+
+  private static final DescriptorSource SOURCE =
+      DescriptorSource.ofFile(new File("src/test/resources/examples/easyjacoco/plugin.xml"));
+
+  @TempDir Path workDirectory;
+
+  private ForkJoinPool pool;
+  private DocumentationGenerator generator;
+
+  @BeforeEach
+  void setUp() {
+    pool = new ForkJoinPool(2);
+    generator = new DocumentationGenerator(new SystemStreamLog(), pool);
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.shutdown();
+  }
+
+  @Test
+  @DisplayName("Should stream the same pages as the output directory in goal order")
+  void testEntries() throws Exception {
+    File archive = workDirectory.resolve("target/docs.zip").toFile();
+    Path directory = workDirectory.resolve("docs");
+
+    assertThat(generator.generateArchive(SOURCE, archive, "Docs")).isTrue();
+    generator.generate(SOURCE, directory.toFile(), "Docs");
+
+    List<String> names = new ArrayList<>();
+    try (ZipFile zip = new ZipFile(archive)) {
+      for (ZipEntry entry : Collections.list(zip.entries())) {
+        names.add(entry.getName());
+        assertThat(zip.getInputStream(entry).readAllBytes())
+            .isEqualTo(Files.readAllBytes(directory.resolve(entry.getName())));
+        assertThat(entry.getTime()).isEqualTo(zip.entries().nextElement().getTime());
+      }
+    }
+    assertThat(names)
+        .containsExactly(
+            "README.md",
+            "check-project.md",
+            "help.md",
+            "instrument-jar.md",
+            "persist-report-project.md",
+            "report-project.md");
+    assertThat(archive.getParentFile().list()).containsExactly("docs.zip");
+  }
+
+  @Test
+  @DisplayName("Should keep an archive built from the same descriptor and configuration")
+  void testUpToDate() throws Exception {
+    File archive = workDirectory.resolve("docs.zip").toFile();
+    assertThat(generator.generateArchive(SOURCE, archive, "Docs")).isTrue();
+
+    assertThat(generator.generateArchive(SOURCE, archive, "Docs")).isFalse();
+    assertThat(generator.generateArchive(SOURCE, archive, "Other")).isTrue();
+
+    generator.setSearchIndex(true);
+    assertThat(generator.generateArchive(SOURCE, archive, "Other")).isTrue();
+    try (ZipFile zip = new ZipFile(archive)) {
+      assertThat(zip.getEntry(SearchIndex.FILE_NAME)).isNotNull();
+    }
+  }
+}
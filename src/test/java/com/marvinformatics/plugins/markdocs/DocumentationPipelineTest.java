@@ -0,0 +1,82 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Documentation Pipeline Tests")
+class DocumentationPipelineTest {
+
+  private static final DescriptorSource SOURCE =
+      DescriptorSource.ofFile(new File("src/test/resources/examples/easyjacoco/plugin.xml"));
+
+  @TempDir Path workDirectory;
+
+  @Test
+  @DisplayName("Should hand over each goal in document order, parsed or cached")
+  void testGoalListener() throws Exception {
+    DescriptorCache cache = new DescriptorCache(workDirectory.resolve("cache").toFile());
+    for (PluginDescriptorParser.Mode mode : PluginDescriptorParser.Mode.values()) {
+      PluginDescriptorParser parser = new PluginDescriptorParser(mode, cache);
+      for (int run = 0; run < 2; run++) {
+        List<Goal> handedOver = new ArrayList<>();
+        PluginDescriptor descriptor = parser.parse(SOURCE, handedOver::add);
+
+        assertThat(handedOver).containsExactlyElementsOf(descriptor.getGoals());
+      }
+    }
+    assertThat(cache.getHits()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Should write every page of a descriptor larger than the pipeline on one thread")
+  void testBackpressure() throws Exception {
+    Path pluginXml = workDirectory.resolve("plugin.xml");
+    Files.writeString(pluginXml, descriptor(200), StandardCharsets.UTF_8);
+    DescriptorSource source = DescriptorSource.ofFile(pluginXml.toFile());
+    Path output = workDirectory.resolve("docs");
+
+    ForkJoinPool pool = new ForkJoinPool(1);
+    try {
+      DocumentationGenerator generator = new DocumentationGenerator(new SystemStreamLog(), pool);
+      generator.setVerbose(false);
+      generator.generate(source, output.toFile(), "Docs");
+    } finally {
+      pool.shutdown();
+    }
+
+    PluginDescriptor descriptor = new PluginDescriptorParser().parse(source);
+    MarkdownGenerator markdown = new MarkdownGenerator();
+    assertThat(GenerationManifest.load(output.toFile()).getPages()).hasSize(201);
+    for (Goal goal : descriptor.getGoals()) {
+      assertThat(output.resolve(goal.getName() + ".md"))
+          .hasContent(markdown.generateGoalPage(goal));
+    }
+    assertThat(output.resolve("README.md"))
+        .hasContent(markdown.generateOverview(descriptor, "Docs"));
+  }
+
+  private static String descriptor(int goals) {
+    StringBuilder xml = new StringBuilder("<plugin><artifactId>many</artifactId><mojos>");
+    for (int i = 0; i < goals; i++) {
+      xml.append("<mojo><goal>goal-")
+          .append(i)
+          .append("</goal><description>Goal ")
+          .append(i)
+          .append(".</description><parameters><parameter><name>value")
+          .append(i)
+          .append("</name><type>java.lang.String</type></parameter></parameters></mojo>");
+    }
+    return xml.append("</mojos></plugin>").toString();
+  }
+}
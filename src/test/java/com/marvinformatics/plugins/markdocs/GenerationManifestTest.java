@@ -0,0 +1,65 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Generation Manifest Tests")
+class GenerationManifestTest {
+
+  private final File pluginXml = new File("src/test/resources/examples/easyjacoco/plugin.xml");
+
+  @TempDir Path outputDirectory;
+
+  @Test
+  @DisplayName("Should round-trip fingerprint and page hashes")
+  void testStoreAndLoad() throws Exception {
+    String fingerprint = GenerationManifest.fingerprint(pluginXml, "title=Docs", "1.0.0");
+    GenerationManifest manifest = new GenerationManifest(fingerprint);
+    manifest.putPage("README.md", GenerationManifest.hash(new byte[] {1}));
+    manifest.putPage("help.md", GenerationManifest.hash(new byte[] {2}));
+    manifest.store(outputDirectory.toFile());
+
+    GenerationManifest loaded = GenerationManifest.load(outputDirectory.toFile());
+
+    assertThat(loaded.getFingerprint()).isEqualTo(fingerprint);
+    assertThat(loaded.getPages()).containsExactlyInAnyOrder("README.md", "help.md");
+    assertThat(loaded.getPageHash("help.md")).isEqualTo(manifest.getPageHash("help.md"));
+  }
+
+  @Test
+  @DisplayName("Should only be up to date when fingerprint matches and all pages exist")
+  void testIsUpToDate() throws Exception {
+    String fingerprint = GenerationManifest.fingerprint(pluginXml, "title=Docs", "1.0.0");
+    GenerationManifest manifest = new GenerationManifest(fingerprint);
+    manifest.putPage("help.md", GenerationManifest.hash(new byte[0]));
+
+    assertThat(manifest.isUpToDate(fingerprint, outputDirectory.toFile())).isFalse();
+
+    Files.write(outputDirectory.resolve("help.md"), new byte[0]);
+    assertThat(manifest.isUpToDate(fingerprint, outputDirectory.toFile())).isTrue();
+
+    String otherConfiguration = GenerationManifest.fingerprint(pluginXml, "title=Other", "1.0.0");
+    String otherVersion = GenerationManifest.fingerprint(pluginXml, "title=Docs", "1.0.1");
+    assertThat(manifest.isUpToDate(otherConfiguration, outputDirectory.toFile())).isFalse();
+    assertThat(manifest.isUpToDate(otherVersion, outputDirectory.toFile())).isFalse();
+  }
+
+  @Test
+  @DisplayName("Should start empty when no manifest was written")
+  void testLoadMissing() throws Exception {
+    Files.write(outputDirectory.resolve("README.md"), "# Docs".getBytes(StandardCharsets.UTF_8));
+
+    GenerationManifest loaded = GenerationManifest.load(outputDirectory.toFile());
+
+    assertThat(loaded.getFingerprint()).isNull();
+    assertThat(loaded.getPages()).isEmpty();
+    assertThat(loaded.isUpToDate("anything", outputDirectory.toFile())).isFalse();
+  }
+}
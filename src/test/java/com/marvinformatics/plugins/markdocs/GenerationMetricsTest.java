@@ -0,0 +1,96 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Generation Metrics Tests")
+class GenerationMetricsTest {
+
+  @TempDir Path outputDirectory;
+
+  private final DescriptorSource source =
+      DescriptorSource.ofFile(new File("src/test/resources/examples/easyjacoco/plugin.xml"));
+
+  private ForkJoinPool pool;
+
+  @BeforeEach
+  void setUp() {
+    pool = new ForkJoinPool(2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.shutdown();
+  }
+
+  @Test
+  @DisplayName("Should count every phase and page of a generation")
+  void testGeneration() throws Exception {
+    GenerationMetrics metrics = generate();
+
+    String json = metrics.toJson();
+    assertThat(json)
+        .contains("\"plugins\": {\"generated\": 1, \"upToDate\": 0}")
+        .contains("\"pages\": {\"written\": 6, \"unchanged\": 0, \"removed\": 0}")
+        .contains("\"parse\": {\"count\": 1,")
+        .contains("\"render\": {\"count\": 6,")
+        .contains("\"write\": {\"count\": 6,");
+    assertThat(metrics.summary()).startsWith("6 pages written (0 unchanged, 0 removed), ");
+
+    long bytes;
+    try (Stream<Path> pages = Files.list(outputDirectory)) {
+      bytes =
+          pages
+              .filter(page -> page.toString().endsWith(".md"))
+              .mapToLong(page -> page.toFile().length())
+              .sum();
+    }
+    assertThat(json).contains("\"bytesWritten\": " + bytes + ",");
+  }
+
+  @Test
+  @DisplayName("Should count a plugin that was already up to date")
+  void testUpToDate() throws Exception {
+    generate();
+    GenerationMetrics metrics = generate();
+
+    assertThat(metrics.toJson())
+        .contains("\"plugins\": {\"generated\": 0, \"upToDate\": 1}")
+        .contains("\"pages\": {\"written\": 0, \"unchanged\": 0, \"removed\": 0}")
+        .contains("\"parse\": {\"count\": 0,");
+  }
+
+  @Test
+  @DisplayName("Should store the report next to the pages")
+  void testStore() throws Exception {
+    GenerationMetrics metrics = generate();
+
+    File file = metrics.store(outputDirectory.toFile());
+
+    assertThat(file).hasName(GenerationMetrics.FILE_NAME);
+    assertThat(Files.readString(file.toPath(), StandardCharsets.UTF_8))
+        .startsWith("{\n  \"wallTimeMillis\": ")
+        .endsWith("}\n");
+  }
+
+  private GenerationMetrics generate() throws Exception {
+    GenerationMetrics metrics = new GenerationMetrics();
+    DocumentationGenerator generator = new DocumentationGenerator(new SystemStreamLog(), pool);
+    generator.setMetrics(metrics);
+    generator.setVerbose(false);
+    generator.generate(source, outputDirectory.toFile(), "Easy JaCoCo");
+    return metrics;
+  }
+}
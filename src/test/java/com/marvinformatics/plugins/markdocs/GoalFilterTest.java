@@ -0,0 +1,83 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Goal Filter Tests")
+class GoalFilterTest {
+
+  private static final DescriptorSource SOURCE =
+      DescriptorSource.ofFile(new File("src/test/resources/examples/easyjacoco/plugin.xml"));
+
+  @TempDir Path cacheDirectory;
+
+  @Test
+  @DisplayName("Should match goal names with star and question mark wildcards")
+  void testPatterns() {
+    assertThat(GoalFilter.matches("check-*", "check-project")).isTrue();
+    assertThat(GoalFilter.matches("*-project", "report-project")).isTrue();
+    assertThat(GoalFilter.matches("*r*t-*", "persist-report-project")).isTrue();
+    assertThat(GoalFilter.matches("hel?", "help")).isTrue();
+    assertThat(GoalFilter.matches("hel?", "hel")).isFalse();
+    assertThat(GoalFilter.matches("help", "helper")).isFalse();
+    assertThat(GoalFilter.matches("*", "")).isTrue();
+  }
+
+  @Test
+  @DisplayName("Should select included goals unless excluded")
+  void testAccepts() {
+    GoalFilter filter = GoalFilter.of(List.of("*-project", "help"), List.of("persist-*"));
+
+    assertThat(filter.accepts("check-project")).isTrue();
+    assertThat(filter.accepts("help")).isTrue();
+    assertThat(filter.accepts("persist-report-project")).isFalse();
+    assertThat(filter.accepts("instrument-jar")).isFalse();
+    assertThat(filter.accepts(null)).isFalse();
+
+    assertThat(GoalFilter.of(null, List.of(" ", ""))).isSameAs(GoalFilter.ALL);
+    assertThat(GoalFilter.of(List.of(), List.of("help")).accepts(null)).isTrue();
+  }
+
+  @Test
+  @DisplayName("Should leave filtered mojos out of the model in both parser modes")
+  void testParser() throws Exception {
+    GoalFilter filter = GoalFilter.of(List.of(), List.of("help", "persist-*"));
+
+    for (PluginDescriptorParser.Mode mode : PluginDescriptorParser.Mode.values()) {
+      PluginDescriptor descriptor = new PluginDescriptorParser(mode, null, filter).parse(SOURCE);
+
+      assertThat(goalNames(descriptor))
+          .containsExactly("check-project", "instrument-jar", "report-project");
+      assertThat(descriptor.getGoal("help")).isNull();
+      assertThat(descriptor.getGoal("check-project").getParameters()).isNotEmpty();
+    }
+  }
+
+  @Test
+  @DisplayName("Should keep cache entries of different filters apart")
+  void testCache() throws Exception {
+    DescriptorCache cache = new DescriptorCache(cacheDirectory.toFile());
+    PluginDescriptorParser.Mode mode = PluginDescriptorParser.Mode.STAX;
+    GoalFilter helpOnly = GoalFilter.of(List.of("help"), List.of());
+
+    assertThat(new PluginDescriptorParser(mode, cache).parse(SOURCE).getGoals()).hasSize(5);
+    assertThat(goalNames(new PluginDescriptorParser(mode, cache, helpOnly).parse(SOURCE)))
+        .containsExactly("help");
+    assertThat(goalNames(new PluginDescriptorParser(mode, cache, helpOnly).parse(SOURCE)))
+        .containsExactly("help");
+
+    assertThat(cache.getMisses()).isEqualTo(2);
+    assertThat(cache.getHits()).isEqualTo(1);
+  }
+
+  private static List<String> goalNames(PluginDescriptor descriptor) {
+    return descriptor.getGoals().stream().map(Goal::getName).collect(Collectors.toList());
+  }
+}
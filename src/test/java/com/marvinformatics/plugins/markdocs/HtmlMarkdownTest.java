@@ -0,0 +1,136 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("HTML to Markdown Tests")
+class HtmlMarkdownTest {
+
+  @Test
+  @DisplayName("Should convert paragraphs and emphasis and decode entities")
+  void testParagraphs() throws IOException {
+    assertThat(markdown("First <b>bold</b> and <i>it</i>.\n<p>\nSecond &amp; &lt;x&gt; &#65;"))
+        .isEqualTo("First **bold** and *it*.\n\nSecond & \\<x> A");
+    assertThat(markdown("a<br>b<BR/>c")).isEqualTo("a  \nb  \nc");
+    assertThat(markdown("a<!-- hidden -->b &bogus; x&y")).isEqualTo("ab \\&bogus; x\\&y");
+  }
+
+  @Test
+  @DisplayName("Should write code spans fenced around their own backticks")
+  void testCode() throws IOException {
+    assertThat(markdown("Use <code>mvn  clean\n install</code> or {@code List<String>}"))
+        .isEqualTo("Use `mvn clean install` or `List<String>`");
+    assertThat(markdown("<code>a`b</code> and {@code `x`}")).isEqualTo("``a`b`` and `` `x` ``");
+    assertThat(markdown("{@code a {b} c} {@literal *x*}")).isEqualTo("`a {b} c` \\*x*");
+  }
+
+  @Test
+  @DisplayName("Should render targets with any other scheme as plain text")
+  void testUnsafeLinks() throws IOException {
+    assertThat(markdown("<a href=\"javascript:alert(1)\">run</a>")).isEqualTo("run");
+    assertThat(markdown("<a href='data:text/html,x'>a</a> <a href=\"VBScript:x\">b</a>"))
+        .isEqualTo("a b");
+    assertThat(markdown("<a href=\"javascript&#58;alert(1)\">c</a> <a href=\" java:x\">d</a>"))
+        .isEqualTo("c d");
+    assertThat(markdown("<a href=\"MAILTO:a@x.org\">mail</a> <a href=\"#top\">top</a>"))
+        .isEqualTo("[mail](MAILTO:a@x.org) [top](#top)");
+  }
+
+  @Test
+  @DisplayName("Should link web and relative targets and show Javadoc references as code")
+  void testLinks() throws IOException {
+    assertThat(markdown("See <a href=\"https://x.org/a b\">the <code>docs</code></a>"))
+        .isEqualTo("See [the `docs`](https://x.org/a%20b)");
+    assertThat(markdown("<a href=\"../Foo.html\">Foo</a> {@link Foo#bar(String, int)}"))
+        .isEqualTo("[Foo](../Foo.html) `Foo.bar(String, int)`");
+    assertThat(markdown("{@link #baz the baz} {@linkplain Foo}")).isEqualTo("the baz `Foo`");
+  }
+
+  @Test
+  @DisplayName("Should convert nested lists, code blocks and quotes")
+  void testBlocks() throws IOException {
+    assertThat(markdown("Options:<ul><li>one</li><li>two<ol><li>a</li><li>b</li></ol></li></ul>x"))
+        .isEqualTo("Options:\n\n- one\n- two\n  1. a\n  2. b\n\nx");
+    assertThat(markdown("Example:\n<pre>\n&lt;plugin&gt;\n  <b>x</b> {@code y}\n</pre>\nDone"))
+        .isEqualTo("Example:\n\n```\n<plugin>\n  x y\n```\n\nDone");
+    assertThat(markdown("<pre>a ``` b</pre>")).isEqualTo("````\na ``` b\n````");
+    assertThat(markdown("<blockquote>quoted <p>more</blockquote>out"))
+        .isEqualTo("> quoted\n>\n> more\n\nout");
+    assertThat(markdown("<h2>Title\n here</h2>text")).isEqualTo("#### Title here\n\ntext");
+  }
+
+  @Test
+  @DisplayName("Should keep tags that are not HTML and plain text lines as text")
+  void testText() throws IOException {
+    assertThat(markdown("configure: <projectRules><rule>x</rule></projectRules>"))
+        .isEqualTo("configure: \\<projectRules>\\<rule>x\\</rule>\\</projectRules>");
+    assertThat(markdown("line\n# hash\n* Element: BUNDLE"))
+        .isEqualTo("line\n\\# hash\n* Element: BUNDLE");
+  }
+
+  @Test
+  @DisplayName("Should indent parameter text and end it as a sentence")
+  void testSentence() throws IOException {
+    assertThat(sentence("<p>Sets <code>x</code></p>")).isEqualTo("Sets `x`.");
+    assertThat(sentence("One.<p>Two")).isEqualTo("One.\n\n  Two.");
+    assertThat(sentence("Items:<ul><li>a</li><li>b</li></ul>")).isEqualTo("Items:\n\n  - a\n  - b");
+    assertThat(sentence("Example<pre>x\ny</pre>")).isEqualTo("Example\n\n  ```\n  x\n  y\n  ```");
+    assertThat(sentence("   ")).isEqualTo(".");
+  }
+
+  @Test
+  @DisplayName("Should summarize the text of the description")
+  void testSummary() throws IOException {
+    StringBuilder out = new StringBuilder();
+    HtmlMarkdown.appendSummary("<p>Generates the <code>report</code>. More text.</p>", out);
+    assertThat(out.toString()).isEqualTo("Generates the report.");
+  }
+
+  @Test
+  @DisplayName("Should stay linear on unterminated tags, code spans and inline tags")
+  void testUnterminated() throws IOException {
+    assertThat(markdown("<code>abc <a href='http://x'>link")).isEqualTo("`abc link`");
+    assertThat(markdown("{@code unbalanced")).isEqualTo("{@code unbalanced");
+
+    StringBuilder html = new StringBuilder();
+    for (int i = 0; i < 100_000; i++) {
+      html.append("<a {@x <code x=\"");
+    }
+    // quadratic rescanning would not finish
+    assertThat(markdown(html.toString())).startsWith("\\<a {@x \\<code");
+  }
+
+  @Test
+  @DisplayName("Should flatten lists and quotes nested deeper than 16 levels")
+  void testDeepNesting() throws IOException {
+    assertThat(markdown("<ul><li>a<ul><li>b</li></ul></li><li>c</li></ul>"))
+        .isEqualTo("- a\n  - b\n- c");
+
+    int levels = 100_000;
+    String lists = markdown("<ul><li>x".repeat(levels) + "</li></ul>".repeat(levels) + "end");
+    // 15 levels of indent and the item of the deepest list, however deep the HTML goes
+    assertThat(lists.lines().mapToInt(String::length).max().getAsInt()).isEqualTo(15 * 2 + 3);
+    assertThat(lists).endsWith("\n\nend").hasSizeLessThan(levels * 40);
+
+    String quotes =
+        markdown("<blockquote>".repeat(levels) + "q<li>i" + "</blockquote>".repeat(levels));
+    assertThat(quotes).startsWith("> ".repeat(16) + "q\n" + "> ".repeat(16).trim() + "\n");
+    assertThat(quotes).contains("\n" + "> ".repeat(16) + "- i\n");
+    assertThat(quotes.lines().count()).isLessThan(2 * 16 + 4);
+  }
+
+  private static String markdown(String html) throws IOException {
+    StringBuilder out = new StringBuilder();
+    HtmlMarkdown.append(html, out);
+    return out.toString();
+  }
+
+  private static String sentence(String html) throws IOException {
+    StringBuilder out = new StringBuilder();
+    HtmlMarkdown.appendSentence(html, "  ", out);
+    return out.toString();
+  }
+}
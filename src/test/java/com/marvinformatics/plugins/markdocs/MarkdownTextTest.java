@@ -0,0 +1,97 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Markdown Text Tests")
+class MarkdownTextTest {
+
+  @Test
+  @DisplayName("Should escape characters that would start markdown syntax")
+  void testEscaping() throws IOException {
+    assertThat(escaped("Use *.exec or _foo_ with `x` and [a](b)"))
+        .isEqualTo("Use \\*.exec or \\_foo_ with \\`x\\` and \\[a\\](b)");
+    assertThat(escaped("# Heading\nnot # a heading")).isEqualTo("\\# Heading\nnot # a heading");
+    assertThat(escaped("path\\to\\file and \\*x")).isEqualTo("path\\to\\file and \\\\\\*x");
+  }
+
+  @Test
+  @DisplayName("Should leave list markers, line breaks and HTML untouched")
+  void testPlainText() throws IOException {
+    assertThat(escaped("Options:\n  * first\n  * second"))
+        .isEqualTo("Options:\n  * first\n  * second");
+    assertThat(escaped("a <b>bold</b> &amp; c")).isEqualTo("a <b>bold</b> &amp; c");
+  }
+
+  @Test
+  @DisplayName("Should trim sentences and end them with punctuation once")
+  void testSentence() throws IOException {
+    assertThat(sentence("  Skips the build ")).isEqualTo("Skips the build.");
+    assertThat(sentence("Skips the build.")).isEqualTo("Skips the build.");
+    assertThat(sentence("Really?")).isEqualTo("Really?");
+  }
+
+  @Test
+  @DisplayName("Should end the summary at the first real sentence end")
+  void testSummarySentence() throws IOException {
+    assertThat(summary("Internal class, only used to save the pom.xml to disk. Do not use."))
+        .isEqualTo("Internal class, only used to save the pom.xml to disk.");
+    assertThat(summary("Merges *.exec files, e.g. from modules. Then reports."))
+        .isEqualTo("Merges \\*.exec files, e.g. from modules.");
+    assertThat(summary("Requires version 1.2.3 or later"))
+        .isEqualTo("Requires version 1.2.3 or later.");
+    assertThat(summary("Is it ready? Check first.")).isEqualTo("Is it ready?");
+    assertThat(summary("  Spans\n   several\tlines.")).isEqualTo("Spans several lines.");
+  }
+
+  @Test
+  @DisplayName("Should cut long summaries at a word boundary with an ellipsis")
+  void testSummaryTruncation() throws IOException {
+    String description =
+        "Generates an aggregated coverage report for the entire project by merging execution"
+            + " data from every module.";
+
+    String summary = summary(description);
+
+    assertThat(summary)
+        .isEqualTo("Generates an aggregated coverage report for the entire project by merging...");
+    assertThat(summary.length()).isLessThanOrEqualTo(MarkdownText.SUMMARY_LENGTH);
+    assertThat(summary("Reports on every module, (including tests) and more", 30))
+        .isEqualTo("Reports on every module...");
+  }
+
+  @Test
+  @DisplayName("Should never cut a summary inside a surrogate pair or combining sequence")
+  void testSummaryHardCut() throws IOException {
+    String emoji = "👍🏽".repeat(10);
+    String accents = "é".repeat(10);
+
+    assertThat(summary(emoji, 10)).isEqualTo("👍🏽" + "...");
+    assertThat(summary(accents, 10)).isEqualTo("ééé...");
+  }
+
+  private static String escaped(String text) throws IOException {
+    StringBuilder out = new StringBuilder();
+    MarkdownText.appendEscaped(text, out);
+    return out.toString();
+  }
+
+  private static String sentence(String text) throws IOException {
+    StringBuilder out = new StringBuilder();
+    MarkdownText.appendSentence(text, out);
+    return out.toString();
+  }
+
+  private static String summary(String text) throws IOException {
+    return summary(text, MarkdownText.SUMMARY_LENGTH);
+  }
+
+  private static String summary(String text, int maxLength) throws IOException {
+    StringBuilder out = new StringBuilder();
+    MarkdownText.appendSummary(text, maxLength, out);
+    return out.toString();
+  }
+}
@@ -0,0 +1,91 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Mojo Class Scanner Tests")
+class MojoClassScannerTest {
+
+  // the mojos of this plugin, compiled with their class-retention annotations
+  private static final File CLASSES = new File("target/classes");
+
+  private static final PluginDescriptor PLUGIN =
+      PluginDescriptor.builder()
+          .groupId("com.marvinformatics.plugins")
+          .artifactId("markdocs-maven-plugin")
+          .version("1.0.0-SNAPSHOT")
+          .name("MarkDocs")
+          .build();
+
+  @TempDir Path workDirectory;
+
+  private ForkJoinPool pool;
+
+  @BeforeEach
+  void setUp() {
+    pool = new ForkJoinPool(2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.shutdown();
+  }
+
+  @Test
+  @DisplayName("Should model goals and inherited parameters from the compiled mojos")
+  void testScan() throws Exception {
+    MojoClassScanner scanner = new MojoClassScanner(CLASSES, PLUGIN, pool);
+
+    PluginDescriptor descriptor =
+        new PluginDescriptorParser().parse(DescriptorSource.ofClasses(scanner));
+
+    assertThat(descriptor.getName()).isEqualTo("MarkDocs");
+    assertThat(descriptor.getGoals())
+        .extracting(Goal::getName)
+        .contains("aggregate", "generate", "watch")
+        .isSorted();
+
+    Goal generate = descriptor.getGoal("generate");
+    assertThat(generate.getPhase()).isEqualTo("site");
+    assertThat(generate.getImplementation())
+        .isEqualTo("com.marvinformatics.plugins.markdocs.MarkDocsMojo");
+    assertThat(generate.getDescription()).isNull();
+    assertThat(generate.getParameter("outputDirectory"))
+        .isEqualTo(
+            Parameter.builder()
+                .name("outputDirectory")
+                .type("java.io.File")
+                .defaultValue("${project.build.directory}/markdocs")
+                .build());
+    // declared by the abstract superclass
+    assertThat(generate.getParameter("formats").getType()).isEqualTo("java.util.List");
+    assertThat(generate.getParameter("session").isRequired()).isTrue();
+    assertThat(generate.getParameter("session").isEditable()).isFalse();
+    assertThat(generate.getParameter("threads").getType()).isEqualTo("int");
+  }
+
+  @Test
+  @DisplayName("Should not read class files again whose bytes did not change")
+  void testState() throws Exception {
+    MojoClassScanner first = new MojoClassScanner(CLASSES, PLUGIN, pool);
+    first.setStateDirectory(workDirectory.toFile());
+    PluginDescriptor scanned = first.scan(GoalFilter.ALL, goal -> {});
+
+    MojoClassScanner second = new MojoClassScanner(CLASSES, PLUGIN, pool);
+    second.setStateDirectory(workDirectory.toFile());
+    PluginDescriptor rescanned = second.scan(GoalFilter.of(null, null), goal -> {});
+
+    assertThat(first.getRead()).isPositive();
+    assertThat(second.getRead()).isZero();
+    assertThat(second.getSkipped()).isEqualTo(first.getRead());
+    assertThat(rescanned.getGoals()).isEqualTo(scanned.getGoals());
+  }
+}
@@ -0,0 +1,129 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Name Linker Tests")
+class NameLinkerTest {
+
+  private static final Goal CHECK =
+      Goal.builder()
+          .name("check-project")
+          .description(
+              "<p>Fails when <code>haltOnFailure</code> is set, see report-project. Reads"
+                  + " dataFile and {@code outputDirectory}, but not haltOnFailures.</p>"
+                  + "<pre>haltOnFailure</pre>")
+          .addParameter(
+              Parameter.builder()
+                  .name("haltOnFailure")
+                  .type("boolean")
+                  .description("Unlike <code>skip</code> of report-project.")
+                  .build())
+          .addParameter(Parameter.builder().name("skip").type("boolean").build())
+          .build();
+
+  private static final Goal REPORT =
+      Goal.builder()
+          .name("report-project")
+          .description("Writes outputDirectory, like check-project.")
+          .addParameter(Parameter.builder().name("outputDirectory").type("File").build())
+          .addParameter(Parameter.builder().name("dataFile").type("File").build())
+          .addParameter(Parameter.builder().name("skip").type("boolean").build())
+          .build();
+
+  private static final Goal MERGE =
+      Goal.builder()
+          .name("merge")
+          .addParameter(Parameter.builder().name("dataFile").type("File").build())
+          .build();
+
+  private static final PluginDescriptor DESCRIPTOR =
+      PluginDescriptor.builder().name("Test").addGoal(CHECK).addGoal(REPORT).addGoal(MERGE).build();
+
+  @TempDir Path workDirectory;
+
+  @Test
+  @DisplayName("Should link goals, own parameters and parameters of one other goal")
+  void testLinks() throws Exception {
+    StringBuilder out = new StringBuilder();
+    new MarkdownGenerator().writeGoalPage(CHECK, NameLinker.of(DESCRIPTOR), out);
+
+    assertThat(out.toString())
+        .contains(
+            "Fails when [`haltOnFailure`](#haltOnFailure) is set, see"
+                + " [report-project](report-project.md). Reads dataFile and"
+                + " [`outputDirectory`](report-project.md#outputDirectory), but not"
+                + " haltOnFailures.\n\n```\nhaltOnFailure\n```")
+        .contains("  Unlike [`skip`](#skip) of [report-project](report-project.md).\n");
+  }
+
+  @Test
+  @DisplayName("Should not link the goal's own name or ordinary words in running text")
+  void testNoLinks() throws Exception {
+    StringBuilder out = new StringBuilder();
+    new MarkdownGenerator().writeGoalPage(REPORT, NameLinker.of(DESCRIPTOR), out);
+
+    assertThat(out.toString())
+        .contains(
+            "Writes [outputDirectory](#outputDirectory), like [check-project](check-project.md).");
+
+    Goal goal = Goal.builder().name("skip").description("Skip the check-project goal.").build();
+    PluginDescriptor descriptor =
+        PluginDescriptor.builder().name("Test").addGoal(goal).addGoal(CHECK).build();
+    StringBuilder text = new StringBuilder();
+    HtmlMarkdown.append(goal.getDescription(), NameLinker.of(descriptor), goal, text);
+    assertThat(text.toString()).isEqualTo("Skip the [check-project](check-project.md) goal.");
+  }
+
+  @Test
+  @DisplayName("Should prefer the longest name and find names in one pass")
+  void testLongestMatch() {
+    PluginDescriptor descriptor =
+        PluginDescriptor.builder()
+            .name("Test")
+            .addGoal(Goal.builder().name("report").build())
+            .addGoal(Goal.builder().name("report-project").build())
+            .addGoal(Goal.builder().name("project").build())
+            .build();
+
+    NameLinker.Matches matches = NameLinker.of(descriptor).find("a report-project report", null);
+
+    assertThat(matches.size()).isEqualTo(2);
+    assertThat(matches.target(0)).isEqualTo("report-project.md");
+    assertThat(matches.start(0)).isEqualTo(2);
+    assertThat(matches.end(0)).isEqualTo(16);
+    assertThat(matches.target(1)).isEqualTo("report.md");
+  }
+
+  @Test
+  @DisplayName("Should link the written pages only when enabled")
+  void testGenerate() throws Exception {
+    DescriptorSource source =
+        DescriptorSource.ofFile(new File("src/test/resources/examples/easyjacoco/plugin.xml"));
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      DocumentationGenerator generator = new DocumentationGenerator(new SystemStreamLog(), pool);
+      generator.setVerbose(false);
+      generator.setCrossLinks(true);
+      generator.generate(source, workDirectory.toFile(), "Docs");
+    } finally {
+      pool.shutdown();
+    }
+
+    PluginDescriptor descriptor = new PluginDescriptorParser().parse(source);
+    StringBuilder linked = new StringBuilder();
+    new MarkdownGenerator()
+        .writeGoalPage(descriptor.getGoal("check-project"), NameLinker.of(descriptor), linked);
+    assertThat(linked.toString()).contains("[projectRules](#projectRules)");
+    assertThat(workDirectory.resolve("check-project.md")).hasContent(linked.toString());
+    assertThat(new MarkdownGenerator().generateGoalPage(descriptor.getGoal("check-project")))
+        .doesNotContain("[projectRules](#projectRules)");
+  }
+}
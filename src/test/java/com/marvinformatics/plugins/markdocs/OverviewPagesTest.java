@@ -0,0 +1,112 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Overview Pages Tests")
+class OverviewPagesTest {
+
+  private static final List<Goal> GOALS =
+      List.of(
+          Goal.builder().name("report-site").phase("site").build(),
+          Goal.builder().name("help").build(),
+          Goal.builder().name("check-project").phase("verify").build(),
+          Goal.builder().name("report-project").phase("verify").build(),
+          Goal.builder().name("instrument").phase("process-classes").build());
+
+  @TempDir Path workDirectory;
+
+  @Test
+  @DisplayName("Should sort goals by lifecycle phase and head every group once per page")
+  void testGroupByPhase() {
+    OverviewPages pages = OverviewPages.of(GOALS, OverviewPages.GroupBy.PHASE, 2);
+
+    assertThat(pages.getPageCount()).isEqualTo(3);
+    assertThat(pages.isSinglePage()).isFalse();
+    assertThat(pages.getGoals(0))
+        .extracting(Goal::getName)
+        .containsExactly("instrument", "check-project");
+    assertThat(pages.getGoals(1))
+        .extracting(Goal::getName)
+        .containsExactly("report-project", "report-site");
+    assertThat(pages.getGoals(2)).extracting(Goal::getName).containsExactly("help");
+
+    assertThat(pages.getHeading(0, 0)).isEqualTo("Phase process-classes");
+    assertThat(pages.getHeading(0, 1)).isEqualTo("Phase verify");
+    assertThat(pages.getHeading(1, 0)).isEqualTo("Phase verify (continued)");
+    assertThat(pages.getHeading(1, 1)).isEqualTo("Phase site");
+    assertThat(pages.getHeading(2, 0)).isEqualTo("No default phase");
+  }
+
+  @Test
+  @DisplayName("Should group by name prefix and keep the plain overview without grouping")
+  void testGroupByPrefix() {
+    OverviewPages pages = OverviewPages.of(GOALS, OverviewPages.GroupBy.PREFIX, 0);
+
+    assertThat(pages.getPageCount()).isEqualTo(1);
+    assertThat(pages.getGoals(0))
+        .extracting(Goal::getName)
+        .containsExactly("check-project", "help", "instrument", "report-site", "report-project");
+    assertThat(pages.getHeading(0, 3)).isEqualTo("report");
+    assertThat(pages.getHeading(0, 4)).isNull();
+
+    OverviewPages plain = OverviewPages.of(GOALS, OverviewPages.GroupBy.NONE, 0);
+    assertThat(plain.isSinglePage()).isTrue();
+    assertThat(plain.getGoals(0)).isEqualTo(GOALS);
+    assertThat(plain.getHeading(0, 0)).isNull();
+  }
+
+  @Test
+  @DisplayName("Should number the pages after the overview")
+  void testPageName() {
+    assertThat(OverviewPages.pageName("README.md", 0)).isEqualTo("README.md");
+    assertThat(OverviewPages.pageName("README.md", 1)).isEqualTo("README-2.md");
+    assertThat(OverviewPages.pageName("markdown/README.md", 9)).isEqualTo("markdown/README-10.md");
+  }
+
+  @Test
+  @DisplayName("Should write every overview page with navigation and remove pages left over")
+  void testGenerate() throws Exception {
+    DescriptorSource source =
+        DescriptorSource.ofFile(new File("src/test/resources/examples/easyjacoco/plugin.xml"));
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      DocumentationGenerator generator = new DocumentationGenerator(new SystemStreamLog(), pool);
+      generator.setVerbose(false);
+      generator.setOverviewGroupBy(OverviewPages.GroupBy.PREFIX);
+      generator.setOverviewPageSize(2);
+      generator.generate(source, workDirectory.toFile(), "Docs");
+
+      assertThat(workDirectory.resolve("README-3.md")).exists();
+      assertThat(Files.readString(workDirectory.resolve("README-2.md")))
+          .startsWith("# Docs (page 2 of 3)\n")
+          .contains(
+              "**Pages:** [Previous](README.md) | [1](README.md) **2** [3](README-3.md)"
+                  + " | [Next](README-3.md)\n\n"
+                  + "## instrument\n\n- [instrument-jar](instrument-jar.md)")
+          .contains("\n## persist\n\n- [persist-report-project](persist-report-project.md)");
+
+      // as left by a mojo whose parameter was never injected
+      generator.setOverviewGroupBy(null);
+      generator.setOverviewPageSize(0);
+      generator.generate(source, workDirectory.toFile(), "Docs");
+    } finally {
+      pool.shutdown();
+    }
+
+    PluginDescriptor descriptor = new PluginDescriptorParser().parse(source);
+    assertThat(workDirectory.resolve("README.md"))
+        .hasContent(new MarkdownGenerator().generateOverview(descriptor, "Docs"));
+    assertThat(workDirectory.resolve("README-2.md")).doesNotExist();
+    assertThat(workDirectory.resolve("README-3.md")).doesNotExist();
+  }
+}
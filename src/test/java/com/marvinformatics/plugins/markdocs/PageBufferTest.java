@@ -0,0 +1,82 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Page Buffer Tests")
+class PageBufferTest {
+
+  @TempDir Path outputDirectory;
+
+  @Test
+  @DisplayName("Should write the same bytes and hash as encoding the whole page at once")
+  void testChunkedEncodingMatchesStringEncoding() throws Exception {
+    StringBuilder page = new StringBuilder();
+    for (int i = 0; i < 20_000; i++) {
+      // multi-byte characters and surrogate pairs end up straddling chunk boundaries
+      page.append("a").append("é").append("😀").append(i % 7 == 0 ? "\ud800" : "");
+    }
+    byte[] expected = page.toString().getBytes(StandardCharsets.UTF_8);
+
+    try (PageBuffer buffer = PageBuffer.acquire()) {
+      buffer.append(page);
+      Path file = outputDirectory.resolve("page.md");
+
+      String hash = buffer.writeTo(file);
+
+      assertThat(Files.readAllBytes(file)).isEqualTo(expected);
+      assertThat(hash).isEqualTo(GenerationManifest.hash(expected)).isEqualTo(buffer.hash());
+      assertThat(buffer.byteCount()).isEqualTo(expected.length);
+
+      PageBuffer.Encoded encoded = buffer.encode();
+      Path copy = outputDirectory.resolve("copy.md");
+      encoded.writeTo(copy);
+
+      assertThat(Files.readAllBytes(copy)).isEqualTo(expected);
+      assertThat(encoded.hash()).isEqualTo(hash);
+      assertThat(encoded.length()).isEqualTo(expected.length);
+    }
+  }
+
+  @Test
+  @DisplayName("Should render goal pages identically through the Appendable API")
+  void testStreamingRenderingMatchesStringRendering() throws Exception {
+    PluginDescriptor descriptor =
+        new PluginDescriptorParser()
+            .parse(new File("src/test/resources/examples/easyjacoco/plugin.xml"));
+    MarkdownGenerator generator = new MarkdownGenerator();
+
+    for (Goal goal : descriptor.getGoals()) {
+      try (PageBuffer buffer = PageBuffer.acquire()) {
+        generator.writeGoalPage(goal, buffer);
+        assertThat(buffer.toString()).isEqualTo(generator.generateGoalPage(goal));
+      }
+    }
+
+    try (PageBuffer buffer = PageBuffer.acquire()) {
+      generator.writeOverview(descriptor, "Docs", buffer);
+      assertThat(buffer.toString()).isEqualTo(generator.generateOverview(descriptor, "Docs"));
+    }
+  }
+
+  @Test
+  @DisplayName("Should create missing directories and leave unchanged files alone")
+  void testWriteIfChanged() throws Exception {
+    Path file = outputDirectory.resolve("markdown/goals/page.md");
+
+    try (PageBuffer buffer = PageBuffer.acquire()) {
+      buffer.append("# Page\n");
+
+      assertThat(DocumentationGenerator.writeIfChanged(buffer, file)).isTrue();
+      assertThat(DocumentationGenerator.writeIfChanged(buffer, file)).isFalse();
+    }
+    assertThat(file).hasContent("# Page");
+  }
+}
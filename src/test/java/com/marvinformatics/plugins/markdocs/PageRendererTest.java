@@ -0,0 +1,125 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.ForkJoinPool;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Page Renderer Tests")
+class PageRendererTest {
+
+  private static final DescriptorSource SOURCE =
+      DescriptorSource.ofFile(new File("src/test/resources/examples/easyjacoco/plugin.xml"));
+
+  @TempDir Path workDirectory;
+
+  @Test
+  @DisplayName("Should register the built-in formats as services")
+  void testServices() {
+    assertThat(ServiceLoader.load(PageRenderer.class))
+        .extracting(PageRenderer::getFormat)
+        .containsExactly("markdown", "asciidoc", "json");
+  }
+
+  @Test
+  @DisplayName("Should render a goal page as AsciiDoc")
+  void testAsciiDoc() throws Exception {
+    Goal goal =
+        Goal.builder()
+            .name("check-project")
+            .phase("verify")
+            .description("<p>Checks <b>coverage</b> of *.exec files.</p>")
+            .addParameter(
+                Parameter.builder()
+                    .name("haltOnFailure")
+                    .type("boolean")
+                    .required(true)
+                    .editable(true)
+                    .defaultValue("${halt}")
+                    .build())
+            .build();
+
+    StringBuilder out = new StringBuilder();
+    new AsciiDocRenderer().writeGoalPage(goal, out);
+
+    assertThat(out.toString())
+        .startsWith("= Check project Goal\n\n*Goal Name:* `+check-project+`\n\n")
+        .contains("*Description:* +\npass:c[Checks coverage of *.exec files.]\n\n")
+        .contains("* [[haltOnFailure]]*haltOnFailure* (boolean, Required) +\n")
+        .contains("_Default:_ `+${halt}+`\n\n")
+        .contains("[source,xml]\n----\n<plugin>\n")
+        .contains("    <haltOnFailure><!-- required --></haltOnFailure>\n");
+  }
+
+  @Test
+  @DisplayName("Should render a goal page as JSON")
+  void testJson() throws Exception {
+    Goal goal =
+        Goal.builder()
+            .name("help")
+            .description("Shows \"help\".")
+            .addParameter(Parameter.builder().name("detail").type("boolean").build())
+            .build();
+
+    StringBuilder out = new StringBuilder();
+    new JsonRenderer().writeGoalPage(goal, out);
+
+    assertThat(out.toString())
+        .isEqualTo(
+            "{\n"
+                + "  \"name\": \"help\",\n"
+                + "  \"phase\": null,\n"
+                + "  \"implementation\": null,\n"
+                + "  \"description\": \"Shows \\\"help\\\".\",\n"
+                + "  \"parameters\": [\n"
+                + "    {\"name\": \"detail\", \"type\": \"boolean\", \"required\": false,"
+                + " \"editable\": true, \"defaultValue\": null, \"description\": null}\n"
+                + "  ]\n"
+                + "}\n");
+  }
+
+  @Test
+  @DisplayName("Should write every format to its own directory from a single parse")
+  void testFormats() throws Exception {
+    Path output = workDirectory.resolve("docs");
+    GenerationMetrics metrics = new GenerationMetrics();
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      DocumentationGenerator generator = new DocumentationGenerator(new SystemStreamLog(), pool);
+      generator.setVerbose(false);
+      generator.setMetrics(metrics);
+      generator.setRenderers(
+          List.of(new MarkdownGenerator(), new AsciiDocRenderer(), new JsonRenderer()));
+      assertThat(generator.getOverviewPage()).isEqualTo("markdown/README.md");
+      generator.generate(SOURCE, output.toFile(), "Docs");
+    } finally {
+      pool.shutdown();
+    }
+
+    PluginDescriptor descriptor = new PluginDescriptorParser().parse(SOURCE);
+    MarkdownGenerator markdown = new MarkdownGenerator();
+    assertThat(metrics.toJson())
+        .contains("\"parse\": {\"count\": 1,")
+        .contains("\"render\": {\"count\": 18,");
+    assertThat(output.resolve("markdown/README.md"))
+        .hasContent(markdown.generateOverview(descriptor, "Docs"));
+    assertThat(output.resolve("markdown/help.md"))
+        .hasContent(markdown.generateGoalPage(descriptor.getGoal("help")));
+    assertThat(output.resolve("asciidoc/index.adoc")).isRegularFile();
+    assertThat(output.resolve("asciidoc/help.adoc")).isRegularFile();
+    assertThat(Files.readString(output.resolve("json/plugin.json"), StandardCharsets.UTF_8))
+        .contains("{\"name\": \"help\", \"page\": \"help.json\", \"phase\": null,");
+    assertThat(GenerationManifest.load(output.toFile()).getPages())
+        .hasSize(18)
+        .contains("asciidoc/check-project.adoc", "json/report-project.json");
+  }
+}
@@ -0,0 +1,133 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Page Store Tests")
+class PageStoreTest {
+
+  @TempDir Path workDirectory;
+
+  private Path root;
+  private DescriptorSource first;
+  private DescriptorSource second;
+  private ForkJoinPool pool;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    root = workDirectory.resolve("docs");
+    String xml =
+        Files.readString(
+            Paths.get("src/test/resources/examples/easyjacoco/plugin.xml"), StandardCharsets.UTF_8);
+    Path firstXml = workDirectory.resolve("first.xml");
+    Path secondXml = workDirectory.resolve("second.xml");
+    Files.writeString(firstXml, xml, StandardCharsets.UTF_8);
+    Files.writeString(
+        secondXml,
+        xml.replace("<description>Generates an aggregated", "<description>Builds an aggregated"),
+        StandardCharsets.UTF_8);
+    first = DescriptorSource.ofFile(firstXml.toFile());
+    second = DescriptorSource.ofFile(secondXml.toFile());
+    pool = new ForkJoinPool(2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.shutdown();
+  }
+
+  @Test
+  @DisplayName("Should link identical pages of two versions and only render changed goals")
+  void testHardLinks() throws Exception {
+    PageStore store = PageStore.open(root.toFile());
+    generate(store, first, "1.0");
+    GenerationMetrics metrics = generate(store, second, "1.1");
+    assertThat(store.save()).isZero();
+
+    // the overview and report-project
+    assertThat(metrics.toJson())
+        .contains("\"render\": {\"count\": 2,")
+        .contains("\"pages\": {\"written\": 2, \"unchanged\": 4, \"removed\": 0}");
+    assertThat(root.resolve("1.1/help.md")).isRegularFile();
+    assertThat(Files.isSameFile(root.resolve("1.0/help.md"), root.resolve("1.1/help.md"))).isTrue();
+    assertThat(Files.readString(root.resolve("1.1/report-project.md"), StandardCharsets.UTF_8))
+        .contains("Builds an aggregated");
+    assertThat(Files.readString(root.resolve("1.0/report-project.md"), StandardCharsets.UTF_8))
+        .contains("Generates an aggregated");
+  }
+
+  @Test
+  @DisplayName("Should link to the first version without hard links")
+  void testRedirects() throws Exception {
+    PageStore store = PageStore.open(root.toFile(), false);
+    generate(store, first, "1.0");
+    generate(store, second, "1.1");
+    store.save();
+
+    assertThat(Files.readString(root.resolve("1.1/help.md"), StandardCharsets.UTF_8))
+        .isEqualTo(
+            "# help\n\nThis page has not changed since version 1.0: [help](../1.0/help.md)\n");
+    assertThat(Files.readString(root.resolve("1.1/report-project.md"), StandardCharsets.UTF_8))
+        .contains("Builds an aggregated");
+  }
+
+  @Test
+  @DisplayName("Should skip up to date versions and drop pages no version refers to")
+  void testRemoveUnreferenced() throws Exception {
+    PageStore store = PageStore.open(root.toFile());
+    generate(store, first, "1.0");
+    generate(store, second, "1.1");
+    store.save();
+
+    PageStore reopened = PageStore.open(root.toFile());
+    DocumentationGenerator generator = new DocumentationGenerator(new SystemStreamLog(), pool);
+    assertThat(generator.generateVersion(first, root.resolve("1.0").toFile(), "Docs", reopened))
+        .isFalse();
+
+    Files.delete(root.resolve("1.1").resolve(GenerationManifest.FILE_NAME));
+    // the overview and report-project of 1.1
+    assertThat(reopened.save()).isEqualTo(2);
+    assertThat(Files.readString(root.resolve("1.0/report-project.md"), StandardCharsets.UTF_8))
+        .contains("Generates an aggregated");
+  }
+
+  @Test
+  @DisplayName("Should store every page with the extension of the pages linked to it")
+  void testExtensions() throws Exception {
+    PageStore store = PageStore.open(root.toFile());
+    DocumentationGenerator generator = new DocumentationGenerator(new SystemStreamLog(), pool);
+    generator.setSearchIndex(true);
+    generator.generateVersion(first, root.resolve("1.0").toFile(), "Docs", store);
+    assertThat(store.save()).isZero();
+
+    Path index = root.resolve("1.0").resolve(SearchIndex.FILE_NAME);
+    String hash =
+        GenerationManifest.load(root.resolve("1.0").toFile())
+            .getPageHash(index.getFileName().toString());
+    Path stored = root.resolve(PageStore.DIRECTORY_NAME).resolve(hash + ".json");
+    assertThat(stored).isRegularFile();
+    assertThat(Files.isSameFile(index, stored)).isTrue();
+    assertThat(root.resolve(PageStore.DIRECTORY_NAME).resolve(hash + ".md")).doesNotExist();
+  }
+
+  private GenerationMetrics generate(PageStore store, DescriptorSource source, String version)
+      throws Exception {
+    DocumentationGenerator generator = new DocumentationGenerator(new SystemStreamLog(), pool);
+    GenerationMetrics metrics = new GenerationMetrics();
+    generator.setMetrics(metrics);
+    assertThat(generator.generateVersion(source, root.resolve(version).toFile(), "Docs", store))
+        .isTrue();
+    return metrics;
+  }
+}
@@ -0,0 +1,123 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Page Template Tests")
+class PageTemplateTest {
+
+  private PluginDescriptor descriptor;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    descriptor =
+        new PluginDescriptorParser()
+            .parse(new File("src/test/resources/examples/easyjacoco/plugin.xml"));
+  }
+
+  @Test
+  @DisplayName("Should render the default templates exactly like the built-in layout")
+  void testDefaultTemplatesMatchBuiltInLayout() {
+    MarkdownGenerator builtIn = new MarkdownGenerator();
+    MarkdownGenerator templated =
+        new MarkdownGenerator(
+            MarkdownGenerator.compileOverviewTemplate(
+                "overview.mustache", MarkdownGenerator.defaultOverviewTemplate()),
+            MarkdownGenerator.compileGoalTemplate(
+                "goal.mustache", MarkdownGenerator.defaultGoalTemplate()));
+
+    assertThat(templated.generateOverview(descriptor, null))
+        .isEqualTo(builtIn.generateOverview(descriptor, null));
+    assertThat(templated.generateOverview(descriptor, "Docs"))
+        .isEqualTo(builtIn.generateOverview(descriptor, "Docs"));
+    for (Goal goal : descriptor.getGoals()) {
+      assertThat(templated.generateGoalPage(goal)).isEqualTo(builtIn.generateGoalPage(goal));
+    }
+  }
+
+  @Test
+  @DisplayName("Should iterate lists and fall back to enclosing contexts for names")
+  void testSections() throws IOException {
+    PageTemplate template =
+        MarkdownGenerator.compileGoalTemplate(
+            "test",
+            "{{#parameters}}{{name}}@{{title}}{{#required}}!{{/required}};{{/parameters}}"
+                + "{{^parameters}}none{{/parameters}}");
+
+    Goal goal = goal("check-project");
+    StringBuilder out = new StringBuilder();
+    template.render(goal, out);
+
+    assertThat(out.toString())
+        .startsWith("dataFileExcludes@Check project Goal;")
+        .contains("haltOnFailure@Check project Goal!;")
+        .doesNotContain("none");
+
+    StringBuilder empty = new StringBuilder();
+    template.render(Goal.builder().build(), empty);
+    assertThat(empty.toString()).isEqualTo("none");
+  }
+
+  @Test
+  @DisplayName("Should drop lines holding only a section or comment tag")
+  void testStandaloneLines() throws IOException {
+    PageTemplate template =
+        MarkdownGenerator.compileGoalTemplate(
+            "test", "# {{name}}\n  {{! comment }}\n{{#phase}}\nphase {{phase}}\n{{/phase}}\nend\n");
+
+    StringBuilder out = new StringBuilder();
+    template.render(goal("check-project"), out);
+
+    assertThat(out.toString()).isEqualTo("# check-project\nphase verify\nend\n");
+  }
+
+  @Test
+  @DisplayName("Should escape values unless written with triple braces")
+  void testEscaping() throws IOException {
+    PageTemplate template =
+        MarkdownGenerator.compileGoalTemplate("test", "{{name}} `{{{name}}}` {{description}}");
+
+    StringBuilder out = new StringBuilder();
+    template.render(Goal.builder().name("run_all").description("Runs *all*").build(), out);
+
+    assertThat(out.toString()).isEqualTo("run\\_all `run_all` Runs \\*all*");
+  }
+
+  @Test
+  @DisplayName("Should report unknown names and unbalanced sections with their line")
+  void testCompileErrors() {
+    assertThatThrownBy(
+            () -> MarkdownGenerator.compileGoalTemplate("goal.mustache", "# {{title}}\n{{nope}}"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("goal.mustache:2: unknown name 'nope'");
+    assertThatThrownBy(
+            () -> MarkdownGenerator.compileGoalTemplate("goal.mustache", "{{#parameters}}\n"))
+        .hasMessage("goal.mustache:1: section 'parameters' is never closed");
+    assertThatThrownBy(
+            () -> MarkdownGenerator.compileGoalTemplate("goal.mustache", "\n{{/parameters}}"))
+        .hasMessage("goal.mustache:2: unexpected closing tag 'parameters'");
+    assertThatThrownBy(() -> MarkdownGenerator.compileGoalTemplate("goal.mustache", "{{name"))
+        .hasMessage("goal.mustache:1: unterminated tag");
+  }
+
+  @Test
+  @DisplayName("Should fingerprint templates by their source")
+  void testHash() {
+    PageTemplate first = MarkdownGenerator.compileGoalTemplate("a", "# {{name}}\n");
+    PageTemplate second = MarkdownGenerator.compileGoalTemplate("b", "# {{name}}\n");
+    PageTemplate changed = MarkdownGenerator.compileGoalTemplate("a", "## {{name}}\n");
+
+    assertThat(first.getHash()).isEqualTo(second.getHash()).isNotEqualTo(changed.getHash());
+  }
+
+  private Goal goal(String name) {
+    List<Goal> goals = descriptor.getGoals();
+    return goals.stream().filter(g -> name.equals(g.getName())).findFirst().orElseThrow();
+  }
+}
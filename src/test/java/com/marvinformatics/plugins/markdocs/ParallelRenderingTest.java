@@ -0,0 +1,92 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Parallel Rendering Tests")
+class ParallelRenderingTest {
+
+  @TempDir Path workDirectory;
+
+  @Test
+  @DisplayName("Should write pages in goal order and report every failed goal page on many threads")
+  void testParallelFailures() throws Exception {
+    Path pluginXml = workDirectory.resolve("plugin.xml");
+    Files.writeString(pluginXml, descriptor(40), StandardCharsets.UTF_8);
+    Path output = workDirectory.resolve("docs");
+    // a directory where the page of every tenth goal from goal-3 goes, so writing it fails
+    for (int i = 3; i < 40; i += 10) {
+      Files.createDirectories(output.resolve("goal-" + i + ".md"));
+    }
+    List<String> logged = new ArrayList<>();
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      DocumentationGenerator generator =
+          new DocumentationGenerator(
+              new SystemStreamLog() {
+                @Override
+                public void info(CharSequence content) {
+                  synchronized (logged) {
+                    logged.add(content.toString());
+                  }
+                }
+              },
+              pool);
+
+      assertThatThrownBy(
+              () ->
+                  generator.generate(
+                      DescriptorSource.ofFile(pluginXml.toFile()), output.toFile(), "Docs"))
+          .isInstanceOf(MojoExecutionException.class)
+          .hasMessage("Failed to generate 4 of 40 goal pages")
+          .satisfies(
+              failure ->
+                  assertThat(failure.getSuppressed())
+                      .extracting(Throwable::getMessage)
+                      .satisfiesExactly(
+                          message -> assertThat(message).contains("goal-3.md"),
+                          message -> assertThat(message).contains("goal-13.md"),
+                          message -> assertThat(message).contains("goal-23.md"),
+                          message -> assertThat(message).contains("goal-33.md")));
+    } finally {
+      pool.shutdown();
+    }
+
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      if (i % 10 != 3) {
+        expected.add("Generated goal page: goal-" + i + ".md");
+        assertThat(output.resolve("goal-" + i + ".md")).isRegularFile();
+      }
+    }
+    assertThat(logged)
+        .filteredOn(line -> line.startsWith("Generated goal page"))
+        .isEqualTo(expected);
+  }
+
+  private static String descriptor(int goals) {
+    StringBuilder xml = new StringBuilder("<plugin><artifactId>many</artifactId><mojos>");
+    for (int i = 0; i < goals; i++) {
+      xml.append("<mojo><goal>goal-")
+          .append(i)
+          .append("</goal><description>Goal ")
+          .append(i)
+          .append(".</description><parameters><parameter><name>value")
+          .append(i)
+          .append("</name><type>java.lang.String</type></parameter></parameters></mojo>");
+    }
+    return xml.append("</mojos></plugin>").toString();
+  }
+}
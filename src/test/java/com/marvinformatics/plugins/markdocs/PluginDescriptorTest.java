@@ -0,0 +1,88 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Plugin Descriptor Model Tests")
+class PluginDescriptorTest {
+
+  private PluginDescriptor descriptor;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    descriptor =
+        new PluginDescriptorParser()
+            .parse(new File("src/test/resources/examples/easyjacoco/plugin.xml"));
+  }
+
+  @Test
+  @DisplayName("Should look up goals and parameters by name")
+  void testLookupByName() {
+    assertThat(descriptor.indexOfGoal("help")).isEqualTo(1);
+    assertThat(descriptor.getGoal("report-project").getName()).isEqualTo("report-project");
+    assertThat(descriptor.getGoal("absent")).isNull();
+    assertThat(descriptor.getGoal(null)).isNull();
+
+    Goal checkProject = descriptor.getGoal("check-project");
+    assertThat(checkProject.getParameter("haltOnFailure").isRequired()).isTrue();
+    assertThat(checkProject.getParameter("absent")).isNull();
+    assertThat(Goal.builder().build().getParameter("skip")).isNull();
+  }
+
+  @Test
+  @DisplayName("Should find every one of many names and keep the first of duplicates")
+  void testLargeIndex() {
+    Goal.Builder builder = Goal.builder().name("large");
+    IntStream.range(0, 1000)
+        .forEach(i -> builder.addParameter(Parameter.builder().name("p" + i).type("int").build()));
+    builder.addParameter(Parameter.builder().name("p7").type("long").build());
+    Goal goal = builder.build();
+
+    for (int i = 0; i < 1000; i++) {
+      assertThat(goal.getParameter("p" + i)).isSameAs(goal.getParameters().get(i));
+    }
+    assertThat(goal.getParameter("p7").getType()).isEqualTo("int");
+    assertThat(goal.getParameter("p1000")).isNull();
+  }
+
+  @Test
+  @DisplayName("Should not allow the model to be changed")
+  void testImmutable() {
+    Goal goal = descriptor.getGoals().get(0);
+
+    assertThatThrownBy(() -> descriptor.getGoals().clear())
+        .isInstanceOf(UnsupportedOperationException.class);
+    assertThatThrownBy(() -> goal.getParameters().remove(0))
+        .isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  @DisplayName("Should share one copy of repeated names, types and phases")
+  void testInterning() throws Exception {
+    PluginDescriptor other =
+        new PluginDescriptorParser(PluginDescriptorParser.Mode.DOM)
+            .parse(new File("src/test/resources/examples/easyjacoco/plugin.xml"));
+
+    Parameter first = descriptor.getGoal("check-project").getParameter("session");
+    Parameter second = other.getGoal("check-project").getParameter("session");
+
+    assertThat(second.getType()).isSameAs(first.getType());
+    assertThat(second.getName()).isSameAs(first.getName());
+    assertThat(other.getGoal("check-project").getPhase())
+        .isSameAs(descriptor.getGoal("check-project").getPhase());
+  }
+
+  @Test
+  @DisplayName("Should treat parameters as editable unless told otherwise")
+  void testBuilderDefaults() {
+    Parameter parameter = Parameter.builder().name("p").build();
+
+    assertThat(parameter.isEditable()).isTrue();
+    assertThat(parameter.isRequired()).isFalse();
+  }
+}
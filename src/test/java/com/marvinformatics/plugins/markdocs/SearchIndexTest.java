@@ -0,0 +1,126 @@
+package com.marvinformatics.plugins.markdocs;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Search Index Tests")
+class SearchIndexTest {
+
+  private static final Goal GOAL =
+      Goal.builder()
+          .name("check-project")
+          .description("Checks <b>coverage</b> &amp; fails the build")
+          .addParameter(
+              Parameter.builder()
+                  .name("haltOnFailure")
+                  .type("boolean")
+                  .description("Halts the build on coverage failures")
+                  .build())
+          .build();
+
+  @TempDir Path outputDirectory;
+
+  @Test
+  @DisplayName("Should list documents per goal and parameter with anchors")
+  void testDocuments() throws Exception {
+    String json = json(GOAL);
+
+    assertThat(json)
+        .startsWith("{\"version\":1,")
+        .contains("\"documents\":[\"check-project.md\",\"check-project.md#haltOnFailure\"]");
+  }
+
+  @Test
+  @DisplayName("Should sort terms and encode document and field in ascending postings")
+  void testTerms() throws Exception {
+    String json = json(GOAL);
+    List<String> terms = terms(json);
+
+    assertThat(terms).isSorted().doesNotHaveDuplicates();
+    assertThat(terms)
+        .contains("check-project", "check", "project", "haltonfailure", "halt", "failure")
+        .contains("boolean", "coverage", "fails", "build")
+        .doesNotContain("b", "amp", "the", "on");
+
+    // goal document 0, parameter document 1; fields: goal 0, parameter 1, type 2, description 3
+    assertThat(postings(json, terms, "check")).containsExactly(0);
+    assertThat(postings(json, terms, "halt")).containsExactly(1 * 4 + 1);
+    assertThat(postings(json, terms, "boolean")).containsExactly(1 * 4 + 2);
+    assertThat(postings(json, terms, "coverage")).containsExactly(3, 1 * 4 + 3);
+  }
+
+  @Test
+  @DisplayName("Should write the index with the pages and drop it once disabled")
+  void testGeneration() throws Exception {
+    DescriptorSource source =
+        DescriptorSource.ofFile(new File("src/test/resources/examples/easyjacoco/plugin.xml"));
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      DocumentationGenerator generator = new DocumentationGenerator(new SystemStreamLog(), pool);
+      generator.setSearchIndex(true);
+      generator.generate(source, outputDirectory.toFile(), "Docs");
+
+      Path index = outputDirectory.resolve(SearchIndex.FILE_NAME);
+      assertThat(Files.readString(index, StandardCharsets.UTF_8))
+          .contains("\"report-project.md#outputDirectory\"");
+      assertThat(Files.readString(outputDirectory.resolve("report-project.md")))
+          .contains("- <a id=\"outputDirectory\"></a>**outputDirectory**");
+      assertThat(GenerationManifest.load(outputDirectory.toFile()).getPages())
+          .contains(SearchIndex.FILE_NAME);
+
+      generator.setSearchIndex(false);
+      assertThat(generator.generate(source, outputDirectory.toFile(), "Docs")).isTrue();
+      assertThat(index).doesNotExist();
+      assertThat(Files.readString(outputDirectory.resolve("report-project.md")))
+          .contains("- **outputDirectory**")
+          .doesNotContain("<a id=");
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static String json(Goal goal) throws Exception {
+    SearchIndex index = new SearchIndex();
+    index.addGoal(goal, goal.getName() + ".md");
+    StringBuilder out = new StringBuilder();
+    index.writeJson(out);
+    return out.toString();
+  }
+
+  private static List<String> terms(String json) {
+    String array =
+        json.substring(json.indexOf("\"terms\":[") + 9, json.indexOf("],\n\"postings\""));
+    List<String> terms = new ArrayList<>();
+    Matcher matcher = Pattern.compile("\"([^\"]*)\"").matcher(array);
+    while (matcher.find()) {
+      terms.add(matcher.group(1));
+    }
+    return terms;
+  }
+
+  private static List<Integer> postings(String json, List<String> terms, String term) {
+    String array = json.substring(json.indexOf("\"postings\":[") + 12);
+    Matcher matcher = Pattern.compile("\\[([0-9,]*)\\]").matcher(array);
+    for (int i = 0; i <= terms.indexOf(term); i++) {
+      matcher.find();
+    }
+    List<Integer> postings = new ArrayList<>();
+    for (String posting : matcher.group(1).split(",")) {
+      postings.add(Integer.parseInt(posting));
+    }
+    return postings;
+  }
+}